@@ -9,8 +9,10 @@ import android.graphics.drawable.Drawable;
 import android.os.Handler;
 import android.support.annotation.DrawableRes;
 import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.animation.RotateAnimation;
@@ -20,16 +22,20 @@ import android.widget.FrameLayout;
 
 import com.github.tibolte.agendacalendarview.agenda.AgendaAdapter;
 import com.github.tibolte.agendacalendarview.agenda.AgendaHeaderView;
+import com.github.tibolte.agendacalendarview.agenda.AgendaRecyclerAdapter;
+import com.github.tibolte.agendacalendarview.agenda.AgendaRecyclerView;
 import com.github.tibolte.agendacalendarview.agenda.AgendaView;
 import com.github.tibolte.agendacalendarview.calendar.CalendarView;
 import com.github.tibolte.agendacalendarview.calendar.weekslist.HighlightDecorator;
+import com.github.tibolte.agendacalendarview.calendar.weekslist.WeekListView;
 import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
 import com.github.tibolte.agendacalendarview.models.CalendarEvent;
 import com.github.tibolte.agendacalendarview.models.IDayItem;
 import com.github.tibolte.agendacalendarview.models.IWeekItem;
 import com.github.tibolte.agendacalendarview.models.WeekItem;
-import com.github.tibolte.agendacalendarview.render.DefaultEventRenderer;
+import com.github.tibolte.agendacalendarview.render.EventPreparer;
 import com.github.tibolte.agendacalendarview.render.EventRenderer;
+import com.github.tibolte.agendacalendarview.render.EventRendererRegistry;
 import com.github.tibolte.agendacalendarview.utils.BusProvider;
 import com.github.tibolte.agendacalendarview.utils.Events;
 import com.github.tibolte.agendacalendarview.utils.ListViewScrollTracker;
@@ -39,6 +45,7 @@ import java.util.Calendar;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 import se.emilsjolander.stickylistheaders.StickyListHeadersListView;
 
@@ -46,10 +53,16 @@ import se.emilsjolander.stickylistheaders.StickyListHeadersListView;
  * View holding the agenda and calendar view together.
  */
 public class AgendaCalendarView extends FrameLayout implements StickyListHeadersListView.OnStickyHeaderChangedListener,
-															   StickyListHeadersListView.OnHeaderClickListener
+															   StickyListHeadersListView.OnHeaderClickListener,
+															   AgendaRecyclerView.OnStickyHeaderChangedListener,
+															   AgendaRecyclerView.OnHeaderClickListener
 {
 
 	private static final String LOG_TAG = AgendaCalendarView.class.getSimpleName();
+	/**
+	 * Maximum rotation of the floating button, in degrees
+	 */
+	private static final int    FAB_MAX_ANGLE = 85;
 
 	private CalendarView         mCalendarView;
 	private AgendaView           mAgendaView;
@@ -63,14 +76,18 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 	private int mHeaderDecoration;
 	private String mNoEventText;
 	private boolean mShowNoEventText = true;
+	private boolean mAgendaRecyclerEnabled;
 	private CalendarPickerController mCalendarPickerController;
+	private final CalendarLoader mCalendarLoader = new CalendarLoader();
+	private final ViewWarmUp     mViewWarmUp     = new ViewWarmUp();
+	/**
+	 * Prepares the rows around the visible ones, null unless enabled
+	 */
+	private EventPreparer mEventPreparer;
 
 	private ListViewScrollTracker mAgendaListViewScrollTracker;
 	private final AbsListView.OnScrollListener mAgendaScrollListener = new AbsListView.OnScrollListener()
 	{
-		int mCurrentAngle;
-		final int mMaxAngle = 85;
-
 		@Override
 		public void onScrollStateChanged(AbsListView view, int scrollState)
 		{
@@ -80,27 +97,32 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 		@Override
 		public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount)
 		{
-			int scrollY = mAgendaListViewScrollTracker.calculateScrollY(firstVisibleItem, visibleItemCount);
-			if(scrollY != 0)
-			{
-				mFloatingActionButton.show();
-			}
-			//            Log.d(LOG_TAG, String.format("Agenda listView scrollY: %d", scrollY));
-			int toAngle = scrollY / 100;
-			if(toAngle > mMaxAngle)
-			{
-				toAngle = mMaxAngle;
-			}
-			else if(toAngle < -mMaxAngle)
+			onAgendaScrolled(firstVisibleItem, visibleItemCount, mAgendaListViewScrollTracker.calculateScrollY(firstVisibleItem, visibleItemCount));
+		}
+	};
+	private final RecyclerView.OnScrollListener mAgendaRecyclerScrollListener = new RecyclerView.OnScrollListener()
+	{
+		/**
+		 * Distance scrolled since the listener was added
+		 */
+		int mScrollY;
+
+		@Override
+		public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy)
+		{
+			mScrollY += dy;
+			AgendaRecyclerView agendaRecyclerView = (AgendaRecyclerView) recyclerView;
+			int                firstVisibleItem   = agendaRecyclerView.getFirstVisiblePosition();
+			if(firstVisibleItem != RecyclerView.NO_POSITION)
 			{
-				toAngle = -mMaxAngle;
+				onAgendaScrolled(firstVisibleItem, agendaRecyclerView.getLastVisiblePosition() - firstVisibleItem + 1, mScrollY);
 			}
-			RotateAnimation rotate = new RotateAnimation(mCurrentAngle, toAngle, (float)mFloatingActionButton.getWidth() / 2, (float)mFloatingActionButton.getHeight() / 2);
-			rotate.setFillAfter(true);
-			mCurrentAngle = toAngle;
-			mFloatingActionButton.startAnimation(rotate);
 		}
 	};
+	private int mFabAngle;
+	/// visible days last reported to the CalendarManager
+	private int mVisibleFirstDay;
+	private int mVisibleLastDay;
 
 	// region Constructors
 
@@ -127,6 +149,7 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 		mShowNoEventText = a.getBoolean(R.styleable.AgendaCalendarView_showNoEventText, true);
 		mHeaderLayoutStyle = AgendaHeaderView.LayoutStyle.values()[a.getInt(R.styleable.AgendaCalendarView_agendaHeaderStyle, 0)];
 		mHeaderDecoration = a.getResourceId(R.styleable.AgendaCalendarView_agendaHeaderDecoration, -1);
+		mAgendaRecyclerEnabled = a.getBoolean(R.styleable.AgendaCalendarView_agendaRecyclerView, false);
 		a.recycle();
 		if(mNoEventText == null)
 		{
@@ -158,7 +181,8 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 		mCalendarView.findViewById(R.id.cal_day_names).setBackgroundColor(mCalendarHeaderColor);
 		mCalendarView.findViewById(R.id.list_week).setBackgroundColor(mCalendarBackgroundColor);
 
-		mAgendaView.getAgendaListView().setOnItemClickListener((AdapterView<?> parent, View view, int position, long id) -> mCalendarPickerController.onEventSelected(CalendarManager.getInstance().getEventAt(position)));
+		mAgendaView.setRecyclerEnabled(mAgendaRecyclerEnabled);
+		mAgendaView.getAgendaListView().setOnItemClickListener((AdapterView<?> parent, View view, int position, long id) -> onAgendaEventClicked(position));
 
 		BusProvider.getInstance().toObserverable().subscribe(event -> {
 			if(event instanceof Events.DayClickedEvent)
@@ -184,11 +208,19 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 						// It will reappear as soon as the user is scrolling the Agenda view.
 						new Handler().postDelayed(() -> {
 							mFloatingActionButton.hide();
-							mAgendaListViewScrollTracker = new ListViewScrollTracker(mAgendaView.getAgendaListView());
-							mAgendaView.getAgendaListView().setOnScrollListener(mAgendaScrollListener);
+							if(mAgendaView.isRecyclerEnabled())
+							{
+								mAgendaView.getAgendaRecyclerView().removeOnScrollListener(mAgendaRecyclerScrollListener);
+								mAgendaView.getAgendaRecyclerView().addOnScrollListener(mAgendaRecyclerScrollListener);
+							}
+							else
+							{
+								mAgendaListViewScrollTracker = new ListViewScrollTracker(mAgendaView.getAgendaListView());
+								mAgendaView.getAgendaListView().setOnScrollListener(mAgendaScrollListener);
+							}
 							mFloatingActionButton.setOnClickListener((v) -> {
 								mAgendaView.translateList(0);
-								mAgendaView.getAgendaListView().scrollToCurrentDate(CalendarManager.getInstance().getToday());
+								mAgendaView.scrollToCurrentDate(CalendarManager.getInstance().getToday());
 								new Handler().postDelayed(() -> mFloatingActionButton.hide(), fabAnimationDelay);
 							});
 						}, fabAnimationDelay);
@@ -211,6 +243,13 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 		});
 	}
 
+	@Override
+	protected void onDetachedFromWindow()
+	{
+		super.onDetachedFromWindow();
+		mCalendarLoader.cancel();
+	}
+
 	// endregion
 
 	// region Interface - StickyListHeadersListView.OnStickyHeaderChangedListener
@@ -220,15 +259,7 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 	{
 //		Log.d(LOG_TAG, String.format("onStickyHeaderChanged, position = %d, headerId = %d", position, headerId));
 
-		if(CalendarManager.getInstance().getEvents().size() > 0)
-		{
-			CalendarEvent event = CalendarManager.getInstance().getEventAt(position);
-			if(event != null)
-			{
-				mCalendarView.scrollToDate(event);
-				mCalendarPickerController.onScrollToDate(event.getInstanceDay());
-			}
-		}
+		onAgendaDayScrolled(position);
 	}
 
 	// endregion
@@ -237,82 +268,151 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 	@Override
 	public void onHeaderClick(StickyListHeadersListView l, View header, int itemPosition, long headerId, boolean currentlySticky)
 	{
-		if(CalendarManager.getInstance().getEvents().size() > 0)
-		{
-			CalendarEvent event = CalendarManager.getInstance().getEventAt(itemPosition);
-			if(event != null)
-			{
-				BaseCalendarEvent blankEvent = new BaseCalendarEvent((BaseCalendarEvent) event);
-				mCalendarView.scrollToDate(blankEvent);
-				mCalendarPickerController.onEventSelected(blankEvent);
-			}
-		}
+		onAgendaHeaderClicked(itemPosition);
 	}
 	//endregion
 
+	// region Interface - AgendaRecyclerView.OnStickyHeaderChangedListener
+
+	@Override
+	public void onStickyHeaderChanged(AgendaRecyclerView view, int position, long headerId)
+	{
+		onAgendaDayScrolled(position);
+	}
+
+	// endregion
+
+	// region Interface - AgendaRecyclerView.OnHeaderClickListener
+
+	@Override
+	public void onHeaderClick(AgendaRecyclerView view, int position, long headerId)
+	{
+		onAgendaHeaderClicked(position);
+	}
+
+	// endregion
+
 	// region Public methods
 
 	public void init(List<CalendarEvent> eventList, Calendar minDate, Calendar maxDate, Locale locale, CalendarPickerController calendarPickerController)
 	{
+		mCalendarLoader.cancel();
 		mCalendarPickerController = calendarPickerController;
 
 		CalendarManager.getInstance(getContext()).buildCal(minDate, maxDate, locale, new WeekItem(), mNoEventText, mShowNoEventText);
+		CalendarManager.getInstance().loadEvents(eventList, new BaseCalendarEvent());
 
-		// Feed our views with weeks list and events
-		mCalendarView.init(CalendarManager.getInstance(getContext()), mCalendarDayTextColor, mCalendarCurrentDayColor, mCalendarCurrentDayCircleColor, mCalendarPastDayTextColor);
+		setUpAgenda();
+		publishCalendar(CalendarManager.getInstance());
+	}
 
-		// Load agenda events and scroll to current day
-		Drawable headerDecoration  = null;
-		if(mHeaderDecoration != -1)
-		{
-			headerDecoration = getResources().getDrawable(mHeaderDecoration, null);
-		}
-		AgendaAdapter agendaAdapter = new AgendaAdapter(mAgendaCurrentDayTextColor, mAgendaCurrentDayColor, mHeaderLayoutStyle, headerDecoration);
-		mAgendaView.getAgendaListView().setAdapter(agendaAdapter);
-		mAgendaView.getAgendaListView().setOnStickyHeaderChangedListener(this);
-		mAgendaView.getAgendaListView().setOnHeaderClickListener(this);
+	/**
+	 * Same as init(), with the events saved by EventIndexFile.write(), e.g. on the previous start. Only the
+	 * days displayed are decoded, the agenda is shown without waiting for the app to load its events.
+	 *
+	 * @param eventFile The saved events, from EventIndexFile.open().
+	 */
+	public void init(@NonNull EventIndexFile eventFile, Calendar minDate, Calendar maxDate, Locale locale, CalendarPickerController calendarPickerController)
+	{
+		mCalendarLoader.cancel();
+		mCalendarPickerController = calendarPickerController;
 
-		CalendarManager.getInstance().loadEvents(eventList, new BaseCalendarEvent());
-		BusProvider.getInstance().send(new Events.EventsFetched());
-//		Log.d(LOG_TAG, "CalendarEventTask finished");
+		CalendarManager.getInstance(getContext()).buildCal(minDate, maxDate, locale, new WeekItem(), mNoEventText, mShowNoEventText);
+		CalendarManager.getInstance().loadEvents(eventFile, new BaseCalendarEvent());
 
-		// add default event renderer
-		addEventRenderer(new DefaultEventRenderer());
+		setUpAgenda();
+		publishCalendar(CalendarManager.getInstance());
 	}
 
-	//TODO SEH This duplicate init function is lame - get rid of it
-	public void init(Locale locale, List<IWeekItem> lWeeks, List<IDayItem> lDays, List<CalendarEvent> lEvents, CalendarPickerController calendarPickerController)
+	/**
+	 * Same as init(), with events kept in a store. Only the events of the days displayed are created,
+	 * for calendars holding too many events to keep them all as objects.
+	 */
+	public void init(@NonNull EventStore eventStore, Calendar minDate, Calendar maxDate, Locale locale, CalendarPickerController calendarPickerController)
 	{
+		mCalendarLoader.cancel();
 		mCalendarPickerController = calendarPickerController;
 
-		CalendarManager.getInstance(getContext()).loadCal(locale, lWeeks, lDays, lEvents);
+		CalendarManager.getInstance(getContext()).buildCal(minDate, maxDate, locale, new WeekItem(), mNoEventText, mShowNoEventText);
+		CalendarManager.getInstance().loadEvents(eventStore, new BaseCalendarEvent());
 
-		// Feed our views with weeks list and events
-		mCalendarView.init(CalendarManager.getInstance(getContext()), mCalendarDayTextColor, mCalendarCurrentDayColor, mCalendarCurrentDayCircleColor, mCalendarPastDayTextColor);
+		setUpAgenda();
+		publishCalendar(CalendarManager.getInstance());
+	}
 
-		// Load agenda events and scroll to current day
-		Drawable headerDecoration  = null;
-		if(mHeaderDecoration != -1)
+	/**
+	 * Same as init(), with events loaded from a data source by windows of days around the visible ones.
+	 * Days show skeleton rows until their events are loaded, so memory use doesn't depend on the number of events.
+	 */
+	public void init(@NonNull EventDataSource dataSource, Calendar minDate, Calendar maxDate, Locale locale, CalendarPickerController calendarPickerController)
+	{
+		mCalendarLoader.cancel();
+		mCalendarPickerController = calendarPickerController;
+
+		CalendarManager.getInstance(getContext()).buildCal(minDate, maxDate, locale, new WeekItem(), mNoEventText, mShowNoEventText);
+		CalendarManager.getInstance().loadEvents(dataSource, new BaseCalendarEvent());
+
+		setUpAgenda();
+		publishCalendar(CalendarManager.getInstance());
+	}
+
+	/**
+	 * Same as init(), but the weeks, days and events are built on a worker thread. Everything is
+	 * displayed at once when the build is done. Calling any init method again cancels the pending build.
+	 * Event renderers can be added right after this call. Rows are created meanwhile if setViewWarmUp() was called.
+	 */
+	public void initAsync(List<CalendarEvent> eventList, Calendar minDate, Calendar maxDate, Locale locale, CalendarPickerController calendarPickerController)
+	{
+		if(minDate == null || maxDate == null || locale == null)
 		{
-			headerDecoration = getResources().getDrawable(mHeaderDecoration, null);
+			throw new IllegalArgumentException("minDate, maxDate and locale must be non-null.");
 		}
-		AgendaAdapter agendaAdapter = new AgendaAdapter(mAgendaCurrentDayTextColor, mAgendaCurrentDayColor, mHeaderLayoutStyle, headerDecoration);
-		mAgendaView.getAgendaListView().setAdapter(agendaAdapter);
-		mAgendaView.getAgendaListView().setOnStickyHeaderChangedListener(this);
-		mAgendaView.getAgendaListView().setOnHeaderClickListener(this);
+		mCalendarPickerController = calendarPickerController;
 
-		// notify that actually everything is loaded
-		BusProvider.getInstance().send(new Events.EventsFetched());
-		Log.d(LOG_TAG, "CalendarEventTask finished");
+		setUpAgenda();
+		if(mViewWarmUp.isEnabled())
+		{
+			// Posted so the renderers added right after this call get rows as well
+			new Handler().post(this::startViewWarmUp);
+		}
+		mCalendarLoader.load(getContext(), eventList, minDate, maxDate, locale, mNoEventText, mShowNoEventText, this::publishCalendar);
+	}
+
+	//TODO SEH This duplicate init function is lame - get rid of it
+	public void init(Locale locale, List<IWeekItem> lWeeks, List<IDayItem> lDays, List<CalendarEvent> lEvents, CalendarPickerController calendarPickerController)
+	{
+		mCalendarLoader.cancel();
+		mCalendarPickerController = calendarPickerController;
 
-		// add default event renderer
-		addEventRenderer(new DefaultEventRenderer());
+		CalendarManager.getInstance(getContext()).loadCal(locale, lWeeks, lDays, lEvents);
+
+		setUpAgenda();
+		publishCalendar(CalendarManager.getInstance());
+	}
+
+	/**
+	 * @param executor The executor used by initAsync(), or null to use a shared background thread.
+	 */
+	public void setCalendarLoadExecutor(Executor executor)
+	{
+		mCalendarLoader.setExecutor(executor);
 	}
 
 	public void addEventRenderer(@NonNull final EventRenderer<?> renderer)
 	{
-		AgendaAdapter adapter = (AgendaAdapter) mAgendaView.getAgendaListView().getAdapter();
-		adapter.addEventRenderer(renderer);
+		if(mAgendaView.isRecyclerEnabled())
+		{
+			mAgendaView.getAgendaRecyclerView().getAdapter().addEventRenderer(renderer);
+		}
+		else
+		{
+			AgendaAdapter agendaAdapter = getAgendaAdapter();
+			// The list only reads the number of view types when its adapter is set, spare ones are reported up front
+			if(agendaAdapter.addEventRenderer(renderer))
+			{
+				mAgendaView.getAgendaListView().setAdapter(agendaAdapter);
+			}
+		}
 	}
 
 	public void enableCalenderView(boolean enable)
@@ -327,6 +427,42 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 		mFloatingActionButton.setVisibility(enable ? VISIBLE : GONE);
 	}
 
+	/**
+	 * Create rows on a worker thread while initAsync() builds the calendar, so showing it inflates no view.
+	 * Disabled by default, call before initAsync().
+	 *
+	 * @param weekRows         Number of week rows, a few more than the weeks visible at once.
+	 * @param eventRowsPerType Number of agenda rows per event renderer, the rows visible at once.
+	 * @param headers          Number of day headers, the days visible at once.
+	 */
+	public void setViewWarmUp(int weekRows, int eventRowsPerType, int headers)
+	{
+		mViewWarmUp.setCounts(weekRows, eventRowsPerType, headers);
+	}
+
+	/**
+	 * Let the event renderers prepare the rows around the visible ones on a worker thread, as the agenda
+	 * scrolls. The default renderer measures the titles and locations, so binding doesn't. Disabled by default.
+	 */
+	public void setEventPreparationEnabled(boolean enable)
+	{
+		if(mEventPreparer != null)
+		{
+			mEventPreparer.cancel();
+		}
+		mEventPreparer = enable ? new EventPreparer() : null;
+	}
+
+	/**
+	 * Show the agenda in a RecyclerView with prefetched rows and sticky headers drawn as a decoration,
+	 * like the agendaRecyclerView attribute. Call before init().
+	 */
+	public void setAgendaRecyclerEnabled(boolean enable)
+	{
+		mAgendaRecyclerEnabled = enable;
+		mAgendaView.setRecyclerEnabled(enable);
+	}
+
 	public IDayItem getSelectedDay()
 	{
 		return mCalendarView.getSelectedDay();
@@ -339,18 +475,25 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 
 		Calendar calendar = Calendar.getInstance();
 		calendar.setTimeInMillis(timestamp);
-		mAgendaView.getAgendaListView().scrollToCurrentDate(calendar);
+		mAgendaView.scrollToCurrentDate(calendar);
 	}
 	
 	/**
-	 * @param eventList The complete list of events including 'no event' events for empty days.
-	 *                  Failure to include 'no event' events will cause a NPE
+	 * @param eventList The complete list of events. Placeholders for empty days aren't needed, days without
+	 *                  events only take a row if the list has a 'no event' event for them.
 	 */
 	public void setEvents(List<CalendarEvent> eventList)
 	{
 		try
 		{
-			((AgendaAdapter) mAgendaView.getAgendaListView().getAdapter()).setEvents(eventList);
+			if(mAgendaView.isRecyclerEnabled())
+			{
+				mAgendaView.getAgendaRecyclerView().getAdapter().setEvents(eventList);
+			}
+			else
+			{
+				((AgendaAdapter) mAgendaView.getAgendaListView().getAdapter()).setEvents(eventList);
+			}
 		}
 		catch(Throwable tr)
 		{
@@ -375,4 +518,201 @@ public class AgendaCalendarView extends FrameLayout implements StickyListHeaders
 		mCalendarView.setHighlightDecorator(highlightDecorator);
 	}
 	// endregion
+
+	// region Private methods
+
+	private AgendaAdapter getAgendaAdapter()
+	{
+		return (AgendaAdapter) mAgendaView.getAgendaListView().getAdapter();
+	}
+
+	/**
+	 * @return The snapshot displayed by the agenda, whichever list shows it.
+	 */
+	private CalendarSnapshot getAgendaSnapshot()
+	{
+		if(mAgendaView.isRecyclerEnabled())
+		{
+			AgendaRecyclerAdapter adapter = mAgendaView.getAgendaRecyclerView().getAdapter();
+			return adapter != null ? adapter.getSnapshot() : null;
+		}
+		AgendaAdapter adapter = getAgendaAdapter();
+		return adapter != null ? adapter.getSnapshot() : null;
+	}
+
+	private void onAgendaEventClicked(int position)
+	{
+		CalendarEvent event = getAgendaSnapshot().getEventInstanceAt(position);
+		CalendarManager.getInstance().resolveReferences(event);
+		mCalendarPickerController.onEventSelected(event);
+	}
+
+	private void onAgendaDayScrolled(int position)
+	{
+		CalendarSnapshot snapshot = getAgendaSnapshot();
+		if(snapshot != null && snapshot.getEventCount() > 0)
+		{
+			CalendarEvent event = snapshot.getEventInstanceAt(position);
+			if(event != null)
+			{
+				mCalendarView.scrollToDate(event);
+				mCalendarPickerController.onScrollToDate(event.getInstanceDay());
+			}
+		}
+	}
+
+	private void onAgendaHeaderClicked(int position)
+	{
+		CalendarSnapshot snapshot = getAgendaSnapshot();
+		if(snapshot != null && snapshot.getEventCount() > 0)
+		{
+			CalendarEvent event = snapshot.getEventInstanceAt(position);
+			if(event != null)
+			{
+				CalendarManager.getInstance().resolveReferences(event);
+				BaseCalendarEvent blankEvent = new BaseCalendarEvent((BaseCalendarEvent) event);
+				mCalendarView.scrollToDate(blankEvent);
+				mCalendarPickerController.onEventSelected(blankEvent);
+			}
+		}
+	}
+
+	private void onAgendaScrolled(int firstVisibleItem, int visibleItemCount, int scrollY)
+	{
+		reportVisibleDays(firstVisibleItem, visibleItemCount);
+		prepareRows(firstVisibleItem, visibleItemCount);
+
+		if(scrollY != 0)
+		{
+			mFloatingActionButton.show();
+		}
+		//            Log.d(LOG_TAG, String.format("Agenda listView scrollY: %d", scrollY));
+		int toAngle = scrollY / 100;
+		if(toAngle > FAB_MAX_ANGLE)
+		{
+			toAngle = FAB_MAX_ANGLE;
+		}
+		else if(toAngle < -FAB_MAX_ANGLE)
+		{
+			toAngle = -FAB_MAX_ANGLE;
+		}
+		RotateAnimation rotate = new RotateAnimation(mFabAngle, toAngle, (float)mFloatingActionButton.getWidth() / 2, (float)mFloatingActionButton.getHeight() / 2);
+		rotate.setFillAfter(true);
+		mFabAngle = toAngle;
+		mFloatingActionButton.startAnimation(rotate);
+	}
+
+	/**
+	 * Let the CalendarManager load the events around the visible days, ahead of the scroll.
+	 */
+	private void reportVisibleDays(int firstVisibleItem, int visibleItemCount)
+	{
+		CalendarSnapshot snapshot = getAgendaSnapshot();
+		if(visibleItemCount == 0 || snapshot == null || CalendarManager.getInstance() == null)
+		{
+			return;
+		}
+		int firstDay = snapshot.getDayAt(firstVisibleItem);
+		int lastDay  = snapshot.getDayAt(firstVisibleItem + visibleItemCount - 1);
+		if(firstDay != mVisibleFirstDay || lastDay != mVisibleLastDay)
+		{
+			CalendarManager.getInstance().onVisibleRangeChanged(firstDay, lastDay, Integer.signum(firstDay - mVisibleFirstDay));
+			mVisibleFirstDay = firstDay;
+			mVisibleLastDay = lastDay;
+		}
+	}
+
+	/**
+	 * Let the renderers prepare the rows around the visible ones, e.g. measure their texts.
+	 */
+	private void prepareRows(int firstVisibleItem, int visibleItemCount)
+	{
+		CalendarSnapshot snapshot = getAgendaSnapshot();
+		if(mEventPreparer == null || visibleItemCount == 0 || snapshot == null)
+		{
+			return;
+		}
+		EventRendererRegistry renderers = mAgendaView.isRecyclerEnabled() ? mAgendaView.getAgendaRecyclerView().getAdapter().getRenderers() : getAgendaAdapter().getRenderers();
+		mEventPreparer.onVisibleRangeChanged(snapshot, renderers, firstVisibleItem, firstVisibleItem + visibleItemCount - 1);
+	}
+
+	/**
+	 * Set a new adapter on the agenda. Events without a renderer show the registry's default row.
+	 */
+	private void setUpAgenda()
+	{
+		if(mEventPreparer != null)
+		{
+			mEventPreparer.cancel();
+		}
+		Drawable headerDecoration  = null;
+		if(mHeaderDecoration != -1)
+		{
+			headerDecoration = getResources().getDrawable(mHeaderDecoration, null);
+		}
+		if(mAgendaView.isRecyclerEnabled())
+		{
+			AgendaRecyclerAdapter agendaAdapter = new AgendaRecyclerAdapter(mAgendaCurrentDayTextColor, mAgendaCurrentDayColor, mHeaderLayoutStyle, headerDecoration);
+			agendaAdapter.setOnEventClickListener(this::onAgendaEventClicked);
+			mAgendaView.getAgendaRecyclerView().setAdapter(agendaAdapter);
+			mAgendaView.getAgendaRecyclerView().setOnStickyHeaderChangedListener(this);
+			mAgendaView.getAgendaRecyclerView().setOnHeaderClickListener(this);
+		}
+		else
+		{
+			AgendaAdapter agendaAdapter = new AgendaAdapter(mAgendaCurrentDayTextColor, mAgendaCurrentDayColor, mHeaderLayoutStyle, headerDecoration);
+			mAgendaView.getAgendaListView().setAdapter(agendaAdapter);
+			mAgendaView.getAgendaListView().setOnStickyHeaderChangedListener(this);
+			mAgendaView.getAgendaListView().setOnHeaderClickListener(this);
+		}
+	}
+
+	/**
+	 * Create week rows, agenda rows and headers in the background, handed to the views once created.
+	 */
+	private void startViewWarmUp()
+	{
+		final WeekListView weekListView = mCalendarView.getListViewWeeks();
+		if(mAgendaView.isRecyclerEnabled())
+		{
+			final AgendaRecyclerView    recyclerView = mAgendaView.getAgendaRecyclerView();
+			final AgendaRecyclerAdapter adapter      = recyclerView.getAdapter();
+			mViewWarmUp.start(getContext(), recyclerView, adapter.getRenderers(), (weekRows, eventRows, headers) -> {
+				weekListView.addWarmRows(weekRows);
+				addWarmRows(adapter.getRenderers(), eventRows);
+				adapter.addWarmHeaders(headers);
+			});
+		}
+		else
+		{
+			final AgendaAdapter adapter = getAgendaAdapter();
+			mViewWarmUp.start(getContext(), mAgendaView.getAgendaListView().getWrappedList(), adapter.getRenderers(), (weekRows, eventRows, headers) -> {
+				weekListView.addWarmRows(weekRows);
+				addWarmRows(adapter.getRenderers(), eventRows);
+				adapter.addWarmHeaders(headers);
+			});
+		}
+	}
+
+	private static void addWarmRows(EventRendererRegistry renderers, SparseArray<List<View>> rows)
+	{
+		for(int i = 0; i < rows.size(); i++)
+		{
+			renderers.addWarmRows(rows.keyAt(i), rows.valueAt(i));
+		}
+	}
+
+	/**
+	 * Feed the calendar and agenda views with a fully loaded calendar, and scroll to the current day.
+	 */
+	private void publishCalendar(CalendarManager calendarManager)
+	{
+		mCalendarView.init(calendarManager, mCalendarDayTextColor, mCalendarCurrentDayColor, mCalendarCurrentDayCircleColor, mCalendarPastDayTextColor);
+
+		// notify that actually everything is loaded
+		BusProvider.getInstance().send(new Events.EventsFetched());
+		Log.d(LOG_TAG, "CalendarEventTask finished");
+	}
+
+	// endregion
 }
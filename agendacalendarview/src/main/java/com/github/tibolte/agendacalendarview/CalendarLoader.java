@@ -0,0 +1,180 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.models.WeekItem;
+import com.github.tibolte.agendacalendarview.utils.BackgroundExecutor;
+import com.github.tibolte.agendacalendarview.utils.DateLabels;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Builds the weeks, days and event buckets of a calendar on a worker thread, then hands the
+ * finished CalendarManager to the main thread. Starting a new load cancels the pending one.
+ */
+public class CalendarLoader
+{
+
+	private static final String LOG_TAG = CalendarLoader.class.getSimpleName();
+	/**
+	 * Number of days around today whose labels are formatted with the calendar, the first screens shown
+	 */
+	private static final int    PREPARED_LABEL_DAYS = 31;
+
+	private static final BackgroundExecutor sDefaultExecutor = new BackgroundExecutor("AgendaCalendarLoader");
+
+	private final Handler  mMainHandler = new Handler(Looper.getMainLooper());
+	private       Executor mExecutor;
+	/**
+	 * Task of the load in progress, if any
+	 */
+	private FutureTask<CalendarManager> mPendingTask;
+	/**
+	 * Incremented for every load, so results of superseded loads are dropped
+	 */
+	private int                         mGeneration;
+
+	// region Interfaces
+
+	public interface Callback
+	{
+		/**
+		 * Called on the main thread with the fully built calendar.
+		 */
+		void onCalendarLoaded(@NonNull CalendarManager calendarManager);
+	}
+
+	// endregion
+
+	// region Constructors
+
+	public CalendarLoader()
+	{
+		this(null);
+	}
+
+	/**
+	 * @param executor The executor running the loads, or null to use a shared background thread.
+	 */
+	public CalendarLoader(@Nullable Executor executor)
+	{
+		mExecutor = executor;
+	}
+
+	// endregion
+
+	// region Public methods
+
+	public void setExecutor(@Nullable Executor executor)
+	{
+		mExecutor = executor;
+	}
+
+	/**
+	 * Start building a calendar, cancelling any load still in progress.
+	 */
+	@MainThread
+	public void load(@NonNull Context context, @NonNull List<CalendarEvent> eventList, @NonNull Calendar minDate, @NonNull Calendar maxDate, @NonNull Locale locale,
+			@Nullable String noEventText, boolean showNoEventText, @NonNull Callback callback)
+	{
+		cancel();
+
+		final int generation = mGeneration;
+		// Defensive copies, the caller is free to reuse its list and dates once we return. Events are indexed as they are
+		final Context             appContext = context.getApplicationContext();
+		final List<CalendarEvent> events     = new ArrayList<>(eventList);
+		final Calendar            min        = (Calendar) minDate.clone();
+		final Calendar            max        = (Calendar) maxDate.clone();
+
+		final FutureTask<CalendarManager> task = new FutureTask<CalendarManager>(() -> {
+			long            start           = System.currentTimeMillis();
+			CalendarManager calendarManager = new CalendarManager(appContext);
+			calendarManager.buildCal(min, max, locale, new WeekItem(), noEventText, showNoEventText);
+			calendarManager.loadEvents(events, new BaseCalendarEvent());
+			int today = calendarManager.getTodayEpochDay();
+			DateLabels.getInstance(appContext, locale).prepare(today - PREPARED_LABEL_DAYS, today + PREPARED_LABEL_DAYS);
+			Log.i(LOG_TAG, "Built calendar in " + (System.currentTimeMillis() - start) + " ms.");
+			return calendarManager;
+		})
+		{
+			@Override
+			protected void done()
+			{
+				if(isCancelled())
+				{
+					return;
+				}
+				try
+				{
+					final CalendarManager calendarManager = get();
+					mMainHandler.post(() -> publish(generation, calendarManager, callback));
+				}
+				catch(CancellationException e)
+				{
+					// superseded by another load
+				}
+				catch(Exception e)
+				{
+					Log.e(LOG_TAG, "Failed to build the calendar.", e);
+				}
+			}
+		};
+		mPendingTask = task;
+		getExecutor().execute(task);
+	}
+
+	/**
+	 * Cancel the load in progress, its result will never be delivered.
+	 */
+	@MainThread
+	public void cancel()
+	{
+		mGeneration++;
+		if(mPendingTask != null)
+		{
+			mPendingTask.cancel(true);
+			mPendingTask = null;
+		}
+	}
+
+	public boolean isLoading()
+	{
+		return mPendingTask != null;
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private void publish(int generation, CalendarManager calendarManager, Callback callback)
+	{
+		if(generation != mGeneration)
+		{
+			return;
+		}
+		mPendingTask = null;
+		CalendarManager.setInstance(calendarManager);
+		callback.onCalendarLoaded(calendarManager);
+	}
+
+	private Executor getExecutor()
+	{
+		return mExecutor != null ? mExecutor : sDefaultExecutor;
+	}
+
+	// endregion
+}
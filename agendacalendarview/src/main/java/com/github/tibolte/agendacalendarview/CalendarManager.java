@@ -2,25 +2,34 @@ package com.github.tibolte.agendacalendarview;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
+import android.util.LongSparseArray;
+import android.util.SparseBooleanArray;
 
+import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
 import com.github.tibolte.agendacalendarview.models.CalendarEvent;
-import com.github.tibolte.agendacalendarview.models.DayItem;
+import com.github.tibolte.agendacalendarview.models.CalendarGrid;
 import com.github.tibolte.agendacalendarview.models.IDayItem;
 import com.github.tibolte.agendacalendarview.models.IWeekItem;
+import com.github.tibolte.agendacalendarview.models.VirtualWeekList;
+import com.github.tibolte.agendacalendarview.utils.BackgroundExecutor;
+import com.github.tibolte.agendacalendarview.utils.BusProvider;
+import com.github.tibolte.agendacalendarview.utils.DateHelper;
+import com.github.tibolte.agendacalendarview.utils.EpochDays;
+import com.github.tibolte.agendacalendarview.utils.Events;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This class manages information about the calendar. (Events, weather info...)
@@ -32,12 +41,22 @@ public class CalendarManager
 
 	private static final String LOG_TAG = CalendarManager.class.getSimpleName();
 
+	/**
+	 * Delay without change of the visible days before VisibleRangeChanged is sent
+	 */
+	private static final long VISIBLE_RANGE_DEBOUNCE_MS = 150;
+
 	@SuppressLint("StaticFieldLeak")
-	private static CalendarManager mInstance;
+	private static volatile CalendarManager mInstance;
+	/**
+	 * Computes the changes between snapshots, in the order they were published
+	 */
+	private static final BackgroundExecutor sDiffExecutor = new BackgroundExecutor("AgendaCalendarDiff");
 
 	private final Context    mContext;
 	private       Locale     mLocale;
 	private Calendar         mToday = Calendar.getInstance();
+	private int              mTodayEpochDay = EpochDays.toEpochDay(mToday);
 	private SimpleDateFormat mWeekdayFormatter;
 	private SimpleDateFormat mMonthHalfNameFormat;
 	private String           mNoEventText;
@@ -47,17 +66,46 @@ public class CalendarManager
 	private IWeekItem mCleanWeek;
 
 	/**
-	 * List of days used by the calendar
+	 * Weeks, days and events currently displayed, replaced as a whole on every change
+	 */
+	private volatile CalendarSnapshot mSnapshot = CalendarSnapshot.EMPTY;
+	/**
+	 * Events and the day they're indexed on, by event id, published with the snapshot and never modified
+	 * once published, so it's read without lock. Null until needed when events were read from an
+	 * EventIndexFile or an EventStore, see getPublishedEventsById()
 	 */
-	private List<IDayItem>      mDays   = new ArrayList<>();
+	private volatile LongSparseArray<IndexedEvent> mEventsById = new LongSparseArray<>();
+	/**
+	 * Shared event rendered in the rows of days without events, see CalendarSnapshot
+	 */
+	private CalendarEvent mPlaceholder;
+	/**
+	 * Shared event rendered in the rows of days not loaded yet from an EventDataSource
+	 */
+	private CalendarEvent mSkeleton;
+	/**
+	 * Loader of the EventDataSource given to loadEvents(), if any, guarded by mWriteLock
+	 */
+	private EventWindowLoader mWindowLoader;
+	
+	/// pending mutations, see beginBatch()
+	private final ReentrantLock      mWriteLock   = new ReentrantLock();
+	private final Handler            mMainHandler = new Handler(Looper.getMainLooper());
 	/**
-	 * List of weeks used by the calendar
+	 * Copy of the published event index the current batch works on, null until the first mutation
 	 */
-	private List<IWeekItem>     mWeeks  = new ArrayList<>();
+	private       EventDayIndex      mPendingIndex;
 	/**
-	 * HashMap of events instances
+	 * Copy of the published id index the current batch works on, null until the first mutation
 	 */
-	private TreeMap<Calendar, ArrayList<CalendarEvent>> mEvents = new TreeMap<>();
+	private       LongSparseArray<IndexedEvent> mPendingEventsById;
+	private final SparseBooleanArray mChangedDays = new SparseBooleanArray();
+	private       boolean            mStructureChanged;
+
+	/// visible days, main thread only, see onVisibleRangeChanged()
+	private       int                mVisibleFirstDay;
+	private       int                mVisibleLastDay;
+	private final Runnable           mVisibleRangeChanged = () -> BusProvider.getInstance().send(new Events.VisibleRangeChanged(mVisibleFirstDay, mVisibleLastDay));
 
 	// region Constructors
 
@@ -79,6 +127,14 @@ public class CalendarManager
 	{
 		return mInstance;
 	}
+	
+	/**
+	 * Publish a CalendarManager built off the main thread, see CalendarLoader.
+	 */
+	static void setInstance(@NonNull CalendarManager calendarManager)
+	{
+		mInstance = calendarManager;
+	}
 
 	// endregion
 
@@ -102,6 +158,15 @@ public class CalendarManager
 	public void setToday(Calendar today)
 	{
 		this.mToday = today;
+		this.mTodayEpochDay = EpochDays.toEpochDay(today);
+	}
+
+	/**
+	 * @return The local epoch day of getToday(), for comparisons while binding views.
+	 */
+	public int getTodayEpochDay()
+	{
+		return mTodayEpochDay;
 	}
 	
 	public void setShowPlaceholders(boolean showPlaceholders)
@@ -109,119 +174,102 @@ public class CalendarManager
 		this.mShowPlaceholders = showPlaceholders;
 	}
 
+	/**
+	 * @return The current state of the calendar. It never changes, hold on to it to read consistent data.
+	 */
+	@NonNull
+	public CalendarSnapshot getSnapshot()
+	{
+		return mSnapshot;
+	}
+
 	public List<IWeekItem> getWeeks()
 	{
-		return mWeeks;
+		return mSnapshot.getWeeks();
 	}
 
-	public TreeMap<Calendar, ArrayList<CalendarEvent>> getEvents()
+	public List<IDayItem> getDays()
 	{
-		return mEvents;
+		return mSnapshot.getDays();
+	}
+
+	/**
+	 * @return The number of event instances, placeholders included.
+	 */
+	public int getEventCount()
+	{
+		return mSnapshot.getEventCount();
 	}
 	
-	public ArrayList<CalendarEvent> getEvents(@NonNull IDayItem dayItem)
+	public List<CalendarEvent> getEvents(@NonNull IDayItem dayItem)
 	{
-		return getEvents(dayItem.getCalendar());
+		return getEvents(dayItem.getEpochDay());
 	}
 	
-	public ArrayList<CalendarEvent> getEvents(@NonNull Calendar calendar)
+	public List<CalendarEvent> getEvents(@NonNull Calendar calendar)
 	{
-		calendar.set(Calendar.HOUR, 0);
-		calendar.set(Calendar.MINUTE, 0);
-		calendar.set(Calendar.SECOND, 0);
-		calendar.set(Calendar.MILLISECOND, 0);
-		calendar.set(Calendar.AM_PM, 0);
-		ArrayList<CalendarEvent> events = mEvents.get(calendar);
-		if(events == null)
-		{
-			events = new ArrayList<>();
-			mEvents.put(calendar, events);
-		}
-		return events;
+		return getEvents(DateHelper.toEpochDay(calendar));
+	}
+	
+	/**
+	 * @param epochDay The local epoch day, see DateHelper.toEpochDay().
+	 * @return The events of the day, or an empty list if there's none. The list is shared with the snapshot and must not be modified.
+	 */
+	public List<CalendarEvent> getEvents(int epochDay)
+	{
+		return mSnapshot.getEvents(epochDay);
 	}
 	
 	public void setEvents(List<CalendarEvent> events)
 	{
-		mEvents.clear();
-		for(CalendarEvent calendarEvent : events)
+		mWriteLock.lock();
+		try
+		{
+			CalendarSnapshot snapshot = mSnapshot;
+			setWindowLoader(null);
+			discardPending();
+			// Keep the range, so the rows of the days that didn't change keep their position
+			publish(snapshot.getWeeks(), snapshot.getDays(), indexEvents(events, snapshot.getEventIndex()));
+			dispatchDiff(snapshot, null, false);
+		}
+		finally
 		{
-			getEvents(calendarEvent.getInstanceDay()).add(calendarEvent);
+			mWriteLock.unlock();
 		}
 	}
 	
 	public ArrayList<CalendarEvent> getEventList()
 	{
-		long start = System.currentTimeMillis();
-		ArrayList<CalendarEvent> events = new ArrayList<>();
-		
-		//The keys are sorted chronologically in the TreeMap
-		for(Map.Entry<Calendar, ArrayList<CalendarEvent>> entry : mEvents.entrySet())
-		{
-			ArrayList<CalendarEvent> dayEvents = entry.getValue();
-			if(dayEvents != null)
-			{
-				events.addAll(dayEvents);
-			}
-		}
+		long                     start  = System.currentTimeMillis();
+		ArrayList<CalendarEvent> events = mSnapshot.getEventList();
 		Log.i(LOG_TAG, "Generated event list in " + (System.currentTimeMillis() - start) + " ms.");
-		
 		return events;
 	}
 	
+	/**
+	 * @param position The position in the agenda list.
+	 * @return The event instance displayed at that position, or null if out of bounds.
+	 */
 	public CalendarEvent getEventAt(int position)
 	{
-		for(Map.Entry<Calendar, ArrayList<CalendarEvent>> entry : mEvents.entrySet())
-		{
-			ArrayList<CalendarEvent> dayEvents = entry.getValue();
-			if(dayEvents != null)
-			{
-				if(dayEvents.size() <= position)
-				{
-					position -= dayEvents.size();
-					continue;
-				}
-				
-				return dayEvents.get(position);
-			}
-		}
-		
-		return null;
+		return mSnapshot.getEventAt(position);
 	}
 	
-	public int getIndexForDay(@NonNull Calendar calendar)
+	/**
+	 * @param position The position in the agenda list.
+	 * @return The local epoch day of the section holding that position.
+	 */
+	public int getDayAt(int position)
 	{
-		calendar.set(Calendar.HOUR, 0);
-		calendar.set(Calendar.MINUTE, 0);
-		calendar.set(Calendar.SECOND, 0);
-		calendar.set(Calendar.MILLISECOND, 0);
-		calendar.set(Calendar.AM_PM, 0);
-		
-		int idx = -1;
-		
-		//The keys are sorted chronologically in the TreeMap
-		for(Map.Entry<Calendar, ArrayList<CalendarEvent>> entry : mEvents.entrySet())
-		{
-			if(entry.getKey().equals(calendar))
-			{
-				idx++;
-				break;
-			}
-			else
-			{
-				ArrayList<CalendarEvent> dayEvents = entry.getValue();
-				if(dayEvents != null)
-				{
-					idx += dayEvents.size();
-				}
-			}
-		}
-		
-		return idx;
+		return mSnapshot.getDayAt(position);
 	}
-
-	public List<IDayItem> getDays()
+	
+	/**
+	 * @return The position of the first event of the given day in the agenda list.
+	 */
+	public int getIndexForDay(@NonNull Calendar calendar)
 	{
-		return mDays;
+		return mSnapshot.getPosition(DateHelper.toEpochDay(calendar));
 	}
 
 	public SimpleDateFormat getWeekdayFormatter()
@@ -264,157 +312,790 @@ public class CalendarManager
 		}
 		mShowPlaceholders = showNoEventText;
 
-		mDays.clear();
-		mWeeks.clear();
-		mEvents.clear();
-
 		mCleanWeek = cleanWeek;
 
-		Calendar mMinCal      = Calendar.getInstance(mLocale);
-		Calendar mMaxCal      = Calendar.getInstance(mLocale);
-		Calendar mWeekCounter = Calendar.getInstance(mLocale);
-
-		mMinCal.setTime(minDate.getTime());
-		mMaxCal.setTime(maxDate.getTime());
-
-		// maxDate is exclusive, here we bump back to the previous day, as maxDate if December 1st, 2020,
-		// we don't include that month in our list
-		mMaxCal.add(Calendar.MINUTE, -1);
-
-		// Now iterate we iterate between mMinCal and mMaxCal so we build our list of weeks
-		mWeekCounter.setTime(mMinCal.getTime());
-		int maxMonth = mMaxCal.get(Calendar.MONTH);
-		int maxYear  = mMaxCal.get(Calendar.YEAR);
+		// The grid is shared with other calendars of the same range, weeks and days are only created when displayed
+		CalendarGrid    grid       = CalendarGrid.obtain(minDate, maxDate, mLocale, mContext.getString(R.string.month_half_name_format));
+		VirtualWeekList weeks      = new VirtualWeekList(grid, cleanWeek);
+		EventDayIndex   eventIndex = new EventDayIndex();
+		eventIndex.reset(weeks.getFirstDay(), weeks.getLastDay());
+		mWriteLock.lock();
+		try
+		{
+			setWindowLoader(null);
+			discardPending();
+			mEventsById = new LongSparseArray<>();
+			publish(weeks, weeks.getDays(), eventIndex);
+		}
+		finally
+		{
+			mWriteLock.unlock();
+		}
+	}
 
-		int currentMonth = mWeekCounter.get(Calendar.MONTH);
-		int currentYear  = mWeekCounter.get(Calendar.YEAR);
+	public void loadEvents(List<CalendarEvent> eventList, CalendarEvent noEvent)
+	{
+		mPlaceholder = newPlaceholder(noEvent);
+		
+		// Bucket the caller's events per day, they aren't copied
+		CalendarSnapshot              snapshot   = mSnapshot;
+		EventDayIndex                 eventIndex = new EventDayIndex();
+		LongSparseArray<IndexedEvent> eventsById = new LongSparseArray<>(eventList.size());
+		eventIndex.reset(snapshot.getEventIndex().getFirstDay(), snapshot.getEventIndex().getLastDay());
+		// Days without events are left empty, placeholders are virtual rows
+		eventIndex.setPlaceholderRows(mShowPlaceholders);
+		List<CalendarEvent> outOfRange = new ArrayList<>();
+		int                 count      = 0;
+		for(CalendarEvent calendarEvent : eventList)
+		{
+			if(count++ % 256 == 0)
+			{
+				checkCancelled();
+			}
+			
+			int epochDay = DateHelper.toEpochDay(calendarEvent.getInstanceDay());
+			if(!eventIndex.contains(epochDay))
+			{
+				// Days out of the weeks have no row, unless the weeks get extended meanwhile
+				outOfRange.add(calendarEvent);
+				continue;
+			}
+			// add events in the order of the list
+			eventIndex.add(epochDay, calendarEvent);
+			eventsById.put(calendarEvent.getId(), new IndexedEvent(calendarEvent, epochDay));
+		}
+		
+		mWriteLock.lock();
+		try
+		{
+			setWindowLoader(null);
+			discardPending();
+			// Read the weeks again, they may have been extended while loading
+			EventDayIndex range = mSnapshot.getEventIndex();
+			eventIndex.extend(range.getFirstDay(), range.getLastDay());
+			int ignored = 0;
+			for(CalendarEvent calendarEvent : outOfRange)
+			{
+				int epochDay = DateHelper.toEpochDay(calendarEvent.getInstanceDay());
+				if(eventIndex.contains(epochDay))
+				{
+					eventIndex.add(epochDay, calendarEvent);
+					eventsById.put(calendarEvent.getId(), new IndexedEvent(calendarEvent, epochDay));
+				}
+				else
+				{
+					ignored++;
+				}
+			}
+			if(ignored > 0)
+			{
+				Log.w(LOG_TAG, "Ignoring " + ignored + " events outside of the calendar range.");
+			}
+			mEventsById = eventsById;
+			publish(mSnapshot.getWeeks(), mSnapshot.getDays(), eventIndex);
+		}
+		finally
+		{
+			mWriteLock.unlock();
+		}
+	}
 
-		// Loop through the weeks
-		while((currentMonth <= maxMonth // Up to, including the month.
-		       || currentYear < maxYear) // Up to the year.
-		      && currentYear < maxYear + 1)
-		{ // But not > next yr.
+	/**
+	 * Show events saved by EventIndexFile.write(), after buildCal(). Events are only decoded when their
+	 * day is displayed, so the agenda can be shown right away. Days outside of the file show no event.
+	 * The file can then be replaced by the app's events with loadEvents() as usual.
+	 */
+	public void loadEvents(@NonNull EventIndexFile eventFile, CalendarEvent noEvent)
+	{
+		loadEvents((EventDayIndex.Source) eventFile, noEvent);
+	}
 
-			Date date = mWeekCounter.getTime();
-			// Build our week list
-			int currentWeekOfYear = mWeekCounter.get(Calendar.WEEK_OF_YEAR);
+	/**
+	 * Show the events of a store, after buildCal(). Event objects are only created for the days displayed.
+	 * Mutations are supported, but the first one creates a view of every event to index them by id.
+	 */
+	public void loadEvents(@NonNull EventStore eventStore, CalendarEvent noEvent)
+	{
+		loadEvents((EventDayIndex.Source) eventStore, noEvent);
+	}
 
-			IWeekItem weekItem = cleanWeek.copy();
-			weekItem.setWeekInYear(currentWeekOfYear);
-			weekItem.setYear(currentYear);
-			weekItem.setDate(date);
-			weekItem.setMonth(currentMonth);
-			weekItem.setLabel(mMonthHalfNameFormat.format(date));
-			List<IDayItem> dayItems = getDayCells(mWeekCounter); // gather days for the built week
-			weekItem.setDayItems(dayItems);
-			mWeeks.add(weekItem);
+	/**
+	 * Show the events of a data source, after buildCal(). Only the windows of days around the visible ones
+	 * are loaded, in the background, see onVisibleRangeChanged(). Other days show a skeleton row until loaded.
+	 * Mutations are applied to the days loaded, the data source must provide them for the other days.
+	 */
+	public void loadEvents(@NonNull EventDataSource dataSource, CalendarEvent noEvent)
+	{
+		mPlaceholder = newPlaceholder(noEvent);
+		mSkeleton = newSkeleton(mPlaceholder);
 
-			//            Log.d(LOG_TAG, String.format("Adding week: %s", weekItem));
+		mWriteLock.lock();
+		try
+		{
+			CalendarSnapshot snapshot   = mSnapshot;
+			EventDayIndex    eventIndex = new EventDayIndex();
+			eventIndex.reset(snapshot.getEventIndex().getFirstDay(), snapshot.getEventIndex().getLastDay());
+			eventIndex.setPlaceholderRows(mShowPlaceholders);
+			eventIndex.setSkeletonRows(true);
+			setWindowLoader(new EventWindowLoader(this, dataSource));
+			discardPending();
+			mEventsById = new LongSparseArray<>();
+			publish(snapshot.getWeeks(), snapshot.getDays(), eventIndex);
+		}
+		finally
+		{
+			mWriteLock.unlock();
+		}
+	}
 
-			mWeekCounter.add(Calendar.WEEK_OF_YEAR, 1);
+	/**
+	 * Called by the views with the days they display, to load the events of an EventDataSource around them.
+	 * VisibleRangeChanged is sent once the visible days stop changing, for apps managing their own data.
+	 *
+	 * @param direction Negative when scrolling back in time, positive when scrolling forward, zero if unknown.
+	 */
+	@MainThread
+	public void onVisibleRangeChanged(int firstDay, int lastDay, int direction)
+	{
+		EventWindowLoader windowLoader = mWindowLoader;
+		if(windowLoader != null)
+		{
+			windowLoader.onVisibleRangeChanged(firstDay, lastDay, direction);
+		}
+		mVisibleFirstDay = firstDay;
+		mVisibleLastDay = lastDay;
+		mMainHandler.removeCallbacks(mVisibleRangeChanged);
+		mMainHandler.postDelayed(mVisibleRangeChanged, VISIBLE_RANGE_DEBOUNCE_MS);
+	}
 
-			currentMonth = mWeekCounter.get(Calendar.MONTH);
-			currentYear = mWeekCounter.get(Calendar.YEAR);
+	public void loadCal(Locale locale, List<IWeekItem> lWeeks, List<IDayItem> lDays, List<CalendarEvent> lEvents)
+	{
+		setLocale(locale);
+		mWriteLock.lock();
+		try
+		{
+			setWindowLoader(null);
+			discardPending();
+			publish(lWeeks, lDays, indexEvents(lEvents, null));
+		}
+		finally
+		{
+			mWriteLock.unlock();
+		}
+	}
+	
+	/**
+	 * Add weeks at the ends of a calendar built by buildCal(). The main thread doesn't wait for a batch in
+	 * progress on another thread, the weeks aren't extended then.
+	 *
+	 * @return The extended weeks, the current ones if they can't be extended, or null if a batch is in progress.
+	 */
+	@Nullable
+	@MainThread
+	public List<IWeekItem> extendWeeks(int before, int after)
+	{
+		if(!mWriteLock.tryLock())
+		{
+			return null;
+		}
+		try
+		{
+			CalendarSnapshot snapshot = mSnapshot;
+			if(!(snapshot.getWeeks() instanceof VirtualWeekList))
+			{
+				return snapshot.getWeeks();
+			}
+			VirtualWeekList weeks        = ((VirtualWeekList) snapshot.getWeeks()).extend(before, after);
+			EventDayIndex   eventIndex   = snapshot.getEventIndex();
+			EventDayIndex   pendingIndex = mPendingIndex;
+			boolean         grown        = !eventIndex.contains(weeks.getFirstDay()) || !eventIndex.contains(weeks.getLastDay());
+			if(grown)
+			{
+				// The new days can receive events, and take rows in the agenda
+				eventIndex = eventIndex.copy();
+				eventIndex.extend(weeks.getFirstDay(), weeks.getLastDay());
+				if(pendingIndex != null)
+				{
+					pendingIndex.extend(weeks.getFirstDay(), weeks.getLastDay());
+				}
+			}
+			publish(weeks, weeks.getDays(), eventIndex);
+			// A batch in progress keeps its changes
+			mPendingIndex = pendingIndex;
+			if(grown)
+			{
+				dispatchDiff(snapshot, null, true);
+			}
+			return weeks;
+		}
+		finally
+		{
+			mWriteLock.unlock();
 		}
 	}
 
-	public void loadEvents(List<CalendarEvent> eventList, CalendarEvent noEvent)
+	// endregion
+	
+	// region Event mutations
+	
+	/**
+	 * Group the following mutations so they're published at once, and views notified once, when commit() is called.
+	 * Other threads can't mutate the calendar until then, while readers, getEventById() included, keep seeing
+	 * the previous snapshot. The main thread doesn't wait for the batch to extend the weeks or show the
+	 * windows of an EventDataSource, but does to mutate the calendar or load events, keep batches short.
+	 * Batches can be nested, only the outermost commit() publishes.
+	 */
+	public void beginBatch()
 	{
-		//Convert the event list to a TreeMap
-		TreeMap<Calendar, ArrayList<CalendarEvent>> eventMap = new TreeMap<>();
-		for(CalendarEvent calendarEvent : eventList)
+		mWriteLock.lock();
+	}
+	
+	/**
+	 * Close a batch opened with beginBatch() on the same thread, publish the changes and notify the views
+	 * of the days that changed, on the main thread.
+	 */
+	public void commit()
+	{
+		if(!mWriteLock.isHeldByCurrentThread())
+		{
+			throw new IllegalStateException("commit() called without beginBatch().");
+		}
+		try
+		{
+			if(mWriteLock.getHoldCount() == 1)
+			{
+				if(mPendingEventsById != null)
+				{
+					mEventsById = mPendingEventsById;
+					mPendingEventsById = null;
+				}
+				if(mPendingIndex != null)
+				{
+					CalendarSnapshot snapshot = mSnapshot;
+					publish(snapshot.getWeeks(), snapshot.getDays(), mPendingIndex);
+					dispatchChanges(snapshot);
+				}
+			}
+		}
+		finally
 		{
-			ArrayList<CalendarEvent> dayEvents = eventMap.get(calendarEvent.getInstanceDay());
-			if(dayEvents == null)
+			mWriteLock.unlock();
+		}
+	}
+	
+	/**
+	 * Add an event to the agenda and the calendar, from any thread, after loadEvents().
+	 * Events are identified by their id for later updates and removals, an event with the id of another replaces it.
+	 * The event isn't copied, changes made to it afterwards are only taken into account by updateEvent().
+	 *
+	 * @param event The event to add, its instance day must be within the range of the calendar.
+	 */
+	public void addEvent(@NonNull CalendarEvent event)
+	{
+		int epochDay = DateHelper.toEpochDay(event.getInstanceDay());
+		beginBatch();
+		try
+		{
+			EventDayIndex eventIndex = getCurrentIndex();
+			if(!eventIndex.contains(epochDay))
+			{
+				Log.w(LOG_TAG, "Ignoring event outside of the calendar range: " + event);
+				return;
+			}
+			if(!eventIndex.isLoaded(epochDay))
+			{
+				// The data source provides it when the day gets loaded
+				return;
+			}
+			if(getEventsById().get(event.getId()) != null)
 			{
-				dayEvents = new ArrayList<>();
-				eventMap.put(calendarEvent.getInstanceDay(), dayEvents);
+				// Adding an id twice replaces the event, instead of showing both
+				removeEvent(event.getId());
 			}
 			
-			dayEvents.add(calendarEvent);
+			ArrayList<CalendarEvent> dayEvents = getPendingEvents(epochDay);
+			if(dayEvents.size() == 1 && dayEvents.get(0).isPlaceholder())
+			{
+				// The row of a placeholder given to setEvents() now shows the event
+				dayEvents.set(0, event);
+			}
+			else
+			{
+				// The virtual row of an empty day now shows the event, otherwise a row is inserted
+				if(!dayEvents.isEmpty() || !mPendingIndex.hasPlaceholderRows())
+				{
+					mStructureChanged = true;
+				}
+				dayEvents.add(getInsertionIndex(dayEvents, event), event);
+				mPendingIndex.invalidatePositions();
+			}
+			getEventsById().put(event.getId(), new IndexedEvent(event, epochDay));
 		}
-		
-		for(IWeekItem weekItem : getWeeks())
+		finally
+		{
+			commit();
+		}
+	}
+	
+	/**
+	 * Replace the event holding the same id, moving it to another day if its instance day changed.
+	 * The event can be the instance given before, modified.
+	 */
+	public void updateEvent(@NonNull CalendarEvent event)
+	{
+		beginBatch();
+		try
+		{
+			removeEvent(event.getId());
+			addEvent(event);
+		}
+		finally
+		{
+			commit();
+		}
+	}
+	
+	/**
+	 * Remove the event with the given id, the day shows a placeholder if it was its last event.
+	 */
+	public void removeEvent(long id)
+	{
+		beginBatch();
+		try
 		{
-			for(IDayItem dayItem : weekItem.getDayItems())
+			IndexedEvent indexed = getEventsById().get(id);
+			if(indexed == null)
 			{
-//				Log.i(LOG_TAG, "Loading: " + dayItem.getDate().toString());
-				Calendar dayItemAllBalls = dayItem.copy().getCalendar();
-				
-				ArrayList<CalendarEvent> currentEvents = eventMap.get(dayItemAllBalls);
-				if(currentEvents != null && currentEvents.size() > 0)
+				return;
+			}
+			getEventsById().remove(id);
+			
+			// The event may have been modified since, look for it on the day it was indexed on
+			int epochDay = indexed.mEpochDay;
+			if(getCurrentIndex().get(epochDay) == null)
+			{
+				return;
+			}
+			ArrayList<CalendarEvent> dayEvents = getPendingEvents(epochDay);
+			if(!removeInstance(dayEvents, indexed.mEvent))
+			{
+				return;
+			}
+			
+			// The row of the last event of a day now shows the placeholder, otherwise the row is removed
+			if(!dayEvents.isEmpty() || !mPendingIndex.hasPlaceholderRows())
+			{
+				mStructureChanged = true;
+			}
+			mPendingIndex.invalidatePositions();
+		}
+		finally
+		{
+			commit();
+		}
+	}
+	
+	/**
+	 * Read from the published events without waiting for a batch in progress on another thread, except the
+	 * first time after loading an EventIndexFile or an EventStore, when their events get indexed by id.
+	 *
+	 * @return The event with the given id, or null if there's none.
+	 */
+	@Nullable
+	public CalendarEvent getEventById(long id)
+	{
+		LongSparseArray<IndexedEvent> eventsById = mEventsById;
+		if(eventsById == null || mWriteLock.isHeldByCurrentThread())
+		{
+			mWriteLock.lock();
+			try
+			{
+				// The batch of this thread sees its own mutations
+				eventsById = mPendingEventsById != null ? mPendingEventsById : getPublishedEventsById();
+			}
+			finally
+			{
+				mWriteLock.unlock();
+			}
+		}
+		IndexedEvent indexed = eventsById.get(id);
+		return indexed == null ? null : indexed.mEvent;
+	}
+	
+	/**
+	 * @return The position of the week holding the given day in the weeks list, may be out of bounds.
+	 */
+	public int getWeekIndex(int epochDay)
+	{
+		return mSnapshot.getWeekIndex(epochDay);
+	}
+	
+	/**
+	 * @return The item of the given day in the weeks list, created on demand, or null if out of the calendar.
+	 */
+	@Nullable
+	public IDayItem getDayItem(int epochDay)
+	{
+		return mSnapshot.getDayItem(epochDay);
+	}
+	
+	/**
+	 * Link an event to the day and week items of the calendar. Events aren't linked when loaded, as
+	 * weeks are only created when displayed, and they may still refer to items of a previous load.
+	 */
+	public void resolveReferences(@Nullable CalendarEvent event)
+	{
+		if(event == null || event.getInstanceDay() == null)
+		{
+			return;
+		}
+		CalendarSnapshot snapshot = mSnapshot;
+		int              epochDay = DateHelper.toEpochDay(event.getInstanceDay());
+		IDayItem         dayItem  = snapshot.getDayItem(epochDay);
+		if(dayItem != null)
+		{
+			event.setDayReference(dayItem);
+			event.setWeekReference(snapshot.getWeeks().get(snapshot.getWeekIndex(epochDay)));
+		}
+	}
+	
+	/**
+	 * Show the events of a window loaded by the current window loader, and go back to skeleton rows
+	 * for the evicted windows. Posted again instead of waiting for a batch in progress on another thread.
+	 */
+	@MainThread
+	void setWindow(@NonNull EventWindowLoader windowLoader, int start, @NonNull ArrayList<CalendarEvent>[] buckets, @NonNull List<Integer> evictedWindows)
+	{
+		if(!mWriteLock.tryLock())
+		{
+			mMainHandler.post(() -> setWindow(windowLoader, start, buckets, evictedWindows));
+			return;
+		}
+		try
+		{
+			if(windowLoader != mWindowLoader)
+			{
+				return;
+			}
+			if(mPendingIndex == null)
+			{
+				mPendingIndex = mSnapshot.getEventIndex().copy();
+			}
+			for(int evictedStart : evictedWindows)
+			{
+				for(int epochDay = evictedStart; epochDay < evictedStart + EventWindowLoader.WINDOW_DAYS; epochDay++)
 				{
-					for(CalendarEvent calendarEvent : currentEvents)
+					ArrayList<CalendarEvent> events = mPendingIndex.get(epochDay);
+					if(events != null)
 					{
-						CalendarEvent copy = calendarEvent.copy();
-						
-						Calendar dayInstance = Calendar.getInstance();
-						dayInstance.setTime(dayItem.getDate());
-						copy.setInstanceDay(dayInstance);
-						copy.setDayReference(dayItem);
-						copy.setWeekReference(weekItem);
-						copy.setShowPlaceholders(mShowPlaceholders);
-						// add instances in chronological order
-						getEvents(dayItem).add(copy);
+						for(CalendarEvent event : events)
+						{
+							getEventsById().remove(event.getId());
+						}
 					}
+					mPendingIndex.set(epochDay, null);
+					mChangedDays.put(epochDay, true);
 				}
-				else
+			}
+			for(int slot = 0; slot < buckets.length; slot++)
+			{
+				int epochDay = start + slot;
+				for(CalendarEvent event : buckets[slot])
 				{
-					Calendar dayInstance = Calendar.getInstance();
-					dayInstance.setTime(dayItem.getDate());
-					CalendarEvent copy = noEvent.copy();
-
-					copy.setInstanceDay(dayInstance);
-					copy.setDayReference(dayItem);
-					copy.setWeekReference(weekItem);
-					copy.setLocation("");
-					copy.setTitle(mNoEventText);
-					copy.setPlaceholder(true);
-					copy.setShowPlaceholders(mShowPlaceholders);
-					getEvents(dayItem).add(copy);
+					getEventsById().put(event.getId(), new IndexedEvent(event, epochDay));
 				}
+				mPendingIndex.set(epochDay, buckets[slot]);
+				mChangedDays.put(epochDay, true);
 			}
+			mStructureChanged = true;
+		}
+		finally
+		{
+			commit();
 		}
 	}
 
-	public void loadCal(Locale locale, List<IWeekItem> lWeeks, List<IDayItem> lDays, List<CalendarEvent> lEvents)
+	// endregion
+
+	// region Private methods
+	
+	/**
+	 * Stop building as soon as possible when a CalendarLoader cancelled its task by interrupting us.
+	 */
+	private static void checkCancelled()
 	{
-		mWeeks = lWeeks;
-		mDays = lDays;
-		setEvents(lEvents);
-		setLocale(locale);
+		if(Thread.currentThread().isInterrupted())
+		{
+			throw new CancellationException("Calendar load cancelled.");
+		}
 	}
+	
+	/**
+	 * @return The single event shared by the rows of days without events, it has no instance day.
+	 */
+	private CalendarEvent newPlaceholder(CalendarEvent noEvent)
+	{
+		CalendarEvent placeholder = noEvent.copy();
+		placeholder.setInstanceDay(null);
+		placeholder.setDayReference(null);
+		placeholder.setWeekReference(null);
+		placeholder.setLocation("");
+		placeholder.setTitle(mNoEventText);
+		placeholder.setPlaceholder(true);
+		placeholder.setShowPlaceholders(true);
+		return placeholder;
+	}
+	
+	private void loadEvents(EventDayIndex.Source source, CalendarEvent noEvent)
+	{
+		mPlaceholder = newPlaceholder(noEvent);
 
-	// endregion
+		mWriteLock.lock();
+		try
+		{
+			CalendarSnapshot snapshot   = mSnapshot;
+			EventDayIndex    eventIndex = new EventDayIndex();
+			eventIndex.reset(snapshot.getEventIndex().getFirstDay(), snapshot.getEventIndex().getLastDay());
+			eventIndex.setSource(source);
+			eventIndex.setPlaceholderRows(mShowPlaceholders);
+			setWindowLoader(null);
+			discardPending();
+			// Indexing the ids would read every event
+			mEventsById = null;
+			publish(snapshot.getWeeks(), snapshot.getDays(), eventIndex);
+		}
+		finally
+		{
+			mWriteLock.unlock();
+		}
+	}
 
-	// region Private methods
+	/**
+	 * @return The single event shared by the rows of days not loaded yet, an untitled placeholder.
+	 */
+	private CalendarEvent newSkeleton(CalendarEvent placeholder)
+	{
+		CalendarEvent skeleton = placeholder.copy();
+		skeleton.setTitle("");
+		if(skeleton instanceof BaseCalendarEvent)
+		{
+			((BaseCalendarEvent) skeleton).setColor(mContext.getResources().getColor(R.color.agenda_skeleton_row));
+		}
+		return skeleton;
+	}
 
-	private List<IDayItem> getDayCells(Calendar startCal)
+	/**
+	 * Remove an event by identity, events provided by the caller may define equals() differently.
+	 * Views of an EventStore are matched by row, as they may be created again.
+	 */
+	private static boolean removeInstance(List<CalendarEvent> dayEvents, CalendarEvent event)
+	{
+		for(int i = 0; i < dayEvents.size(); i++)
+		{
+			if(dayEvents.get(i) == event || (event instanceof EventStore.StoredEvent && event.equals(dayEvents.get(i))))
+			{
+				dayEvents.remove(i);
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @return The index keeping the day's events sorted by start time, after events starting at the same time.
+	 */
+	private static int getInsertionIndex(List<CalendarEvent> dayEvents, CalendarEvent event)
+	{
+		if(event.getStartTime() == null)
+		{
+			return dayEvents.size();
+		}
+		long start = event.getStartTime().getTimeInMillis();
+		for(int i = 0; i < dayEvents.size(); i++)
+		{
+			Calendar otherStart = dayEvents.get(i).getStartTime();
+			if(otherStart != null && otherStart.getTimeInMillis() > start)
+			{
+				return i;
+			}
+		}
+		return dayEvents.size();
+	}
+	
+	/**
+	 * Index events whose instances are already created, see loadCal(). Must be called with mWriteLock held.
+	 *
+	 * @param range An index whose range of days is kept and events out of it dropped, or null to size the range after the events.
+	 */
+	private EventDayIndex indexEvents(List<CalendarEvent> events, @Nullable EventDayIndex range)
+	{
+		EventDayIndex eventIndex = new EventDayIndex();
+		boolean       keepRange  = range != null && range.getDayCount() > 0;
+		if(keepRange)
+		{
+			eventIndex.reset(range.getFirstDay(), range.getLastDay());
+		}
+		LongSparseArray<IndexedEvent> eventsById = new LongSparseArray<>(events.size());
+		for(CalendarEvent calendarEvent : events)
+		{
+			int epochDay = DateHelper.toEpochDay(calendarEvent.getInstanceDay());
+			if(keepRange && !eventIndex.contains(epochDay))
+			{
+				// No week shows that day, as in loadEvents()
+				continue;
+			}
+			eventIndex.add(epochDay, calendarEvent);
+			if(!calendarEvent.isPlaceholder())
+			{
+				eventsById.put(calendarEvent.getId(), new IndexedEvent(calendarEvent, epochDay));
+			}
+		}
+		mEventsById = eventsById;
+		return eventIndex;
+	}
+	
+	/**
+	 * @return The published id index, built from the published events the first time it's needed. Must be called with mWriteLock held.
+	 */
+	private LongSparseArray<IndexedEvent> getPublishedEventsById()
 	{
-		Calendar cal = Calendar.getInstance(mLocale);
-		cal.setTime(startCal.getTime());
-		List<IDayItem> dayItems = new ArrayList<>();
+		LongSparseArray<IndexedEvent> eventsById = mEventsById;
+		if(eventsById == null)
+		{
+			EventDayIndex eventIndex = mSnapshot.getEventIndex();
+			eventsById = new LongSparseArray<>();
+			for(int slot = 0; slot < eventIndex.getDayCount(); slot++)
+			{
+				ArrayList<CalendarEvent> events = eventIndex.getAt(slot);
+				if(events == null)
+				{
+					continue;
+				}
+				for(CalendarEvent event : events)
+				{
+					if(!event.isPlaceholder())
+					{
+						eventsById.put(event.getId(), new IndexedEvent(event, eventIndex.getFirstDay() + slot));
+					}
+				}
+			}
+			mEventsById = eventsById;
+		}
+		return eventsById;
+	}
 
-		int firstDayOfWeek = cal.get(Calendar.DAY_OF_WEEK);
-		int offset         = cal.getFirstDayOfWeek() - firstDayOfWeek;
-		if(offset > 0)
+	/**
+	 * @return The id index the current batch works on, safe to modify until the batch is committed. Must be called with mWriteLock held.
+	 */
+	private LongSparseArray<IndexedEvent> getEventsById()
+	{
+		if(mPendingEventsById == null)
 		{
-			offset -= 7;
+			// Copy on first write, readers still use the published index
+			mPendingEventsById = getPublishedEventsById().clone();
 		}
-		cal.add(Calendar.DATE, offset);
+		return mPendingEventsById;
+	}
 
-//		Log.d(LOG_TAG, String.format("Buiding row week starting at %s", cal.getTime()));
-		for(int c = 0; c < 7; c++)
+	/**
+	 * Cancel the current window loader, if any, and replace it. Must be called with mWriteLock held.
+	 */
+	private void setWindowLoader(@Nullable EventWindowLoader windowLoader)
+	{
+		if(mWindowLoader != null)
 		{
-			IDayItem dayItem = new DayItem(cal);
-			dayItems.add(dayItem);
-			cal.add(Calendar.DATE, 1);
+			mWindowLoader.cancel();
 		}
+		mWindowLoader = windowLoader;
+	}
 
-		mDays.addAll(dayItems);
-		return dayItems;
+	/**
+	 * Drop the mutations of the current batch, when events are replaced as a whole. Must be called with mWriteLock held.
+	 */
+	private void discardPending()
+	{
+		mPendingIndex = null;
+		mPendingEventsById = null;
+		mChangedDays.clear();
+		mStructureChanged = false;
 	}
 
+	/**
+	 * Must be called with mWriteLock held.
+	 */
+	private void publish(List<IWeekItem> weeks, List<IDayItem> days, EventDayIndex eventIndex)
+	{
+		mPendingIndex = null;
+		mSnapshot = new CalendarSnapshot(weeks, days, eventIndex, mPlaceholder, mSkeleton);
+	}
+	
+	/**
+	 * Must be called with mWriteLock held.
+	 *
+	 * @return The index holding the mutations of the current batch, if any, else the published one.
+	 */
+	private EventDayIndex getCurrentIndex()
+	{
+		return mPendingIndex != null ? mPendingIndex : mSnapshot.getEventIndex();
+	}
+	
+	/**
+	 * @return The events of the day in the pending index, safe to modify until the batch is committed.
+	 */
+	private ArrayList<CalendarEvent> getPendingEvents(int epochDay)
+	{
+		if(mPendingIndex == null)
+		{
+			mPendingIndex = mSnapshot.getEventIndex().copy();
+		}
+		if(!mChangedDays.get(epochDay))
+		{
+			// Copy on first write, the published snapshot still shares the bucket
+			mPendingIndex.detach(epochDay);
+			mChangedDays.put(epochDay, true);
+		}
+		return mPendingIndex.getOrCreate(epochDay);
+	}
+	
+	/**
+	 * Must be called with mWriteLock held, right after publishing.
+	 *
+	 * @param previous The snapshot published before.
+	 */
+	private void dispatchChanges(CalendarSnapshot previous)
+	{
+		if(mChangedDays.size() == 0)
+		{
+			return;
+		}
+		
+		int[] changedDays = new int[mChangedDays.size()];
+		for(int i = 0; i < changedDays.length; i++)
+		{
+			changedDays[i] = mChangedDays.keyAt(i);
+		}
+		boolean structureChanged = mStructureChanged;
+		mChangedDays.clear();
+		mStructureChanged = false;
+		dispatchDiff(previous, changedDays, structureChanged);
+	}
+	
+	/**
+	 * Must be called with mWriteLock held, right after publishing. The changes are computed on a single
+	 * worker thread, then posted to the main thread, so views receive them in the order snapshots were
+	 * published, whatever the thread that made them.
+	 *
+	 * @param changedDays The sorted days that changed, or null to compare every day of both snapshots.
+	 */
+	private void dispatchDiff(CalendarSnapshot previous, @Nullable int[] changedDays, boolean structureChanged)
+	{
+		CalendarSnapshot snapshot = mSnapshot;
+		sDiffExecutor.execute(() -> {
+			Events.EventsChanged event = new Events.EventsChanged(SnapshotDiff.compute(previous, snapshot, changedDays, structureChanged));
+			mMainHandler.post(() -> BusProvider.getInstance().send(event));
+		});
+	}
+	
 	private void setLocale(Locale locale)
 	{
 		this.mLocale = locale;
@@ -424,4 +1105,24 @@ public class CalendarManager
 	}
 
 	// endregion
+
+	// region Class - IndexedEvent
+
+	/**
+	 * Entry of the id index, the caller's event and the day it's indexed on.
+	 */
+	private static final class IndexedEvent
+	{
+
+		private final CalendarEvent mEvent;
+		private final int           mEpochDay;
+
+		IndexedEvent(CalendarEvent event, int epochDay)
+		{
+			mEvent = event;
+			mEpochDay = epochDay;
+		}
+	}
+
+	// endregion
 }
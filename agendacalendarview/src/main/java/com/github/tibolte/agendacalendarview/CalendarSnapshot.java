@@ -0,0 +1,288 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.models.IDayItem;
+import com.github.tibolte.agendacalendarview.models.IWeekItem;
+import com.github.tibolte.agendacalendarview.models.VirtualWeekList;
+import com.github.tibolte.agendacalendarview.utils.DateHelper;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable state of the calendar: weeks, events indexed by day and their agenda positions.
+ * The CalendarManager publishes a new snapshot for every change, so a reader holding a snapshot
+ * sees consistent data from any thread, without locking.
+ * <p>
+ * Days without events aren't stored: when placeholders are shown they take a virtual row in the
+ * agenda, rendered from a single shared placeholder event which doesn't hold any instance day.
+ * Days not loaded yet from an EventDataSource take a skeleton row, rendered from a shared skeleton event.
+ */
+public final class CalendarSnapshot
+{
+
+	/**
+	 * Number of event colors available per day, see getIndicatorColor()
+	 */
+	public static final int MAX_INDICATOR_COLORS = EventDayIndex.SUMMARY_COLORS;
+
+	private static final AtomicLong sVersions = new AtomicLong();
+
+	static final CalendarSnapshot EMPTY = new CalendarSnapshot(Collections.emptyList(), Collections.emptyList(), new EventDayIndex(), null, null);
+
+	private final long            mVersion;
+	private final List<IWeekItem> mWeeks;
+	private final List<IDayItem>  mDays;
+	private final EventDayIndex   mEventIndex;
+	private final CalendarEvent   mPlaceholder;
+	private final CalendarEvent   mSkeleton;
+
+	// region Constructor
+
+	/**
+	 * @param eventIndex  Frozen by the snapshot, it must not be modified afterwards.
+	 * @param placeholder The event rendered for days without events, required if the index has placeholder rows.
+	 * @param skeleton    The event rendered for days not loaded yet, required if the index has skeleton rows.
+	 */
+	CalendarSnapshot(@NonNull List<IWeekItem> weeks, @NonNull List<IDayItem> days, @NonNull EventDayIndex eventIndex, @Nullable CalendarEvent placeholder,
+			@Nullable CalendarEvent skeleton)
+	{
+		eventIndex.freeze();
+		mVersion = sVersions.incrementAndGet();
+		mWeeks = weeks;
+		mDays = days;
+		mEventIndex = eventIndex;
+		mPlaceholder = placeholder;
+		mSkeleton = skeleton;
+	}
+
+	// endregion
+
+	// region Getters
+
+	/**
+	 * @return A number increasing with every snapshot published, by any CalendarManager.
+	 */
+	public long getVersion()
+	{
+		return mVersion;
+	}
+
+	public List<IWeekItem> getWeeks()
+	{
+		return mWeeks;
+	}
+
+	public List<IDayItem> getDays()
+	{
+		return mDays;
+	}
+
+	EventDayIndex getEventIndex()
+	{
+		return mEventIndex;
+	}
+
+	/**
+	 * @return The shared event rendered for days without events, or null if placeholders are hidden.
+	 */
+	@Nullable
+	public CalendarEvent getPlaceholder()
+	{
+		return mEventIndex.hasPlaceholderRows() ? mPlaceholder : null;
+	}
+
+	// endregion
+
+	// region Public methods
+
+	/**
+	 * @return The number of rows in the agenda, placeholders and skeletons included.
+	 */
+	public int getEventCount()
+	{
+		return mEventIndex.getEventCount();
+	}
+
+	/**
+	 * @param epochDay The local epoch day, see DateHelper.toEpochDay().
+	 * @return The events of the day, or an empty list if there's none, placeholders excluded. The list is the
+	 * bucket of the snapshot, returned without copy or wrapper, it must not be modified.
+	 */
+	public List<CalendarEvent> getEvents(int epochDay)
+	{
+		ArrayList<CalendarEvent> events = mEventIndex.get(epochDay);
+		return events != null ? events : Collections.emptyList();
+	}
+
+	/**
+	 * @return The number of events of the day, placeholders excluded, read without allocating anything.
+	 */
+	public int getIndicatorCount(int epochDay)
+	{
+		return mEventIndex.getSummaryCount(epochDay);
+	}
+
+	/**
+	 * @param index From 0 to the smallest of getIndicatorCount() and MAX_INDICATOR_COLORS, excluded.
+	 * @return The color of one of the first events of the day, or 0 if the event has no color.
+	 */
+	public int getIndicatorColor(int epochDay, int index)
+	{
+		return mEventIndex.getSummaryColor(epochDay, index);
+	}
+
+	/**
+	 * @return A copy of the rows of the agenda in chronological order, with a placeholder instance per day without events.
+	 * Days not loaded yet are skipped.
+	 */
+	public ArrayList<CalendarEvent> getEventList()
+	{
+		ArrayList<CalendarEvent> events = new ArrayList<>(mEventIndex.getEventCount());
+		//The slots are sorted chronologically in the index
+		for(int slot = 0; slot < mEventIndex.getDayCount(); slot++)
+		{
+			ArrayList<CalendarEvent> dayEvents = mEventIndex.getAt(slot);
+			if(dayEvents != null && !dayEvents.isEmpty())
+			{
+				events.addAll(dayEvents);
+			}
+			else if(mEventIndex.hasPlaceholderRows() && mEventIndex.isLoaded(mEventIndex.getFirstDay() + slot))
+			{
+				events.add(newInstance(mPlaceholder, mEventIndex.getFirstDay() + slot));
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * @param position The position in the agenda list.
+	 * @return The event displayed at that position, the shared placeholder for days without events, the shared
+	 * skeleton for days not loaded yet, or null if out of bounds.
+	 */
+	@Nullable
+	public CalendarEvent getEventAt(int position)
+	{
+		CalendarEvent event = mEventIndex.getEventAt(position);
+		if(event == null && mEventIndex.isPlaceholderAt(position))
+		{
+			return mPlaceholder;
+		}
+		if(event == null && mEventIndex.isSkeletonAt(position))
+		{
+			return mSkeleton;
+		}
+		return event;
+	}
+
+	/**
+	 * Like getEventAt(), but placeholders are returned as a new instance holding their day, for callers
+	 * keeping the event or reading its date.
+	 */
+	@Nullable
+	public CalendarEvent getEventInstanceAt(int position)
+	{
+		if(mEventIndex.isPlaceholderAt(position))
+		{
+			return newInstance(mPlaceholder, getDayAt(position));
+		}
+		if(mEventIndex.isSkeletonAt(position))
+		{
+			return newInstance(mSkeleton, getDayAt(position));
+		}
+		return mEventIndex.getEventAt(position);
+	}
+
+	/**
+	 * @return True if the row at the given position is the placeholder of a day without events.
+	 */
+	public boolean isPlaceholderAt(int position)
+	{
+		return mEventIndex.isPlaceholderAt(position);
+	}
+
+	/**
+	 * @return True if the row at the given position is the skeleton of a day whose events aren't loaded yet.
+	 */
+	public boolean isSkeletonAt(int position)
+	{
+		return mEventIndex.isSkeletonAt(position);
+	}
+
+	/**
+	 * @param position The position in the agenda list.
+	 * @return The local epoch day of the section holding that position.
+	 */
+	public int getDayAt(int position)
+	{
+		return mEventIndex.getFirstDay() + Math.max(mEventIndex.getSlotAt(position), 0);
+	}
+
+	/**
+	 * @return The position of the first event of the given day in the agenda list.
+	 */
+	public int getPosition(int epochDay)
+	{
+		return mEventIndex.getPosition(epochDay);
+	}
+
+	/**
+	 * @return The position of the week holding the given day in the weeks list, may be out of bounds.
+	 */
+	public int getWeekIndex(int epochDay)
+	{
+		if(mWeeks instanceof VirtualWeekList)
+		{
+			return ((VirtualWeekList) mWeeks).getWeekIndex(epochDay);
+		}
+		if(mDays.isEmpty())
+		{
+			return -1;
+		}
+		int dayIndex = epochDay - mDays.get(0).getEpochDay();
+		return dayIndex < 0 ? -1 : dayIndex / 7;
+	}
+
+	/**
+	 * @return The item of the given day in the weeks list, created on demand, or null if out of the calendar.
+	 */
+	@Nullable
+	public IDayItem getDayItem(int epochDay)
+	{
+		if(mWeeks instanceof VirtualWeekList)
+		{
+			return ((VirtualWeekList) mWeeks).getDayItem(epochDay);
+		}
+		if(mDays.isEmpty())
+		{
+			return null;
+		}
+		int index = epochDay - mDays.get(0).getEpochDay();
+		if(index < 0 || index >= mDays.size())
+		{
+			return null;
+		}
+		return mDays.get(index);
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private static CalendarEvent newInstance(CalendarEvent sharedEvent, int epochDay)
+	{
+		CalendarEvent instance    = sharedEvent.copy();
+		Calendar      instanceDay = Calendar.getInstance();
+		DateHelper.setEpochDay(instanceDay, epochDay);
+		instance.setInstanceDay(instanceDay);
+		return instance;
+	}
+
+	// endregion
+}
@@ -0,0 +1,27 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
+
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+
+import java.util.List;
+
+/**
+ * Provides the events of a calendar by windows of days, so only the days around the visible ones are
+ * kept in memory. Give it to CalendarManager.loadEvents(), days are shown as skeleton rows until their
+ * window is loaded, and windows far from the visible days are dropped.
+ */
+public interface EventDataSource
+{
+	/**
+	 * Load the events of a window of days, called on a background thread.
+	 *
+	 * @param fromDay The first local epoch day of the window, see DateHelper.toEpochDay().
+	 * @param toDay   The local epoch day following the window, exclusive.
+	 * @return The events whose instance day is in the window, with their instance day set.
+	 */
+	@WorkerThread
+	@NonNull
+	List<CalendarEvent> loadEvents(int fromDay, int toDay);
+}
@@ -0,0 +1,568 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Dense index of event instances per day. Days are addressed by their local epoch day
+ * (see DateHelper.toEpochDay) and stored at an offset from the first day of the range,
+ * so looking up a day is a subtraction and an array read.
+ * A prefix sum of the per-day counts maps agenda positions to days and back. Days without events
+ * can take one virtual row, for the "no event" placeholder, without storing anything.
+ * <p>
+ * An index is mutable until freeze() is called. A frozen index is only read, which is safe from any
+ * thread, and is changed by working on a copy() whose buckets are detached before being modified.
+ * <p>
+ * Buckets can also be read lazily from a Source, such as an EventIndexFile. A day whose bucket was
+ * never set reads through to the source. With skeleton rows, such a day is instead a day whose events
+ * aren't loaded yet, see EventWindowLoader, and takes a single skeleton row.
+ * <p>
+ * A summary of each day, its number of events and the colors of the first ones, is kept for the event
+ * indicators of the calendar. It's computed by freeze() for the days that changed, and read without
+ * allocating anything.
+ */
+class EventDayIndex
+{
+
+	// region Interfaces
+
+	/**
+	 * Read-only events of a range of days, read on demand. Must be safe to call from any thread.
+	 */
+	interface Source
+	{
+		/**
+		 * @return The number of events of the given day, cheap enough to be called for every day of the range.
+		 */
+		int getEventCount(int epochDay);
+
+		/**
+		 * @return The events of the given day, or null if there's none. The list must not be modified.
+		 */
+		@Nullable
+		ArrayList<CalendarEvent> getEvents(int epochDay);
+
+		/**
+		 * @return The color of an event of the given day, without creating the event.
+		 */
+		int getEventColor(int epochDay, int index);
+	}
+
+	// endregion
+
+	/**
+	 * Extra days reserved when the index has to grow to accommodate a day out of its range
+	 */
+	private static final int GROW_DAYS = 32;
+	/**
+	 * Number of event colors kept in the summary of a day
+	 */
+	static final int SUMMARY_COLORS = 4;
+	/**
+	 * Summary count of a day which changed since the last freeze(), or which reads through to the source
+	 */
+	private static final int UNKNOWN = -1;
+
+	/**
+	 * Epoch day stored in the first slot
+	 */
+	private int                        mFirstDay;
+	/**
+	 * Event instances per day, null for days that never received an event, read from mSource if any
+	 */
+	private ArrayList<CalendarEvent>[] mBuckets = newBuckets(0);
+	private Source                     mSource;
+	/**
+	 * mPositions[slot] is the agenda position of the first row of that slot,
+	 * mPositions[getDayCount()] is the total number of events
+	 */
+	private int[]                      mPositions = new int[1];
+	private boolean                    mPositionsDirty;
+	/**
+	 * True if days without events take a row in the agenda
+	 */
+	private boolean                    mPlaceholderRows;
+	/**
+	 * True if days whose bucket isn't set aren't loaded yet, and take a skeleton row in the agenda
+	 */
+	private boolean                    mSkeletonRows;
+	/**
+	 * Number of events per slot, placeholders excluded, and the colors of the first SUMMARY_COLORS of them
+	 */
+	private int[]                      mSummaryCounts = new int[0];
+	private int[]                      mSummaryColors = new int[0];
+
+	// region Public methods
+
+	/**
+	 * Drop every event and size the index for the given range of days (both inclusive).
+	 */
+	public void reset(int firstDay, int lastDay)
+	{
+		mFirstDay = firstDay;
+		mBuckets = newBuckets(Math.max(0, lastDay - firstDay + 1));
+		mSummaryCounts = newSummaryCounts(mBuckets.length);
+		mSummaryColors = new int[mBuckets.length * SUMMARY_COLORS];
+		mSource = null;
+		mPositionsDirty = true;
+	}
+
+	/**
+	 * Read the days of the range from the given source, until their bucket is set.
+	 */
+	public void setSource(@Nullable Source source)
+	{
+		mSource = source;
+		mPositionsDirty = true;
+	}
+
+	/**
+	 * @return True if days whose bucket isn't set are read from a source.
+	 */
+	public boolean hasSource()
+	{
+		return mSource != null;
+	}
+
+	public void clear()
+	{
+		reset(0, -1);
+	}
+
+	/**
+	 * @param placeholderRows True to give days without events a virtual row, see isPlaceholderAt().
+	 */
+	public void setPlaceholderRows(boolean placeholderRows)
+	{
+		mPlaceholderRows = placeholderRows;
+		mPositionsDirty = true;
+	}
+
+	public boolean hasPlaceholderRows()
+	{
+		return mPlaceholderRows;
+	}
+
+	/**
+	 * @param skeletonRows True to give days whose bucket isn't set a skeleton row, see isSkeletonAt().
+	 */
+	public void setSkeletonRows(boolean skeletonRows)
+	{
+		mSkeletonRows = skeletonRows;
+		mPositionsDirty = true;
+	}
+
+	/**
+	 * @return False if the events of the given day aren't loaded yet.
+	 */
+	public boolean isLoaded(int epochDay)
+	{
+		return !contains(epochDay) || !isUnloaded(epochDay - mFirstDay);
+	}
+
+	public int getFirstDay()
+	{
+		return mFirstDay;
+	}
+
+	/**
+	 * @return The epoch day stored in the last slot, or getFirstDay() - 1 if the index is empty.
+	 */
+	public int getLastDay()
+	{
+		return mFirstDay + mBuckets.length - 1;
+	}
+
+	public int getDayCount()
+	{
+		return mBuckets.length;
+	}
+
+	public boolean contains(int epochDay)
+	{
+		return epochDay >= mFirstDay && epochDay - mFirstDay < mBuckets.length;
+	}
+
+	/**
+	 * @return The events of the given day, or null if there's none.
+	 */
+	@Nullable
+	public ArrayList<CalendarEvent> get(int epochDay)
+	{
+		return contains(epochDay) ? getBucket(epochDay - mFirstDay) : null;
+	}
+
+	/**
+	 * @return The events stored in the given slot, slot 0 being getFirstDay().
+	 */
+	@Nullable
+	public ArrayList<CalendarEvent> getAt(int slot)
+	{
+		return getBucket(slot);
+	}
+
+	/**
+	 * Replace the events of a day of the range, null marking the day as not loaded with skeleton rows.
+	 * The list is stored as is.
+	 */
+	public void set(int epochDay, @Nullable ArrayList<CalendarEvent> events)
+	{
+		if(contains(epochDay))
+		{
+			mBuckets[epochDay - mFirstDay] = events;
+			mSummaryCounts[epochDay - mFirstDay] = UNKNOWN;
+			mPositionsDirty = true;
+		}
+	}
+
+	/**
+	 * Append an event to the given day, growing the range if needed.
+	 */
+	public void add(int epochDay, @NonNull CalendarEvent event)
+	{
+		getOrCreate(epochDay).add(event);
+		mPositionsDirty = true;
+	}
+
+	/**
+	 * Must be called after a bucket returned by get() or getOrCreate() was modified directly.
+	 */
+	public void invalidatePositions()
+	{
+		mPositionsDirty = true;
+	}
+
+	/**
+	 * Grow the range to include the given days (both inclusive), keeping the events. The days added have
+	 * no bucket, they read through to the source if any.
+	 */
+	public void extend(int firstDay, int lastDay)
+	{
+		if(mBuckets.length == 0)
+		{
+			mFirstDay = firstDay;
+			resize(Math.max(0, lastDay - firstDay + 1), 0);
+			return;
+		}
+		int newFirstDay = Math.min(firstDay, mFirstDay);
+		int newLastDay  = Math.max(lastDay, getLastDay());
+		if(newFirstDay != mFirstDay || newLastDay != getLastDay())
+		{
+			resize(newLastDay - newFirstDay + 1, mFirstDay - newFirstDay);
+			mFirstDay = newFirstDay;
+		}
+	}
+
+	/**
+	 * @return The number of agenda rows, virtual placeholder and skeleton rows included.
+	 */
+	public int getEventCount()
+	{
+		return getPositions()[mBuckets.length];
+	}
+
+	/**
+	 * @return The agenda position of the first event of the given day. Days before the range map to
+	 * the first position, days after the range to the last one.
+	 */
+	public int getPosition(int epochDay)
+	{
+		int[] positions = getPositions();
+		int   slot      = epochDay - mFirstDay;
+		if(slot < 0)
+		{
+			return 0;
+		}
+		if(slot >= mBuckets.length)
+		{
+			return Math.max(positions[mBuckets.length] - 1, 0);
+		}
+		return positions[slot];
+	}
+
+	/**
+	 * @return The slot holding the event at the given agenda position, or -1 if out of bounds.
+	 */
+	public int getSlotAt(int position)
+	{
+		int[] positions = getPositions();
+		if(position < 0 || position >= positions[mBuckets.length])
+		{
+			return -1;
+		}
+
+		// Find the last slot starting at or before the position, empty slots share their start with the next one
+		int low  = 0;
+		int high = mBuckets.length - 1;
+		while(low < high)
+		{
+			int mid = (low + high + 1) >>> 1;
+			if(positions[mid] <= position)
+			{
+				low = mid;
+			}
+			else
+			{
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * @return The event at the given agenda position, or null if out of bounds or if the position is the
+	 * virtual row of a day without events or not loaded.
+	 */
+	@Nullable
+	public CalendarEvent getEventAt(int position)
+	{
+		int slot = getSlotAt(position);
+		if(slot < 0 || getCount(slot) == 0)
+		{
+			return null;
+		}
+		return getBucket(slot).get(position - mPositions[slot]);
+	}
+
+	/**
+	 * @return True if the given agenda position is the virtual row of a day without events.
+	 */
+	public boolean isPlaceholderAt(int position)
+	{
+		int slot = getSlotAt(position);
+		return slot >= 0 && getCount(slot) == 0 && !isUnloaded(slot);
+	}
+
+	/**
+	 * @return True if the given agenda position is the skeleton row of a day not loaded yet.
+	 */
+	public boolean isSkeletonAt(int position)
+	{
+		int slot = getSlotAt(position);
+		return slot >= 0 && isUnloaded(slot);
+	}
+
+	/**
+	 * @return The number of events of the given day, placeholders excluded.
+	 */
+	public int getSummaryCount(int epochDay)
+	{
+		if(!contains(epochDay))
+		{
+			return 0;
+		}
+		int slot  = epochDay - mFirstDay;
+		int count = mSummaryCounts[slot];
+		if(count == UNKNOWN)
+		{
+			return mBuckets[slot] == null && mSource != null ? mSource.getEventCount(epochDay) : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * @param index From 0 to the smallest of getSummaryCount() and SUMMARY_COLORS, excluded.
+	 * @return The color of the event at that index in the given day, placeholders excluded, or 0 if it has none.
+	 */
+	public int getSummaryColor(int epochDay, int index)
+	{
+		int slot = epochDay - mFirstDay;
+		if(mSummaryCounts[slot] == UNKNOWN)
+		{
+			return mSource != null ? mSource.getEventColor(epochDay, index) : 0;
+		}
+		return mSummaryColors[slot * SUMMARY_COLORS + index];
+	}
+
+	/**
+	 * @return The events of the given day, creating the bucket and growing the range if needed.
+	 * Its summary is computed again by the next freeze().
+	 */
+	@NonNull
+	public ArrayList<CalendarEvent> getOrCreate(int epochDay)
+	{
+		ensureDay(epochDay);
+		int slot = epochDay - mFirstDay;
+		mSummaryCounts[slot] = UNKNOWN;
+		if(mBuckets[slot] == null)
+		{
+			// Never modify the source's list
+			ArrayList<CalendarEvent> events = getBucket(slot);
+			mBuckets[slot] = events != null ? new ArrayList<>(events) : new ArrayList<>();
+		}
+		return mBuckets[slot];
+	}
+
+	/**
+	 * @return An index sharing this one's buckets, detach() them before modifying them.
+	 */
+	@NonNull
+	public EventDayIndex copy()
+	{
+		EventDayIndex copy = new EventDayIndex();
+		copy.mFirstDay = mFirstDay;
+		copy.mBuckets = mBuckets.clone();
+		copy.mSummaryCounts = mSummaryCounts.clone();
+		copy.mSummaryColors = mSummaryColors.clone();
+		copy.mSource = mSource;
+		copy.mPlaceholderRows = mPlaceholderRows;
+		copy.mSkeletonRows = mSkeletonRows;
+		copy.mPositionsDirty = true;
+		return copy;
+	}
+
+	/**
+	 * Replace the bucket of the given day by a private copy, so it can be modified without affecting
+	 * the index this one was copied from.
+	 */
+	public void detach(int epochDay)
+	{
+		if(contains(epochDay))
+		{
+			ArrayList<CalendarEvent> events = getBucket(epochDay - mFirstDay);
+			if(events != null)
+			{
+				mBuckets[epochDay - mFirstDay] = new ArrayList<>(events);
+			}
+		}
+	}
+
+	/**
+	 * Compute the positions and the summaries of the days that changed now, after which reads don't write
+	 * anything and can happen on any thread.
+	 */
+	public void freeze()
+	{
+		getPositions();
+		for(int slot = 0; slot < mBuckets.length; slot++)
+		{
+			if(mSummaryCounts[slot] == UNKNOWN && mBuckets[slot] != null)
+			{
+				summarize(slot);
+			}
+		}
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private int[] getPositions()
+	{
+		if(mPositionsDirty)
+		{
+			if(mPositions.length != mBuckets.length + 1)
+			{
+				mPositions = new int[mBuckets.length + 1];
+			}
+			int position = 0;
+			for(int slot = 0; slot < mBuckets.length; slot++)
+			{
+				mPositions[slot] = position;
+				int count = getCount(slot);
+				position += count == 0 && (mPlaceholderRows || isUnloaded(slot)) ? 1 : count;
+			}
+			mPositions[mBuckets.length] = position;
+			mPositionsDirty = false;
+		}
+		return mPositions;
+	}
+
+	private void summarize(int slot)
+	{
+		int count = 0;
+		for(CalendarEvent event : mBuckets[slot])
+		{
+			if(event.isPlaceholder())
+			{
+				continue;
+			}
+			if(count < SUMMARY_COLORS)
+			{
+				mSummaryColors[slot * SUMMARY_COLORS + count] = event instanceof BaseCalendarEvent ? ((BaseCalendarEvent) event).getColor() : 0;
+			}
+			count++;
+		}
+		mSummaryCounts[slot] = count;
+	}
+
+	private void ensureDay(int epochDay)
+	{
+		if(mBuckets.length == 0)
+		{
+			reset(epochDay, epochDay + GROW_DAYS - 1);
+		}
+		else if(epochDay < mFirstDay)
+		{
+			int shift = mFirstDay - epochDay + GROW_DAYS;
+			resize(mBuckets.length + shift, shift);
+			mFirstDay -= shift;
+		}
+		else if(epochDay > getLastDay())
+		{
+			resize(epochDay - mFirstDay + 1 + GROW_DAYS, 0);
+		}
+	}
+
+	/**
+	 * Grow the slot arrays to the given size, moving the current slots by the given shift.
+	 */
+	private void resize(int size, int shift)
+	{
+		ArrayList<CalendarEvent>[] buckets       = newBuckets(size);
+		int[]                      summaryCounts = newSummaryCounts(size);
+		int[]                      summaryColors = new int[size * SUMMARY_COLORS];
+		System.arraycopy(mBuckets, 0, buckets, shift, mBuckets.length);
+		System.arraycopy(mSummaryCounts, 0, summaryCounts, shift, mSummaryCounts.length);
+		System.arraycopy(mSummaryColors, 0, summaryColors, shift * SUMMARY_COLORS, mSummaryColors.length);
+		mBuckets = buckets;
+		mSummaryCounts = summaryCounts;
+		mSummaryColors = summaryColors;
+		mPositionsDirty = true;
+	}
+
+	@Nullable
+	private ArrayList<CalendarEvent> getBucket(int slot)
+	{
+		if(mBuckets[slot] == null && mSource != null)
+		{
+			return mSource.getEvents(mFirstDay + slot);
+		}
+		return mBuckets[slot];
+	}
+
+	private boolean isUnloaded(int slot)
+	{
+		return mSkeletonRows && mBuckets[slot] == null && mSource == null;
+	}
+
+	private int getCount(int slot)
+	{
+		if(mBuckets[slot] == null)
+		{
+			return mSource != null ? mSource.getEventCount(mFirstDay + slot) : 0;
+		}
+		return mBuckets[slot].size();
+	}
+
+	private static int[] newSummaryCounts(int size)
+	{
+		int[] summaryCounts = new int[size];
+		Arrays.fill(summaryCounts, UNKNOWN);
+		return summaryCounts;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ArrayList<CalendarEvent>[] newBuckets(int size)
+	{
+		return (ArrayList<CalendarEvent>[]) new ArrayList[size];
+	}
+
+	// endregion
+}
@@ -0,0 +1,663 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.utils.DateHelper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Events of a calendar saved to disk, to show the agenda on the next start before the app has loaded
+ * its events again. The file is memory-mapped and only the header and the tables of counts and offsets
+ * are read and checksummed when opened. The events of a day are checksummed and decoded the first time
+ * the day is displayed, the strings the first time one of them is read.
+ * <p>
+ * Save the events with write() once they're loaded, open() the file on the next start and give it to
+ * CalendarManager.loadEvents(). A file written for another data version, by another version of the
+ * library, or whose header or tables are corrupted is rejected by open(), the events must then be loaded
+ * as usual. A day whose events turn out to be corrupted shows hidden placeholder rows instead.
+ * <p>
+ * Only the fields of BaseCalendarEvent are saved, events are read back as BaseCalendarEvent.
+ */
+public final class EventIndexFile implements EventDayIndex.Source
+{
+
+	private static final String LOG_TAG = EventIndexFile.class.getSimpleName();
+
+	/**
+	 * "ACVS"
+	 */
+	private static final int MAGIC             = 0x41435653;
+	private static final int FORMAT_VERSION    = 2;
+	/**
+	 * magic, format version, data version (long), first day, day count, event count, string count, payload length,
+	 * checksums of the tables, of the strings and of the header fields before it
+	 */
+	private static final int HEADER_SIZE       = 48;
+	/**
+	 * Offset of the checksum of the header, which covers the bytes before it
+	 */
+	private static final int HEADER_CRC_OFFSET = 44;
+
+	/// verification states of the days and of the strings
+	private static final byte UNVERIFIED = 0;
+	private static final byte VALID      = 1;
+	private static final byte CORRUPTED  = 2;
+
+	private static final int FLAG_ALL_DAY   = 1;
+	private static final int FLAG_HAS_START = 1 << 1;
+	private static final int FLAG_HAS_END   = 1 << 2;
+
+	private final ByteBuffer mBuffer;
+	private final long       mDataVersion;
+	private final int        mFirstDay;
+	private final int        mDayCount;
+	private final int        mEventCount;
+	private final int        mStringsCrc;
+	/// offsets of the sections in mBuffer
+	private final int        mCountsOffset;
+	private final int        mRecordOffsetsOffset;
+	private final int        mDayCrcsOffset;
+	private final int        mStringOffsetsOffset;
+	private final int        mStringsOffset;
+	private final int        mRecordsOffset;
+
+	/// decoded days and strings, and their verification states, guarded by this
+	private final ArrayList<CalendarEvent>[] mDays;
+	private final byte[]                     mDayStates;
+	private final String[]                   mStrings;
+	private       byte                       mStringsState;
+
+	// region Constructor
+
+	@SuppressWarnings("unchecked")
+	private EventIndexFile(ByteBuffer buffer, long dataVersion, int firstDay, int dayCount, int eventCount, int stringCount, int stringsCrc)
+	{
+		mBuffer = buffer;
+		mDataVersion = dataVersion;
+		mFirstDay = firstDay;
+		mDayCount = dayCount;
+		mEventCount = eventCount;
+		mStringsCrc = stringsCrc;
+		mCountsOffset = HEADER_SIZE;
+		mRecordOffsetsOffset = mCountsOffset + 4 * (dayCount + 1);
+		mDayCrcsOffset = mRecordOffsetsOffset + 4 * dayCount;
+		mStringOffsetsOffset = mDayCrcsOffset + 4 * dayCount;
+		mStringsOffset = mStringOffsetsOffset + 4 * (stringCount + 1);
+		mRecordsOffset = mStringsOffset + buffer.getInt(mStringsOffset - 4);
+		mDays = (ArrayList<CalendarEvent>[]) new ArrayList[dayCount];
+		mDayStates = new byte[dayCount];
+		mStrings = new String[stringCount];
+	}
+
+	// endregion
+
+	// region Public methods
+
+	/**
+	 * Save the events of a snapshot, placeholders excluded. The file is replaced atomically, a reader
+	 * never sees it half written. Call it from a worker thread.
+	 *
+	 * @param dataVersion A version of the app's events, e.g. a database generation, checked by open().
+	 */
+	public static void write(@NonNull File file, @NonNull CalendarSnapshot snapshot, long dataVersion) throws IOException
+	{
+		EventDayIndex eventIndex = snapshot.getEventIndex();
+		int           dayCount   = eventIndex.getDayCount();
+		int[]         counts     = new int[dayCount + 1];
+		int[]         offsets    = new int[dayCount];
+		int[]         dayCrcs    = new int[dayCount];
+
+		HashMap<String, Integer> stringIds = new HashMap<>();
+		ArrayList<byte[]>        strings   = new ArrayList<>();
+		ByteArrayOutputStream    records   = new ByteArrayOutputStream();
+		for(int slot = 0; slot < dayCount; slot++)
+		{
+			offsets[slot] = records.size();
+			counts[slot + 1] = counts[slot];
+			ArrayList<CalendarEvent> events = eventIndex.getAt(slot);
+			if(events == null)
+			{
+				continue;
+			}
+
+			// Timestamps are stored relative to the day, ids relative to the previous event
+			long dayStart = (eventIndex.getFirstDay() + slot) * DateHelper.MILIS_IN_DAY;
+			long lastId   = 0;
+			for(CalendarEvent event : events)
+			{
+				if(event.isPlaceholder())
+				{
+					continue;
+				}
+				counts[slot + 1]++;
+				writeVarLong(records, zigzag(event.getId() - lastId));
+				lastId = event.getId();
+
+				BaseCalendarEvent base  = event instanceof BaseCalendarEvent ? (BaseCalendarEvent) event : null;
+				Calendar          start = event.getStartTime();
+				Calendar          end   = event.getEndTime();
+				int               flags = (base != null && base.isAllDay() ? FLAG_ALL_DAY : 0) | (start != null ? FLAG_HAS_START : 0) | (end != null ? FLAG_HAS_END : 0);
+				records.write(flags);
+				long startMillis = start != null ? start.getTimeInMillis() : dayStart;
+				if(start != null)
+				{
+					writeVarLong(records, zigzag(startMillis - dayStart));
+				}
+				if(end != null)
+				{
+					writeVarLong(records, zigzag(end.getTimeInMillis() - startMillis));
+				}
+
+				int color = base != null ? base.getColor() : 0;
+				records.write(color >>> 24);
+				records.write(color >>> 16);
+				records.write(color >>> 8);
+				records.write(color);
+
+				writeString(records, event.getTitle(), stringIds, strings);
+				writeString(records, base != null ? base.getDescription() : null, stringIds, strings);
+				writeString(records, event.getLocation(), stringIds, strings);
+				writeString(records, base != null ? base.getDuration() : null, stringIds, strings);
+			}
+		}
+		byte[] recordBytes = records.toByteArray();
+		for(int slot = 0; slot < dayCount; slot++)
+		{
+			int end = slot + 1 < dayCount ? offsets[slot + 1] : recordBytes.length;
+			dayCrcs[slot] = crc(recordBytes, offsets[slot], end - offsets[slot]);
+		}
+
+		int stringsLength = 0;
+		for(byte[] string : strings)
+		{
+			stringsLength += string.length;
+		}
+		int        tablesLength  = getTablesLength(dayCount, strings.size());
+		int        payloadLength = tablesLength + stringsLength + recordBytes.length;
+		ByteBuffer buffer        = ByteBuffer.allocate(HEADER_SIZE + payloadLength).order(ByteOrder.BIG_ENDIAN);
+		buffer.position(HEADER_SIZE);
+		for(int count : counts)
+		{
+			buffer.putInt(count);
+		}
+		for(int offset : offsets)
+		{
+			buffer.putInt(offset);
+		}
+		for(int dayCrc : dayCrcs)
+		{
+			buffer.putInt(dayCrc);
+		}
+		int stringOffset = 0;
+		buffer.putInt(stringOffset);
+		for(byte[] string : strings)
+		{
+			stringOffset += string.length;
+			buffer.putInt(stringOffset);
+		}
+		for(byte[] string : strings)
+		{
+			buffer.put(string);
+		}
+		buffer.put(recordBytes);
+
+		buffer.position(0);
+		buffer.putInt(MAGIC);
+		buffer.putInt(FORMAT_VERSION);
+		buffer.putLong(dataVersion);
+		buffer.putInt(eventIndex.getFirstDay());
+		buffer.putInt(dayCount);
+		buffer.putInt(counts[dayCount]);
+		buffer.putInt(strings.size());
+		buffer.putInt(payloadLength);
+		buffer.putInt(crc(buffer.array(), HEADER_SIZE, tablesLength));
+		buffer.putInt(crc(buffer.array(), HEADER_SIZE + tablesLength, stringsLength));
+		buffer.putInt(crc(buffer.array(), 0, HEADER_CRC_OFFSET));
+
+		File tempFile = new File(file.getPath() + ".tmp");
+		try(FileOutputStream output = new FileOutputStream(tempFile))
+		{
+			output.write(buffer.array());
+			output.getFD().sync();
+		}
+		if(!tempFile.renameTo(file))
+		{
+			tempFile.delete();
+			throw new IOException("Unable to replace " + file);
+		}
+	}
+
+	/**
+	 * Map a file saved by write(). Only the header and the tables are checksummed and checked against the
+	 * size of the file, no event is decoded.
+	 *
+	 * @param expectedDataVersion The version given to write(), any other version is stale.
+	 * @return The saved events, or null if the file is missing, stale or corrupted.
+	 */
+	@Nullable
+	public static EventIndexFile open(@NonNull File file, long expectedDataVersion)
+	{
+		if(!file.isFile() || file.length() < HEADER_SIZE)
+		{
+			return null;
+		}
+		try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"))
+		{
+			FileChannel channel = randomAccessFile.getChannel();
+			// The mapping stays valid once the channel is closed
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+			if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION || buffer.getLong(8) != expectedDataVersion)
+			{
+				return null;
+			}
+			if(!isValid(buffer))
+			{
+				Log.w(LOG_TAG, "Ignoring corrupted event file " + file);
+				return null;
+			}
+			return new EventIndexFile(buffer, expectedDataVersion, buffer.getInt(16), buffer.getInt(20), buffer.getInt(24), buffer.getInt(28), buffer.getInt(40));
+		}
+		catch(IOException | RuntimeException e)
+		{
+			Log.w(LOG_TAG, "Unable to read event file " + file, e);
+			return null;
+		}
+	}
+
+	public long getDataVersion()
+	{
+		return mDataVersion;
+	}
+
+	public int getFirstDay()
+	{
+		return mFirstDay;
+	}
+
+	public int getLastDay()
+	{
+		return mFirstDay + mDayCount - 1;
+	}
+
+	/**
+	 * @return The number of events saved, placeholders excluded.
+	 */
+	public int getEventCount()
+	{
+		return mEventCount;
+	}
+
+	@Override
+	public int getEventCount(int epochDay)
+	{
+		int slot = epochDay - mFirstDay;
+		if(slot < 0 || slot >= mDayCount)
+		{
+			return 0;
+		}
+		return mBuffer.getInt(mCountsOffset + 4 * (slot + 1)) - mBuffer.getInt(mCountsOffset + 4 * slot);
+	}
+
+	@Nullable
+	@Override
+	public synchronized ArrayList<CalendarEvent> getEvents(int epochDay)
+	{
+		if(getEventCount(epochDay) == 0)
+		{
+			return null;
+		}
+		int slot = epochDay - mFirstDay;
+		if(mDays[slot] == null)
+		{
+			mDays[slot] = verifyDay(slot) && verifyStrings() ? readDay(epochDay) : newHiddenDay(epochDay);
+		}
+		return mDays[slot];
+	}
+
+	/**
+	 * Reads the color from the records, the events of the day aren't decoded.
+	 */
+	@Override
+	public synchronized int getEventColor(int epochDay, int index)
+	{
+		int slot = epochDay - mFirstDay;
+		if(!verifyDay(slot))
+		{
+			return 0;
+		}
+		int[] position = {mRecordsOffset + mBuffer.getInt(mRecordOffsetsOffset + 4 * slot)};
+		for(int i = 0; ; i++)
+		{
+			readVarLong(position);
+			int flags = mBuffer.get(position[0]++);
+			if((flags & FLAG_HAS_START) != 0)
+			{
+				readVarLong(position);
+			}
+			if((flags & FLAG_HAS_END) != 0)
+			{
+				readVarLong(position);
+			}
+			if(i == index)
+			{
+				return mBuffer.getInt(position[0]);
+			}
+			// Skip the color and the four string references
+			position[0] += 4;
+			for(int string = 0; string < 4; string++)
+			{
+				readVarLong(position);
+			}
+		}
+	}
+
+	// endregion
+
+	// region Private methods
+
+	/**
+	 * @return The length of the tables of counts, record offsets, day checksums and string offsets.
+	 */
+	private static int getTablesLength(int dayCount, int stringCount)
+	{
+		return 4 * (dayCount + 1) + 4 * dayCount + 4 * dayCount + 4 * (stringCount + 1);
+	}
+
+	/**
+	 * Check the header and the tables, so reading the sections they describe stays within the file.
+	 * The strings and the records of the days are checked when first read.
+	 */
+	private static boolean isValid(ByteBuffer buffer)
+	{
+		int dayCount      = buffer.getInt(20);
+		int eventCount    = buffer.getInt(24);
+		int stringCount   = buffer.getInt(28);
+		int payloadLength = buffer.getInt(32);
+		if(buffer.getInt(HEADER_CRC_OFFSET) != checksum(buffer, 0, HEADER_CRC_OFFSET))
+		{
+			return false;
+		}
+		if(dayCount < 0 || eventCount < 0 || stringCount < 0 || payloadLength != buffer.capacity() - HEADER_SIZE)
+		{
+			return false;
+		}
+		long tablesLength = 4L * (dayCount + 1) + 8L * dayCount + 4L * (stringCount + 1);
+		if(tablesLength > payloadLength || buffer.getInt(36) != checksum(buffer, HEADER_SIZE, (int) tablesLength))
+		{
+			return false;
+		}
+
+		// Sections in bounds, offsets growing
+		int countsOffset        = HEADER_SIZE;
+		int recordOffsetsOffset = countsOffset + 4 * (dayCount + 1);
+		int stringOffsetsOffset = recordOffsetsOffset + 8 * dayCount;
+		int stringsLength       = buffer.getInt(stringOffsetsOffset + 4 * stringCount);
+		if(buffer.getInt(countsOffset) != 0 || buffer.getInt(countsOffset + 4 * dayCount) != eventCount || buffer.getInt(stringOffsetsOffset) != 0)
+		{
+			return false;
+		}
+		if(stringsLength < 0 || stringsLength > payloadLength - tablesLength)
+		{
+			return false;
+		}
+		int recordsLength = (int) (payloadLength - tablesLength - stringsLength);
+		for(int slot = 0; slot < dayCount; slot++)
+		{
+			int recordOffset = buffer.getInt(recordOffsetsOffset + 4 * slot);
+			int nextOffset   = slot + 1 < dayCount ? buffer.getInt(recordOffsetsOffset + 4 * (slot + 1)) : recordsLength;
+			if(buffer.getInt(countsOffset + 4 * (slot + 1)) < buffer.getInt(countsOffset + 4 * slot) || recordOffset < 0 || recordOffset > nextOffset)
+			{
+				return false;
+			}
+		}
+		if(dayCount > 0 && buffer.getInt(recordOffsetsOffset + 4 * (dayCount - 1)) > recordsLength)
+		{
+			return false;
+		}
+		for(int index = 0; index < stringCount; index++)
+		{
+			if(buffer.getInt(stringOffsetsOffset + 4 * (index + 1)) < buffer.getInt(stringOffsetsOffset + 4 * index))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Must be called with the lock held.
+	 *
+	 * @return False if the records of the day don't match their checksum.
+	 */
+	private boolean verifyDay(int slot)
+	{
+		if(mDayStates[slot] == UNVERIFIED)
+		{
+			int start = mRecordsOffset + mBuffer.getInt(mRecordOffsetsOffset + 4 * slot);
+			int end   = slot + 1 < mDayCount ? mRecordsOffset + mBuffer.getInt(mRecordOffsetsOffset + 4 * (slot + 1)) : mBuffer.capacity();
+			mDayStates[slot] = checksum(mBuffer, start, end - start) == mBuffer.getInt(mDayCrcsOffset + 4 * slot) ? VALID : CORRUPTED;
+			if(mDayStates[slot] == CORRUPTED)
+			{
+				Log.w(LOG_TAG, "Ignoring corrupted events of day " + (mFirstDay + slot));
+			}
+		}
+		return mDayStates[slot] == VALID;
+	}
+
+	/**
+	 * Must be called with the lock held.
+	 *
+	 * @return False if the strings don't match their checksum.
+	 */
+	private boolean verifyStrings()
+	{
+		if(mStringsState == UNVERIFIED)
+		{
+			mStringsState = checksum(mBuffer, mStringsOffset, mRecordsOffset - mStringsOffset) == mStringsCrc ? VALID : CORRUPTED;
+			if(mStringsState == CORRUPTED)
+			{
+				Log.w(LOG_TAG, "Ignoring the events of corrupted strings");
+			}
+		}
+		return mStringsState == VALID;
+	}
+
+	/**
+	 * @return Hidden placeholders for the events of a day which can't be read, so the rows of the day stay in place.
+	 */
+	private ArrayList<CalendarEvent> newHiddenDay(int epochDay)
+	{
+		int                      count  = getEventCount(epochDay);
+		ArrayList<CalendarEvent> events = new ArrayList<>(count);
+		for(int i = 0; i < count; i++)
+		{
+			BaseCalendarEvent event = new BaseCalendarEvent();
+			event.setPlaceholder(true);
+			event.setShowPlaceholders(false);
+			event.setTitle("");
+			event.setLocation("");
+			Calendar instanceDay = Calendar.getInstance();
+			DateHelper.setEpochDay(instanceDay, epochDay);
+			event.setInstanceDay(instanceDay);
+			events.add(event);
+		}
+		return events;
+	}
+
+	/**
+	 * Must be called with the lock held.
+	 */
+	private ArrayList<CalendarEvent> readDay(int epochDay)
+	{
+		int                      slot     = epochDay - mFirstDay;
+		int                      count    = getEventCount(epochDay);
+		ArrayList<CalendarEvent> events   = new ArrayList<>(count);
+		int[]                    position = {mRecordsOffset + mBuffer.getInt(mRecordOffsetsOffset + 4 * slot)};
+		long                     dayStart = epochDay * DateHelper.MILIS_IN_DAY;
+		long                     id       = 0;
+		for(int i = 0; i < count; i++)
+		{
+			id += unzigzag(readVarLong(position));
+			int  flags = mBuffer.get(position[0]++);
+			long start = dayStart;
+			if((flags & FLAG_HAS_START) != 0)
+			{
+				start += unzigzag(readVarLong(position));
+			}
+			long end = (flags & FLAG_HAS_END) != 0 ? start + unzigzag(readVarLong(position)) : 0;
+			int  color = mBuffer.getInt(position[0]);
+			position[0] += 4;
+
+			BaseCalendarEvent event = new BaseCalendarEvent();
+			event.setId(id);
+			event.setColor(color);
+			event.setAllDay((flags & FLAG_ALL_DAY) != 0);
+			event.setTitle(readString(position));
+			event.setDescription(readString(position));
+			event.setLocation(readString(position));
+			event.setDuration(readString(position));
+			if((flags & FLAG_HAS_START) != 0)
+			{
+				Calendar startTime = Calendar.getInstance();
+				startTime.setTimeInMillis(start);
+				event.setStartTime(startTime);
+			}
+			if((flags & FLAG_HAS_END) != 0)
+			{
+				Calendar endTime = Calendar.getInstance();
+				endTime.setTimeInMillis(end);
+				event.setEndTime(endTime);
+			}
+			Calendar instanceDay = Calendar.getInstance();
+			DateHelper.setEpochDay(instanceDay, epochDay);
+			event.setInstanceDay(instanceDay);
+			events.add(event);
+		}
+		return events;
+	}
+
+	/**
+	 * Must be called with the lock held.
+	 */
+	@Nullable
+	private String readString(int[] position)
+	{
+		int index = (int) readVarLong(position) - 1;
+		if(index < 0)
+		{
+			return null;
+		}
+		if(mStrings[index] == null)
+		{
+			int    start = mBuffer.getInt(mStringOffsetsOffset + 4 * index);
+			byte[] bytes = new byte[mBuffer.getInt(mStringOffsetsOffset + 4 * (index + 1)) - start];
+			for(int i = 0; i < bytes.length; i++)
+			{
+				bytes[i] = mBuffer.get(mStringsOffset + start + i);
+			}
+			mStrings[index] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return mStrings[index];
+	}
+
+	private long readVarLong(int[] position)
+	{
+		long value = 0;
+		int  shift = 0;
+		byte b;
+		do
+		{
+			b = mBuffer.get(position[0]++);
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Strings are stored once and referenced by their index plus one, zero standing for null.
+	 */
+	private static void writeString(ByteArrayOutputStream output, @Nullable String string, HashMap<String, Integer> stringIds, ArrayList<byte[]> strings)
+	{
+		if(string == null)
+		{
+			writeVarLong(output, 0);
+			return;
+		}
+		Integer index = stringIds.get(string);
+		if(index == null)
+		{
+			index = strings.size();
+			stringIds.put(string, index);
+			strings.add(string.getBytes(StandardCharsets.UTF_8));
+		}
+		writeVarLong(output, index + 1);
+	}
+
+	private static void writeVarLong(ByteArrayOutputStream output, long value)
+	{
+		while((value & ~0x7FL) != 0)
+		{
+			output.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		output.write((int) value);
+	}
+
+	private static long zigzag(long value)
+	{
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static int crc(byte[] bytes, int offset, int length)
+	{
+		CRC32 crc = new CRC32();
+		crc.update(bytes, offset, length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * CRC32.update(ByteBuffer) requires API 26, the mapped section is copied in chunks.
+	 */
+	private static int checksum(ByteBuffer buffer, int offset, int length)
+	{
+		CRC32      crc   = new CRC32();
+		byte[]     chunk = new byte[Math.min(length, 8192)];
+		ByteBuffer view  = buffer.duplicate();
+		view.position(offset);
+		int remaining = length;
+		while(remaining > 0)
+		{
+			int read = Math.min(remaining, chunk.length);
+			view.get(chunk, 0, read);
+			crc.update(chunk, 0, read);
+			remaining -= read;
+		}
+		return (int) crc.getValue();
+	}
+
+	// endregion
+}
@@ -0,0 +1,331 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+
+import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.utils.DateHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.TimeZone;
+
+/**
+ * Events kept in parallel primitive arrays, sorted by day, with their strings in a deduplicated table.
+ * An event takes a few dozen bytes instead of the hundreds of a BaseCalendarEvent and its Calendars,
+ * for calendars holding hundreds of thousands of events.
+ * <p>
+ * Build a store with a Builder and give it to CalendarManager.loadEvents(). Events are exposed as
+ * BaseCalendarEvent views created when their day is displayed, and dropped when it's no longer used.
+ * The store itself is immutable.
+ */
+public final class EventStore implements EventDayIndex.Source
+{
+
+	/**
+	 * Number of days whose views are kept, enough for the rows visible in the agenda
+	 */
+	private static final int VIEW_CACHE_SIZE = 64;
+
+	private final int       mFirstDay;
+	/**
+	 * Index of the first event of each day, plus the number of events, the columns are sorted by day
+	 */
+	private final int[]     mDayOffsets;
+	private final long[]    mIds;
+	private final long[]    mStarts;
+	private final long[]    mEnds;
+	private final int[]     mColors;
+	private final boolean[] mAllDay;
+	/// indexes in mStrings, -1 for null
+	private final int[]     mTitles;
+	private final int[]     mDescriptions;
+	private final int[]     mLocations;
+	private final String[]  mStrings;
+
+	private final LruCache<Integer, ArrayList<CalendarEvent>> mViews = new LruCache<>(VIEW_CACHE_SIZE);
+
+	// region Constructor
+
+	private EventStore(Builder builder)
+	{
+		int count = builder.mCount;
+		if(count == 0)
+		{
+			mFirstDay = 0;
+			mDayOffsets = new int[1];
+		}
+		else
+		{
+			int firstDay = Integer.MAX_VALUE;
+			int lastDay  = Integer.MIN_VALUE;
+			for(int i = 0; i < count; i++)
+			{
+				firstDay = Math.min(firstDay, builder.mDays[i]);
+				lastDay = Math.max(lastDay, builder.mDays[i]);
+			}
+			mFirstDay = firstDay;
+			mDayOffsets = new int[lastDay - firstDay + 2];
+		}
+
+		// Counting sort by day, events of a day keep the order they were added in
+		for(int i = 0; i < count; i++)
+		{
+			mDayOffsets[builder.mDays[i] - mFirstDay + 1]++;
+		}
+		for(int slot = 1; slot < mDayOffsets.length; slot++)
+		{
+			mDayOffsets[slot] += mDayOffsets[slot - 1];
+		}
+		int[] next = Arrays.copyOf(mDayOffsets, mDayOffsets.length - 1);
+
+		mIds = new long[count];
+		mStarts = new long[count];
+		mEnds = new long[count];
+		mColors = new int[count];
+		mAllDay = new boolean[count];
+		mTitles = new int[count];
+		mDescriptions = new int[count];
+		mLocations = new int[count];
+		for(int i = 0; i < count; i++)
+		{
+			int row = next[builder.mDays[i] - mFirstDay]++;
+			mIds[row] = builder.mIds[i];
+			mStarts[row] = builder.mStarts[i];
+			mEnds[row] = builder.mEnds[i];
+			mColors[row] = builder.mColors[i];
+			mAllDay[row] = builder.mAllDay[i];
+			mTitles[row] = builder.mTitles[i];
+			mDescriptions[row] = builder.mDescriptions[i];
+			mLocations[row] = builder.mLocations[i];
+		}
+		mStrings = builder.mStrings.toArray(new String[0]);
+	}
+
+	// endregion
+
+	// region Public methods
+
+	public int getFirstDay()
+	{
+		return mFirstDay;
+	}
+
+	public int getLastDay()
+	{
+		return mFirstDay + mDayOffsets.length - 2;
+	}
+
+	public int getEventCount()
+	{
+		return mIds.length;
+	}
+
+	@Override
+	public int getEventCount(int epochDay)
+	{
+		int slot = epochDay - mFirstDay;
+		if(slot < 0 || slot >= mDayOffsets.length - 1)
+		{
+			return 0;
+		}
+		return mDayOffsets[slot + 1] - mDayOffsets[slot];
+	}
+
+	@Nullable
+	@Override
+	public ArrayList<CalendarEvent> getEvents(int epochDay)
+	{
+		if(getEventCount(epochDay) == 0)
+		{
+			return null;
+		}
+		ArrayList<CalendarEvent> events = mViews.get(epochDay);
+		if(events == null)
+		{
+			// Two threads may create the views of the same day, both are equal
+			int slot = epochDay - mFirstDay;
+			events = new ArrayList<>(getEventCount(epochDay));
+			for(int row = mDayOffsets[slot]; row < mDayOffsets[slot + 1]; row++)
+			{
+				events.add(new StoredEvent(this, row, epochDay));
+			}
+			mViews.put(epochDay, events);
+		}
+		return events;
+	}
+
+	@Override
+	public int getEventColor(int epochDay, int index)
+	{
+		return mColors[mDayOffsets[epochDay - mFirstDay] + index];
+	}
+
+	// endregion
+
+	// region Private methods
+
+	@Nullable
+	private String getString(int index)
+	{
+		return index < 0 ? null : mStrings[index];
+	}
+
+	// endregion
+
+	// region Class - Builder
+
+	/**
+	 * Collects events into growing primitive arrays, no object is kept per event.
+	 */
+	public static final class Builder
+	{
+
+		private int       mCount;
+		private int[]     mDays         = new int[16];
+		private long[]    mIds          = new long[16];
+		private long[]    mStarts       = new long[16];
+		private long[]    mEnds         = new long[16];
+		private int[]     mColors       = new int[16];
+		private boolean[] mAllDay       = new boolean[16];
+		private int[]     mTitles       = new int[16];
+		private int[]     mDescriptions = new int[16];
+		private int[]     mLocations    = new int[16];
+
+		private final HashMap<String, Integer> mStringIds = new HashMap<>();
+		private final ArrayList<String>        mStrings   = new ArrayList<>();
+
+		/**
+		 * Add an event shown on the local day it starts.
+		 */
+		public Builder add(long id, long startMillis, long endMillis, int color, boolean allDay, @Nullable String title, @Nullable String description, @Nullable String location)
+		{
+			return add(DateHelper.toEpochDay(startMillis, TimeZone.getDefault()), id, startMillis, endMillis, color, allDay, title, description, location);
+		}
+
+		/**
+		 * Add an event shown on the given day, like the instance day of a CalendarEvent.
+		 *
+		 * @param epochDay The local epoch day, see DateHelper.toEpochDay().
+		 */
+		public Builder add(int epochDay, long id, long startMillis, long endMillis, int color, boolean allDay, @Nullable String title, @Nullable String description,
+				@Nullable String location)
+		{
+			if(mCount == mIds.length)
+			{
+				grow();
+			}
+			mDays[mCount] = epochDay;
+			mIds[mCount] = id;
+			mStarts[mCount] = startMillis;
+			mEnds[mCount] = endMillis;
+			mColors[mCount] = color;
+			mAllDay[mCount] = allDay;
+			mTitles[mCount] = getStringId(title);
+			mDescriptions[mCount] = getStringId(description);
+			mLocations[mCount] = getStringId(location);
+			mCount++;
+			return this;
+		}
+
+		@NonNull
+		public EventStore build()
+		{
+			return new EventStore(this);
+		}
+
+		private int getStringId(@Nullable String string)
+		{
+			if(string == null)
+			{
+				return -1;
+			}
+			Integer id = mStringIds.get(string);
+			if(id == null)
+			{
+				id = mStrings.size();
+				mStringIds.put(string, id);
+				mStrings.add(string);
+			}
+			return id;
+		}
+
+		private void grow()
+		{
+			int capacity = mIds.length * 2;
+			mDays = Arrays.copyOf(mDays, capacity);
+			mIds = Arrays.copyOf(mIds, capacity);
+			mStarts = Arrays.copyOf(mStarts, capacity);
+			mEnds = Arrays.copyOf(mEnds, capacity);
+			mColors = Arrays.copyOf(mColors, capacity);
+			mAllDay = Arrays.copyOf(mAllDay, capacity);
+			mTitles = Arrays.copyOf(mTitles, capacity);
+			mDescriptions = Arrays.copyOf(mDescriptions, capacity);
+			mLocations = Arrays.copyOf(mLocations, capacity);
+		}
+	}
+
+	// endregion
+
+	// region Class - StoredEvent
+
+	/**
+	 * View of a row of the store. Views of the same row are equal, as a view may be created again once its
+	 * day left the cache. A view is fully built by its constructor, as it's read from several threads.
+	 */
+	static final class StoredEvent extends BaseCalendarEvent
+	{
+
+		private final EventStore mStore;
+		private final int        mRow;
+
+		StoredEvent(EventStore store, int row, int epochDay)
+		{
+			mStore = store;
+			mRow = row;
+			setId(store.mIds[row]);
+			setColor(store.mColors[row]);
+			setAllDay(store.mAllDay[row]);
+			setTitle(store.getString(store.mTitles[row]));
+			setDescription(store.getString(store.mDescriptions[row]));
+			setLocation(store.getString(store.mLocations[row]));
+
+			Calendar startTime = Calendar.getInstance();
+			startTime.setTimeInMillis(store.mStarts[row]);
+			setStartTime(startTime);
+			Calendar endTime = Calendar.getInstance();
+			endTime.setTimeInMillis(store.mEnds[row]);
+			setEndTime(endTime);
+			Calendar instanceDay = Calendar.getInstance();
+			DateHelper.setEpochDay(instanceDay, epochDay);
+			setInstanceDay(instanceDay);
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			if(this == o)
+			{
+				return true;
+			}
+			if(!(o instanceof StoredEvent))
+			{
+				return false;
+			}
+			StoredEvent other = (StoredEvent) o;
+			return mStore == other.mStore && mRow == other.mRow;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * System.identityHashCode(mStore) + mRow;
+		}
+	}
+
+	// endregion
+}
@@ -0,0 +1,193 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.util.Log;
+
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.utils.BackgroundExecutor;
+import com.github.tibolte.agendacalendarview.utils.DateHelper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Loads the events of an EventDataSource by windows of days around the visible ones, and prefetches
+ * the next window in the scroll direction. The least recently visible windows are dropped once too many
+ * are loaded, their days going back to skeleton rows.
+ */
+final class EventWindowLoader
+{
+
+	private static final String LOG_TAG = EventWindowLoader.class.getSimpleName();
+
+	/**
+	 * Number of days loaded at once, windows start on multiples of it
+	 */
+	static final int WINDOW_DAYS = 14;
+	/**
+	 * Number of windows kept loaded, around eight months
+	 */
+	private static final int MAX_WINDOWS      = 16;
+	/**
+	 * Number of windows loaded ahead of the visible days
+	 */
+	private static final int PREFETCH_WINDOWS = 1;
+
+	private static final BackgroundExecutor sExecutor = new BackgroundExecutor("EventWindowLoader");
+
+	private final CalendarManager mCalendarManager;
+	private final EventDataSource mDataSource;
+	private final Handler         mMainHandler = new Handler(Looper.getMainLooper());
+	/**
+	 * First days of the loaded windows, least recently visible first, main thread only
+	 */
+	private final LinkedHashMap<Integer, Boolean> mLoadedWindows  = new LinkedHashMap<>(MAX_WINDOWS, 0.75f, true);
+	/**
+	 * First days of the windows being loaded, main thread only
+	 */
+	private final HashSet<Integer>                mPendingWindows = new HashSet<>();
+	private volatile boolean                      mCancelled;
+
+	// region Constructor
+
+	EventWindowLoader(CalendarManager calendarManager, EventDataSource dataSource)
+	{
+		mCalendarManager = calendarManager;
+		mDataSource = dataSource;
+	}
+
+	// endregion
+
+	// region Public methods
+
+	/**
+	 * Load the windows holding the given days, and the next ones in the scroll direction.
+	 *
+	 * @param direction Negative when scrolling back in time, positive when scrolling forward, zero to prefetch both ways.
+	 */
+	@MainThread
+	public void onVisibleRangeChanged(int firstDay, int lastDay, int direction)
+	{
+		int first = getWindowStart(firstDay);
+		int last  = getWindowStart(lastDay);
+		if(direction <= 0)
+		{
+			first -= PREFETCH_WINDOWS * WINDOW_DAYS;
+		}
+		if(direction >= 0)
+		{
+			last += PREFETCH_WINDOWS * WINDOW_DAYS;
+		}
+		// Visible windows first, so they're the most recently used
+		for(int start = getWindowStart(firstDay); start <= getWindowStart(lastDay); start += WINDOW_DAYS)
+		{
+			request(start);
+		}
+		for(int start = first; start <= last; start += WINDOW_DAYS)
+		{
+			request(start);
+		}
+	}
+
+	/**
+	 * Stop loading, windows still loading are dropped.
+	 */
+	public void cancel()
+	{
+		mCancelled = true;
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private static int getWindowStart(int epochDay)
+	{
+		return epochDay - ((epochDay % WINDOW_DAYS) + WINDOW_DAYS) % WINDOW_DAYS;
+	}
+
+	private void request(int start)
+	{
+		EventDayIndex eventIndex = mCalendarManager.getSnapshot().getEventIndex();
+		if(start + WINDOW_DAYS <= eventIndex.getFirstDay() || start > eventIndex.getLastDay())
+		{
+			return;
+		}
+		// Reading the window also marks it as recently visible
+		if(mLoadedWindows.get(start) != null || !mPendingWindows.add(start))
+		{
+			return;
+		}
+		sExecutor.execute(() -> load(start));
+	}
+
+	/**
+	 * Called on the background thread.
+	 */
+	private void load(int start)
+	{
+		if(mCancelled)
+		{
+			return;
+		}
+		ArrayList<CalendarEvent>[] buckets = null;
+		try
+		{
+			List<CalendarEvent> events = mDataSource.loadEvents(start, start + WINDOW_DAYS);
+			buckets = newBuckets();
+			for(CalendarEvent event : events)
+			{
+				int slot = DateHelper.toEpochDay(event.getInstanceDay()) - start;
+				if(slot >= 0 && slot < WINDOW_DAYS)
+				{
+					buckets[slot].add(event);
+				}
+			}
+		}
+		catch(RuntimeException e)
+		{
+			Log.e(LOG_TAG, "Unable to load the events from day " + start, e);
+		}
+		final ArrayList<CalendarEvent>[] loadedBuckets = buckets;
+		mMainHandler.post(() -> onWindowLoaded(start, loadedBuckets));
+	}
+
+	@MainThread
+	private void onWindowLoaded(int start, ArrayList<CalendarEvent>[] buckets)
+	{
+		mPendingWindows.remove(start);
+		if(mCancelled || buckets == null)
+		{
+			// A failed window is requested again next time it's visible
+			return;
+		}
+
+		mLoadedWindows.put(start, Boolean.TRUE);
+		ArrayList<Integer> evictedWindows = new ArrayList<>();
+		Iterator<Integer>  iterator       = mLoadedWindows.keySet().iterator();
+		while(mLoadedWindows.size() > MAX_WINDOWS)
+		{
+			evictedWindows.add(iterator.next());
+			iterator.remove();
+		}
+		mCalendarManager.setWindow(this, start, buckets, evictedWindows);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ArrayList<CalendarEvent>[] newBuckets()
+	{
+		ArrayList<CalendarEvent>[] buckets = (ArrayList<CalendarEvent>[]) new ArrayList[WINDOW_DAYS];
+		for(int slot = 0; slot < WINDOW_DAYS; slot++)
+		{
+			buckets[slot] = new ArrayList<>();
+		}
+		return buckets;
+	}
+
+	// endregion
+}
@@ -0,0 +1,413 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.util.ListUpdateCallback;
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseBooleanArray;
+
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Changes between two snapshots, computed on a worker thread by the CalendarManager so the main thread
+ * only applies them. Holds the days whose events changed, the days whose event indicators changed,
+ * and when rows were inserted or removed, the minimal row operations turning one agenda into the other.
+ * <p>
+ * Rows are matched by CalendarEvent.isSameEvent() and compared by CalendarEvent.hasSameContent().
+ * Only the rows of the days that changed are diffed, the others keep their position.
+ */
+public final class SnapshotDiff
+{
+
+	/**
+	 * Largest number of rows diffed, larger changes fall back to a full refresh
+	 */
+	private static final int MAX_DIFF_ROWS = 2000;
+
+	private final CalendarSnapshot     mPrevious;
+	private final CalendarSnapshot     mSnapshot;
+	private final int[]                mEpochDays;
+	private final int[]                mIndicatorDays;
+	private final boolean              mStructureChanged;
+	/**
+	 * Row operations within the window of the changed days, null if not computed
+	 */
+	@Nullable
+	private final DiffUtil.DiffResult  mRowDiff;
+	/**
+	 * Agenda position of the first row of the window
+	 */
+	private final int                  mRowOffset;
+
+	// region Constructor
+
+	private SnapshotDiff(CalendarSnapshot previous, CalendarSnapshot snapshot, int[] epochDays, int[] indicatorDays, boolean structureChanged,
+			@Nullable DiffUtil.DiffResult rowDiff, int rowOffset)
+	{
+		mPrevious = previous;
+		mSnapshot = snapshot;
+		mEpochDays = epochDays;
+		mIndicatorDays = indicatorDays;
+		mStructureChanged = structureChanged;
+		mRowDiff = rowDiff;
+		mRowOffset = rowOffset;
+	}
+
+	// endregion
+
+	// region Getters
+
+	/**
+	 * @return The snapshot the changes apply to.
+	 */
+	@NonNull
+	public CalendarSnapshot getPrevious()
+	{
+		return mPrevious;
+	}
+
+	/**
+	 * @return The snapshot holding the changes.
+	 */
+	@NonNull
+	public CalendarSnapshot getSnapshot()
+	{
+		return mSnapshot;
+	}
+
+	/**
+	 * @return The sorted local epoch days whose events changed.
+	 */
+	@NonNull
+	public int[] getEpochDays()
+	{
+		return mEpochDays;
+	}
+
+	/**
+	 * @return The sorted local epoch days whose event count or first colors changed, a subset of getEpochDays().
+	 */
+	@NonNull
+	public int[] getIndicatorDays()
+	{
+		return mIndicatorDays;
+	}
+
+	/**
+	 * @return True if rows were inserted or removed in the agenda.
+	 */
+	public boolean isStructureChanged()
+	{
+		return mStructureChanged;
+	}
+
+	/**
+	 * @return True if the row operations were computed, see dispatchUpdatesTo().
+	 */
+	public boolean hasRowDiff()
+	{
+		return mRowDiff != null;
+	}
+
+	// endregion
+
+	// region Public methods
+
+	/**
+	 * Notify an adapter displaying getPrevious() of the rows inserted, removed, moved and changed.
+	 * The adapter must display getSnapshot() before being notified.
+	 *
+	 * @return False if the row operations weren't computed, the adapter must then be refreshed otherwise.
+	 */
+	public boolean dispatchUpdatesTo(@NonNull RecyclerView.Adapter<?> adapter)
+	{
+		if(mRowDiff == null)
+		{
+			return false;
+		}
+		mRowDiff.dispatchUpdatesTo(new ListUpdateCallback()
+		{
+			@Override
+			public void onInserted(int position, int count)
+			{
+				adapter.notifyItemRangeInserted(mRowOffset + position, count);
+			}
+
+			@Override
+			public void onRemoved(int position, int count)
+			{
+				adapter.notifyItemRangeRemoved(mRowOffset + position, count);
+			}
+
+			@Override
+			public void onMoved(int fromPosition, int toPosition)
+			{
+				adapter.notifyItemMoved(mRowOffset + fromPosition, mRowOffset + toPosition);
+			}
+
+			@Override
+			public void onChanged(int position, int count, Object payload)
+			{
+				adapter.notifyItemRangeChanged(mRowOffset + position, count, payload);
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * @param changedDays      The sorted days whose events changed, or null to find them by comparing every day.
+	 * @param structureChanged True if rows were inserted or removed, computed when changedDays is null.
+	 */
+	@NonNull
+	@WorkerThread
+	static SnapshotDiff compute(@NonNull CalendarSnapshot previous, @NonNull CalendarSnapshot snapshot, @Nullable int[] changedDays, boolean structureChanged)
+	{
+		EventDayIndex oldIndex = previous.getEventIndex();
+		EventDayIndex newIndex = snapshot.getEventIndex();
+		// Days read from a source are only compared by their summary, the others event by event
+		boolean lazy = oldIndex.hasSource() || newIndex.hasSource();
+		if(changedDays == null)
+		{
+			changedDays = findChangedDays(oldIndex, newIndex, lazy);
+			structureChanged = lazy || isStructureChanged(oldIndex, newIndex, changedDays);
+		}
+
+		DiffUtil.DiffResult rowDiff   = null;
+		int                 rowOffset = 0;
+		if(structureChanged && !lazy && changedDays.length > 0 && oldIndex.getFirstDay() == newIndex.getFirstDay()
+				&& oldIndex.getDayCount() == newIndex.getDayCount())
+		{
+			int firstDay = changedDays[0];
+			int lastDay  = changedDays[changedDays.length - 1];
+			int oldStart = oldIndex.getPosition(firstDay);
+			int oldEnd   = getRowEnd(oldIndex, lastDay);
+			int newEnd   = getRowEnd(newIndex, lastDay);
+			// Rows before and after the window must be the same in both snapshots
+			if(oldStart == newIndex.getPosition(firstDay) && oldIndex.getEventCount() - oldEnd == newIndex.getEventCount() - newEnd
+					&& Math.max(oldEnd, newEnd) - oldStart <= MAX_DIFF_ROWS)
+			{
+				rowOffset = oldStart;
+				rowDiff = DiffUtil.calculateDiff(new RowCallback(previous, snapshot, changedDays, oldStart, oldEnd, newEnd), true);
+			}
+		}
+		return new SnapshotDiff(previous, snapshot, changedDays, findIndicatorDays(oldIndex, newIndex, changedDays), structureChanged, rowDiff, rowOffset);
+	}
+
+	// endregion
+
+	// region Private methods
+
+	/**
+	 * @return The days of both ranges whose events aren't the same, or whose indicators differ in lazy mode.
+	 */
+	private static int[] findChangedDays(EventDayIndex oldIndex, EventDayIndex newIndex, boolean lazy)
+	{
+		int firstDay = Math.min(oldIndex.getFirstDay(), newIndex.getFirstDay());
+		int lastDay  = Math.max(oldIndex.getLastDay(), newIndex.getLastDay());
+		if(oldIndex.getDayCount() == 0 || newIndex.getDayCount() == 0)
+		{
+			firstDay = oldIndex.getDayCount() == 0 ? newIndex.getFirstDay() : oldIndex.getFirstDay();
+			lastDay = oldIndex.getDayCount() == 0 ? newIndex.getLastDay() : oldIndex.getLastDay();
+		}
+
+		SparseBooleanArray changed = new SparseBooleanArray();
+		for(int epochDay = firstDay; epochDay <= lastDay; epochDay++)
+		{
+			boolean dayChanged;
+			if(oldIndex.contains(epochDay) != newIndex.contains(epochDay) || oldIndex.isLoaded(epochDay) != newIndex.isLoaded(epochDay))
+			{
+				dayChanged = true;
+			}
+			else if(lazy)
+			{
+				dayChanged = isIndicatorChanged(oldIndex, newIndex, epochDay);
+			}
+			else
+			{
+				dayChanged = !isSameDay(oldIndex.get(epochDay), newIndex.get(epochDay));
+			}
+			if(dayChanged)
+			{
+				changed.put(epochDay, true);
+			}
+		}
+
+		int[] days = new int[changed.size()];
+		for(int i = 0; i < days.length; i++)
+		{
+			days[i] = changed.keyAt(i);
+		}
+		return days;
+	}
+
+	private static boolean isSameDay(@Nullable ArrayList<CalendarEvent> oldEvents, @Nullable ArrayList<CalendarEvent> newEvents)
+	{
+		if(oldEvents == newEvents)
+		{
+			return true;
+		}
+		int size = oldEvents == null ? 0 : oldEvents.size();
+		if(size != (newEvents == null ? 0 : newEvents.size()))
+		{
+			return false;
+		}
+		for(int i = 0; i < size; i++)
+		{
+			CalendarEvent oldEvent = oldEvents.get(i);
+			CalendarEvent newEvent = newEvents.get(i);
+			if(oldEvent != newEvent && (!oldEvent.isSameEvent(newEvent) || !oldEvent.hasSameContent(newEvent)))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isStructureChanged(EventDayIndex oldIndex, EventDayIndex newIndex, int[] changedDays)
+	{
+		if(oldIndex.getFirstDay() != newIndex.getFirstDay() || oldIndex.getDayCount() != newIndex.getDayCount()
+				|| oldIndex.getEventCount() != newIndex.getEventCount())
+		{
+			return true;
+		}
+		for(int epochDay : changedDays)
+		{
+			if(getRowEnd(oldIndex, epochDay) - oldIndex.getPosition(epochDay) != getRowEnd(newIndex, epochDay) - newIndex.getPosition(epochDay))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static int[] findIndicatorDays(EventDayIndex oldIndex, EventDayIndex newIndex, int[] changedDays)
+	{
+		int[] days  = new int[changedDays.length];
+		int   count = 0;
+		for(int epochDay : changedDays)
+		{
+			if(isIndicatorChanged(oldIndex, newIndex, epochDay))
+			{
+				days[count++] = epochDay;
+			}
+		}
+		return count == days.length ? days : Arrays.copyOf(days, count);
+	}
+
+	private static boolean isIndicatorChanged(EventDayIndex oldIndex, EventDayIndex newIndex, int epochDay)
+	{
+		int count = oldIndex.getSummaryCount(epochDay);
+		if(count != newIndex.getSummaryCount(epochDay))
+		{
+			return true;
+		}
+		for(int i = 0; i < Math.min(count, EventDayIndex.SUMMARY_COLORS); i++)
+		{
+			if(oldIndex.getSummaryColor(epochDay, i) != newIndex.getSummaryColor(epochDay, i))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The position following the last row of the given day of the range.
+	 */
+	private static int getRowEnd(EventDayIndex eventIndex, int epochDay)
+	{
+		return epochDay >= eventIndex.getLastDay() ? eventIndex.getEventCount() : eventIndex.getPosition(epochDay + 1);
+	}
+
+	// endregion
+
+	// region Class - RowCallback
+
+	/**
+	 * Compares the rows of a window of both agendas. Rows of different days are never the same, as
+	 * headers are attached to days. Placeholder and skeleton rows are matched by their day.
+	 */
+	private static final class RowCallback extends DiffUtil.Callback
+	{
+
+		private final CalendarSnapshot mPrevious;
+		private final CalendarSnapshot mSnapshot;
+		private final int[]            mChangedDays;
+		private final int              mStart;
+		private final int              mOldEnd;
+		private final int              mNewEnd;
+
+		RowCallback(CalendarSnapshot previous, CalendarSnapshot snapshot, int[] changedDays, int start, int oldEnd, int newEnd)
+		{
+			mPrevious = previous;
+			mSnapshot = snapshot;
+			mChangedDays = changedDays;
+			mStart = start;
+			mOldEnd = oldEnd;
+			mNewEnd = newEnd;
+		}
+
+		@Override
+		public int getOldListSize()
+		{
+			return mOldEnd - mStart;
+		}
+
+		@Override
+		public int getNewListSize()
+		{
+			return mNewEnd - mStart;
+		}
+
+		@Override
+		public boolean areItemsTheSame(int oldItemPosition, int newItemPosition)
+		{
+			int oldPosition = mStart + oldItemPosition;
+			int newPosition = mStart + newItemPosition;
+			if(mPrevious.getDayAt(oldPosition) != mSnapshot.getDayAt(newPosition))
+			{
+				return false;
+			}
+			int oldKind = getKind(mPrevious, oldPosition);
+			if(oldKind != getKind(mSnapshot, newPosition))
+			{
+				return false;
+			}
+			return oldKind != 0 || mPrevious.getEventAt(oldPosition).isSameEvent(mSnapshot.getEventAt(newPosition));
+		}
+
+		@Override
+		public boolean areContentsTheSame(int oldItemPosition, int newItemPosition)
+		{
+			int oldPosition = mStart + oldItemPosition;
+			int newPosition = mStart + newItemPosition;
+			if(getKind(mPrevious, oldPosition) != 0)
+			{
+				return true;
+			}
+			CalendarEvent oldEvent = mPrevious.getEventAt(oldPosition);
+			CalendarEvent newEvent = mSnapshot.getEventAt(newPosition);
+			if(oldEvent != newEvent)
+			{
+				return oldEvent.hasSameContent(newEvent);
+			}
+			// An event modified in place can't be compared with itself, rebind it if its day changed
+			return Arrays.binarySearch(mChangedDays, mSnapshot.getDayAt(newPosition)) < 0;
+		}
+
+		/**
+		 * @return 1 for a placeholder row, 2 for a skeleton row, 0 for an event.
+		 */
+		private static int getKind(CalendarSnapshot snapshot, int position)
+		{
+			return snapshot.isPlaceholderAt(position) ? 1 : snapshot.isSkeletonAt(position) ? 2 : 0;
+		}
+	}
+
+	// endregion
+}
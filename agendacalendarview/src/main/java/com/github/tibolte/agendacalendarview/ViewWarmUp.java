@@ -0,0 +1,163 @@
+package com.github.tibolte.agendacalendarview;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.LayoutRes;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.github.tibolte.agendacalendarview.agenda.AgendaHeaderView;
+import com.github.tibolte.agendacalendarview.calendar.weekslist.WeekRowView;
+import com.github.tibolte.agendacalendarview.render.EventRendererRegistry;
+import com.github.tibolte.agendacalendarview.utils.BackgroundExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates week rows, agenda rows and day headers on a worker thread while the calendar is built, so
+ * the first frame showing it doesn't inflate anything. The views are handed to the main thread, where
+ * the lists use them before inflating new ones.
+ * <p>
+ * Views failing to inflate off the main thread, e.g. because they need a Looper, are skipped and
+ * inflated by their list as usual.
+ */
+public class ViewWarmUp
+{
+
+	private static final String LOG_TAG = ViewWarmUp.class.getSimpleName();
+
+	private static final BackgroundExecutor sExecutor = new BackgroundExecutor("AgendaCalendarWarmUp");
+
+	private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+	/// number of views created by a warm-up, 0 for none
+	private       int     mWeekRows;
+	private       int     mEventRowsPerType;
+	private       int     mHeaders;
+	/**
+	 * Incremented for every warm-up, so views of superseded ones are dropped
+	 */
+	private       int     mGeneration;
+
+	// region Interfaces
+
+	public interface Callback
+	{
+		/**
+		 * Called on the main thread with the created views, none of them has a parent.
+		 *
+		 * @param eventRows Rows of each view type events currently resolve to, see EventRendererRegistry.addWarmRows().
+		 */
+		void onViewsCreated(@NonNull List<WeekRowView> weekRows, @NonNull SparseArray<List<View>> eventRows, @NonNull List<AgendaHeaderView> headers);
+	}
+
+	// endregion
+
+	// region Public methods
+
+	/**
+	 * @param weekRows         Number of week rows, a few more than the weeks visible at once.
+	 * @param eventRowsPerType Number of agenda rows per renderer, the rows visible at once.
+	 * @param headers          Number of day headers, the days visible at once.
+	 */
+	public void setCounts(int weekRows, int eventRowsPerType, int headers)
+	{
+		mWeekRows = Math.max(weekRows, 0);
+		mEventRowsPerType = Math.max(eventRowsPerType, 0);
+		mHeaders = Math.max(headers, 0);
+	}
+
+	public boolean isEnabled()
+	{
+		return mWeekRows > 0 || mEventRowsPerType > 0 || mHeaders > 0;
+	}
+
+	/**
+	 * Start creating the views, cancelling the warm-up in progress. Only the view types the renderers
+	 * resolve to get rows, read now: replaced renderers, the fallback one and renderers added later get none.
+	 *
+	 * @param agendaList The list the agenda rows and headers are created for, their layout params come from it.
+	 */
+	@MainThread
+	public void start(@NonNull Context context, @NonNull ViewGroup agendaList, @NonNull EventRendererRegistry renderers, @NonNull Callback callback)
+	{
+		final int generation = ++mGeneration;
+		final int weekRows   = mWeekRows;
+		final int eventRows  = mEventRowsPerType;
+		final int headers    = mHeaders;
+
+		final int[] viewTypes = renderers.getResolvedViewTypes();
+		final int[] layouts   = new int[viewTypes.length];
+		for(int i = 0; i < viewTypes.length; i++)
+		{
+			layouts[i] = renderers.getRenderer(viewTypes[i]).getEventLayout();
+		}
+		// A separate inflater, inflating locks it against the ones of the main thread
+		final LayoutInflater inflater = LayoutInflater.from(context).cloneInContext(context);
+
+		sExecutor.execute(() -> {
+			long                    start         = System.currentTimeMillis();
+			List<WeekRowView>       weekRowViews  = new ArrayList<>(weekRows);
+			SparseArray<List<View>> eventRowViews = new SparseArray<>(layouts.length);
+			List<AgendaHeaderView>  headerViews   = new ArrayList<>(headers);
+			try
+			{
+				for(int i = 0; i < weekRows; i++)
+				{
+					weekRowViews.add(new WeekRowView(context));
+				}
+				for(int i = 0; i < viewTypes.length; i++)
+				{
+					eventRowViews.put(viewTypes[i], inflate(inflater, layouts[i], agendaList, eventRows));
+				}
+				for(View header : inflate(inflater, R.layout.view_agenda_header, agendaList, headers))
+				{
+					headerViews.add((AgendaHeaderView) header);
+				}
+				Log.i(LOG_TAG, "Created views in " + (System.currentTimeMillis() - start) + " ms.");
+			}
+			catch(RuntimeException e)
+			{
+				// Hand over what was created, the lists inflate the rest
+				Log.w(LOG_TAG, "Failed to create views off the main thread.", e);
+			}
+			mMainHandler.post(() -> {
+				if(generation == mGeneration)
+				{
+					callback.onViewsCreated(weekRowViews, eventRowViews, headerViews);
+				}
+			});
+		});
+	}
+
+	/**
+	 * Cancel the warm-up in progress, its views will never be delivered.
+	 */
+	@MainThread
+	public void cancel()
+	{
+		mGeneration++;
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private static List<View> inflate(LayoutInflater inflater, @LayoutRes int layout, ViewGroup parent, int count)
+	{
+		List<View> views = new ArrayList<>(count);
+		for(int i = 0; i < count; i++)
+		{
+			views.add(inflater.inflate(layout, parent, false));
+		}
+		return views;
+	}
+
+	// endregion
+}
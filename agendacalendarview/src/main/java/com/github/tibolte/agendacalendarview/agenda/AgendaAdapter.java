@@ -1,18 +1,19 @@
 package com.github.tibolte.agendacalendarview.agenda;
 
+import com.github.tibolte.agendacalendarview.CalendarManager;
+import com.github.tibolte.agendacalendarview.CalendarSnapshot;
 import com.github.tibolte.agendacalendarview.models.CalendarEvent;
-import com.github.tibolte.agendacalendarview.render.DefaultEventRenderer;
 import com.github.tibolte.agendacalendarview.render.EventRenderer;
+import com.github.tibolte.agendacalendarview.render.EventRendererRegistry;
 
 import android.graphics.drawable.Drawable;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.BaseAdapter;
-import android.widget.LinearLayout;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,17 +21,28 @@ import se.emilsjolander.stickylistheaders.StickyListHeadersAdapter;
 
 /**
  * Adapter for the agenda, implements StickyListHeadersAdapter.
- * Days as sections and CalendarEvents as list items.
+ * Days as sections and CalendarEvents as list items, read from a CalendarSnapshot which is only
+ * replaced right before the list is notified, so the list never sees data it wasn't told about.
  */
 public class AgendaAdapter extends BaseAdapter implements StickyListHeadersAdapter
 {
 	
-	private final List<CalendarEvent>          mEvents    = new ArrayList<>();
-	private final List<EventRenderer<?>>       mRenderers = new ArrayList<>();
+	/**
+	 * View types reported to the list, which reads them only when the adapter is set. Renderers added
+	 * afterwards use the spare ones, so the adapter isn't set again and the list keeps its rows.
+	 */
+	public static final int VIEW_TYPE_CAPACITY = 8;
+	
+	private final EventRendererRegistry        mRenderers   = new EventRendererRegistry();
+	/**
+	 * Headers created ahead of time, used before inflating new ones
+	 */
+	private final ArrayDeque<AgendaHeaderView> mWarmHeaders = new ArrayDeque<>();
 	private final int                          mCurrentDayColor;
 	private final int                          mCurrentDayTextColor;
 	private final AgendaHeaderView.LayoutStyle mHeaderLayoutStyle;
 	private final Drawable                     mHeaderDecoration;
+	private       CalendarSnapshot             mSnapshot;
 	
 	// region Constructor
 	
@@ -47,18 +59,56 @@ public class AgendaAdapter extends BaseAdapter implements StickyListHeadersAdapt
 	// region Public methods
 	
 	/**
-	 * @param events The complete list of events including 'no event' events for empty days
+	 * @param events The complete list of events, days without events only take a row if it has a 'no event' event for them
 	 */
 	public void setEvents(List<CalendarEvent> events)
 	{
-		this.mEvents.clear();
-		this.mEvents.addAll(events);
+		CalendarManager.getInstance().setEvents(events);
+		setSnapshot(CalendarManager.getInstance().getSnapshot());
 		notifyDataSetChanged();
 	}
 	
+	/**
+	 * @return A copy of the events displayed by the adapter, with a placeholder instance per day without events.
+	 */
 	public List<CalendarEvent> getEvents()
 	{
-		return mEvents;
+		return mSnapshot == null ? new ArrayList<>() : mSnapshot.getEventList();
+	}
+	
+	/**
+	 * Display another snapshot, the caller must notify the list right after.
+	 *
+	 * @return False if the snapshot is older than the displayed one and was ignored.
+	 */
+	public boolean setSnapshot(@NonNull CalendarSnapshot snapshot)
+	{
+		if(mSnapshot != null && snapshot.getVersion() < mSnapshot.getVersion())
+		{
+			return false;
+		}
+		mSnapshot = snapshot;
+		return true;
+	}
+	
+	@Nullable
+	public CalendarSnapshot getSnapshot()
+	{
+		return mSnapshot;
+	}
+	
+	@NonNull
+	public EventRendererRegistry getRenderers()
+	{
+		return mRenderers;
+	}
+	
+	/**
+	 * Keep headers without parent, used before inflating new ones.
+	 */
+	public void addWarmHeaders(@NonNull List<AgendaHeaderView> headers)
+	{
+		mWarmHeaders.addAll(headers);
 	}
 	
 	// endregion
@@ -71,16 +121,17 @@ public class AgendaAdapter extends BaseAdapter implements StickyListHeadersAdapt
 		AgendaHeaderView agendaHeaderView = (AgendaHeaderView) convertView;
 		if(agendaHeaderView == null)
 		{
-			agendaHeaderView = AgendaHeaderView.inflate(parent);
+			agendaHeaderView = mWarmHeaders.isEmpty() ? AgendaHeaderView.inflate(parent) : mWarmHeaders.poll();
 		}
-		agendaHeaderView.setDay(getItem(position).getInstanceDay(), mCurrentDayTextColor, mCurrentDayColor, mHeaderLayoutStyle, mHeaderDecoration);
+		// Placeholder rows share one event without a date, the day comes from the index
+		agendaHeaderView.setDay(mSnapshot.getDayAt(position), mCurrentDayTextColor, mCurrentDayColor, mHeaderLayoutStyle, mHeaderDecoration);
 		return agendaHeaderView;
 	}
 	
 	@Override
 	public long getHeaderId(int position)
 	{
-		return mEvents.get(position).getInstanceDay().getTimeInMillis();
+		return mSnapshot.getDayAt(position);
 	}
 	
 	// endregion
@@ -90,13 +141,13 @@ public class AgendaAdapter extends BaseAdapter implements StickyListHeadersAdapt
 	@Override
 	public int getCount()
 	{
-		return mEvents.size();
+		return mSnapshot == null ? 0 : mSnapshot.getEventCount();
 	}
 	
 	@Override
 	public CalendarEvent getItem(int position)
 	{
-		return mEvents.get(position);
+		return mSnapshot.getEventAt(position);
 	}
 	
 	@Override
@@ -105,35 +156,38 @@ public class AgendaAdapter extends BaseAdapter implements StickyListHeadersAdapt
 		return position;
 	}
 	
+	@Override
+	public int getViewTypeCount()
+	{
+		return Math.max(mRenderers.getViewTypeCount(), VIEW_TYPE_CAPACITY);
+	}
+	
+	@Override
+	public int getItemViewType(int position)
+	{
+		return mRenderers.getViewType(getItem(position));
+	}
+	
 	@Override
 	public View getView(int position, View convertView, ViewGroup parent)
 	{
-		EventRenderer       eventRenderer = new DefaultEventRenderer();
-		final CalendarEvent event         = getItem(position);
-		
-		// Search for the correct event renderer
-		for(EventRenderer renderer : mRenderers)
+		// The list only gives back rows of the same view type, so of the same renderer
+		int viewType = getItemViewType(position);
+		if(convertView == null)
 		{
-			if(event.getClass().isAssignableFrom(renderer.getRenderType()))
-			{
-				eventRenderer = renderer;
-				break;
-			}
+			convertView = mRenderers.inflate(viewType, parent);
 		}
-		
-		if(convertView == null || ((int) convertView.getTag()) != eventRenderer.getEventLayout())
-		{
-			convertView = LayoutInflater.from(parent.getContext())
-					.inflate(eventRenderer.getEventLayout(), parent, false);
-			convertView.setTag(eventRenderer.getEventLayout());
-		}
-		eventRenderer.render(convertView, event);
+		mRenderers.render(viewType, convertView, getItem(position));
 		return convertView;
 	}
 	
-	public void addEventRenderer(@NonNull final EventRenderer<?> renderer)
+	/**
+	 * @return True if the renderers no longer fit in VIEW_TYPE_CAPACITY, the adapter must then be set again.
+	 */
+	public boolean addEventRenderer(@NonNull final EventRenderer<?> renderer)
 	{
 		mRenderers.add(renderer);
+		return mRenderers.getViewTypeCount() > VIEW_TYPE_CAPACITY;
 	}
 	
 	// endregion
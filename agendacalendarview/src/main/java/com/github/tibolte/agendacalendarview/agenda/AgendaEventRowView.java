@@ -0,0 +1,235 @@
+package com.github.tibolte.agendacalendarview.agenda;
+
+import com.github.tibolte.agendacalendarview.R;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.AttributeSet;
+import android.util.TypedValue;
+import android.view.View;
+
+/**
+ * Agenda row drawn as a single view: the color box of the event, its title and its location, if any,
+ * after a location icon. Same look as AgendaEventView, with one view to measure and lay out instead of
+ * a tree of layouts. Colors and dimensions are resolved once per row.
+ * <p>
+ * Titles can be laid out ahead of time with createTitleLayout(), see AgendaEventRowRenderer.
+ */
+public class AgendaEventRowView extends View {
+
+    /// sizes, in dp or sp as the layout of AgendaEventView
+    private static final int BOX_PADDING = 4;
+    private static final int LOCATION_MARGIN_TOP = 5;
+    private static final int LOCATION_MARGIN_LEFT = 5;
+    private static final int TITLE_TEXT_SIZE = 16;
+    private static final int LOCATION_TEXT_SIZE = 11;
+
+    private final TextPaint mTitlePaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final TextPaint mLocationPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mBoxPaint = new Paint();
+    private final Drawable mLocationIcon;
+
+    /// resolved once
+    private final int mBoxPadding;
+    private final int mLocationMarginTop;
+    private final int mLocationMarginLeft;
+    private final int mTitleColor;
+    private final int mPlaceholderTitleColor;
+
+    /// bound event
+    private CharSequence mTitle;
+    private CharSequence mLocation;
+    private StaticLayout mPreparedTitleLayout;
+
+    /// laid out for the current width
+    private StaticLayout mTitleLayout;
+    private CharSequence mLocationLine;
+
+    // region Constructors
+
+    public AgendaEventRowView(Context context) {
+        this(context, null);
+    }
+
+    public AgendaEventRowView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public AgendaEventRowView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        mBoxPadding = dpToPx(BOX_PADDING);
+        mLocationMarginTop = dpToPx(LOCATION_MARGIN_TOP);
+        mLocationMarginLeft = dpToPx(LOCATION_MARGIN_LEFT);
+        mTitleColor = getResources().getColor(R.color.theme_text_icons);
+        mPlaceholderTitleColor = getResources().getColor(android.R.color.darker_gray);
+
+        mTitlePaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, TITLE_TEXT_SIZE, getResources().getDisplayMetrics()));
+        mTitlePaint.setColor(mTitleColor);
+        mLocationPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, LOCATION_TEXT_SIZE, getResources().getDisplayMetrics()));
+        mLocationPaint.setColor(getResources().getColor(R.color.theme_text_icons));
+        mLocationIcon = getResources().getDrawable(R.drawable.img_location, null);
+    }
+
+    // endregion
+
+    // region Public methods
+
+    /**
+     * Show an event, placeholders are shown with a grey title.
+     *
+     * @param location The location of the event, nothing is shown below the title if it's empty.
+     */
+    public void setEvent(@Nullable CharSequence title, @Nullable CharSequence location, @ColorInt int color, boolean placeholder) {
+        setEvent(title, location, color, placeholder, null);
+    }
+
+    /**
+     * Show an event with its title laid out ahead of time.
+     *
+     * @param titleLayout The title laid out by createTitleLayout() with the paint of newTitlePaint(), used if
+     *                    laid out to the width of the row. Ignored for placeholders, their title is grey.
+     */
+    public void setEvent(@Nullable CharSequence title, @Nullable CharSequence location, @ColorInt int color, boolean placeholder, @Nullable StaticLayout titleLayout) {
+        mBoxPaint.setColor(color);
+        mTitlePaint.setColor(placeholder ? mPlaceholderTitleColor : mTitleColor);
+        if (placeholder || (titleLayout != null && !TextUtils.equals(titleLayout.getText(), title))) {
+            titleLayout = null;
+        }
+        if (!TextUtils.equals(title, mTitle) || !TextUtils.equals(location, mLocation)) {
+            mTitle = title;
+            mLocation = location;
+            mTitleLayout = null;
+            mLocationLine = null;
+            setContentDescription(TextUtils.isEmpty(location) ? title : TextUtils.concat(title != null ? title : "", "\n", location));
+            requestLayout();
+        } else if (titleLayout != mPreparedTitleLayout) {
+            // Same text, laid out again with the paint of its color
+            mTitleLayout = null;
+        }
+        mPreparedTitleLayout = titleLayout;
+        invalidate();
+    }
+
+    /**
+     * @return A copy of the paint of the titles of events, to lay them out with createTitleLayout().
+     */
+    @NonNull
+    public TextPaint newTitlePaint() {
+        TextPaint paint = new TextPaint(mTitlePaint);
+        paint.setColor(mTitleColor);
+        return paint;
+    }
+
+    public float getTitleTextSize() {
+        return mTitlePaint.getTextSize();
+    }
+
+    /**
+     * @return The width the title is laid out to, 0 until the row is measured.
+     */
+    public int getTitleWidth() {
+        return mTitleLayout != null ? mTitleLayout.getWidth() : 0;
+    }
+
+    /**
+     * Lay out a title as the rows do, from any thread.
+     */
+    @NonNull
+    public static StaticLayout createTitleLayout(@NonNull CharSequence title, @NonNull TextPaint paint, int width) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return StaticLayout.Builder.obtain(title, 0, title.length(), paint, width).setIncludePad(false).build();
+        }
+        return new StaticLayout(title, paint, width, Layout.Alignment.ALIGN_NORMAL, 1f, 0f, false);
+    }
+
+    // endregion
+
+    // region Class - View
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int width = getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec);
+        layoutTexts(width);
+
+        int height = getPaddingTop() + getPaddingBottom() + 2 * mBoxPadding + mTitleLayout.getHeight();
+        if (mLocationLine != null) {
+            height += mLocationMarginTop + getLocationLineHeight();
+        }
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        layoutTexts(getWidth());
+
+        int left = getPaddingLeft();
+        int top = getPaddingTop();
+        canvas.drawRect(left, top, getWidth() - getPaddingRight(), getHeight() - getPaddingBottom(), mBoxPaint);
+
+        left += mBoxPadding;
+        top += mBoxPadding;
+        canvas.save();
+        canvas.translate(left, top);
+        mTitleLayout.draw(canvas);
+        canvas.restore();
+
+        if (mLocationLine != null) {
+            // Icon and text centered on the same line, as in the location container
+            int lineTop = top + mTitleLayout.getHeight() + mLocationMarginTop;
+            int lineHeight = getLocationLineHeight();
+            int iconTop = lineTop + (lineHeight - mLocationIcon.getIntrinsicHeight()) / 2;
+            mLocationIcon.setBounds(left, iconTop, left + mLocationIcon.getIntrinsicWidth(), iconTop + mLocationIcon.getIntrinsicHeight());
+            mLocationIcon.draw(canvas);
+
+            float baseline = lineTop + lineHeight / 2f - (mLocationPaint.ascent() + mLocationPaint.descent()) / 2;
+            canvas.drawText(mLocationLine, 0, mLocationLine.length(), left + mLocationIcon.getIntrinsicWidth() + mLocationMarginLeft, baseline, mLocationPaint);
+        }
+    }
+
+    // endregion
+
+    // region Private methods
+
+    /**
+     * Lay out the title and the location for the given width of the row, unless they already are.
+     */
+    private void layoutTexts(int width) {
+        int textWidth = Math.max(width - getPaddingLeft() - getPaddingRight() - 2 * mBoxPadding, 0);
+        if (mTitleLayout != null && mTitleLayout.getWidth() == textWidth) {
+            return;
+        }
+        if (mPreparedTitleLayout != null && mPreparedTitleLayout.getWidth() == textWidth) {
+            mTitleLayout = mPreparedTitleLayout;
+        } else {
+            mTitleLayout = createTitleLayout(mTitle != null ? mTitle : "", mTitlePaint, textWidth);
+        }
+        if (TextUtils.isEmpty(mLocation)) {
+            mLocationLine = null;
+        } else {
+            int locationWidth = Math.max(textWidth - mLocationIcon.getIntrinsicWidth() - mLocationMarginLeft, 0);
+            mLocationLine = TextUtils.ellipsize(mLocation, mLocationPaint, locationWidth, TextUtils.TruncateAt.END);
+        }
+    }
+
+    private int getLocationLineHeight() {
+        Paint.FontMetricsInt metrics = mLocationPaint.getFontMetricsInt();
+        return Math.max(metrics.descent - metrics.ascent, mLocationIcon.getIntrinsicHeight());
+    }
+
+    private int dpToPx(int dp) {
+        return Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, getResources().getDisplayMetrics()));
+    }
+
+    // endregion
+}
@@ -2,7 +2,8 @@ package com.github.tibolte.agendacalendarview.agenda;
 
 import com.github.tibolte.agendacalendarview.CalendarManager;
 import com.github.tibolte.agendacalendarview.R;
-import com.github.tibolte.agendacalendarview.utils.DateHelper;
+import com.github.tibolte.agendacalendarview.utils.DateLabels;
+import com.github.tibolte.agendacalendarview.utils.EpochDays;
 
 import android.content.Context;
 import android.content.res.Resources;
@@ -16,7 +17,6 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 
 /**
@@ -53,9 +53,19 @@ public class AgendaHeaderView extends LinearLayout
 	
 	public void setDay(Calendar day, int currentDayTextColor, int currentDayColor, LayoutStyle style, Drawable wideDateDrawable)
 	{
-		View     compactLayout = findViewById(R.id.compact_layout);
-		View     wideLayout    = findViewById(R.id.wide_layout);
-		Calendar today         = CalendarManager.getInstance().getToday();
+		setDay(EpochDays.toEpochDay(day), currentDayTextColor, currentDayColor, style, wideDateDrawable);
+	}
+	
+	/**
+	 * @param epochDay The local epoch day of the header, labels come from the DateLabels of the current locale.
+	 */
+	public void setDay(int epochDay, int currentDayTextColor, int currentDayColor, LayoutStyle style, Drawable wideDateDrawable)
+	{
+		View            compactLayout   = findViewById(R.id.compact_layout);
+		View            wideLayout      = findViewById(R.id.wide_layout);
+		CalendarManager calendarManager = CalendarManager.getInstance();
+		DateLabels      labels          = DateLabels.getInstance(getContext(), calendarManager.getLocale());
+		boolean         isToday         = epochDay == calendarManager.getTodayEpochDay();
 		
 		switch(style)
 		{
@@ -68,11 +78,10 @@ public class AgendaHeaderView extends LinearLayout
 				TextView txtDayOfWeek  = findViewById(R.id.view_agenda_day_of_week);
 				View     circleView    = findViewById(R.id.view_day_circle_selected);
 				
-				SimpleDateFormat dayWeekFormatter = new SimpleDateFormat(getContext().getString(R.string.day_name_format), CalendarManager.getInstance().getLocale());
 				txtDayOfMonth.setTextColor(getResources().getColor(R.color.calendar_text_default));
 				txtDayOfWeek.setTextColor(getResources().getColor(R.color.calendar_text_default));
 				
-				if(DateHelper.sameDate(day, today))
+				if(isToday)
 				{
 					txtDayOfMonth.setTextColor(currentDayTextColor);
 					txtDayOfWeek.setTextColor(currentDayTextColor);
@@ -86,8 +95,8 @@ public class AgendaHeaderView extends LinearLayout
 					circleView.setVisibility(INVISIBLE);
 				}
 				
-				txtDayOfMonth.setText(String.valueOf(day.get(Calendar.DAY_OF_MONTH)));
-				txtDayOfWeek.setText(dayWeekFormatter.format(day.getTime()));
+				txtDayOfMonth.setText(labels.getDayOfMonth(epochDay));
+				txtDayOfWeek.setText(labels.getWeekdayName(epochDay));
 			}
 			break;
 			case wide:
@@ -95,17 +104,10 @@ public class AgendaHeaderView extends LinearLayout
 				compactLayout.setVisibility(GONE);
 				wideLayout.setVisibility(VISIBLE);
 				
-				SimpleDateFormat dayWeekFormatter = new SimpleDateFormat(getContext().getString(R.string.wide_date_name_format), CalendarManager.getInstance().getLocale());
-				
-				if(DateHelper.sameDate(day, today))
-				{
-					dayWeekFormatter = new SimpleDateFormat(getContext().getString(R.string.wide_today_date_name_format), CalendarManager.getInstance().getLocale());
-				}
-				
 				TextView  wideDate           = findViewById(R.id.wide_date);
 				ImageView wideDateDecoration = findViewById(R.id.wide_date_decoration);
 				
-				wideDate.setText(dayWeekFormatter.format(day.getTime()));
+				wideDate.setText(labels.getWideDate(epochDay, isToday));
 				wideDateDecoration.setImageDrawable(wideDateDrawable);
 			}
 		}
@@ -1,16 +1,20 @@
 package com.github.tibolte.agendacalendarview.agenda;
 
 import com.github.tibolte.agendacalendarview.CalendarManager;
+import com.github.tibolte.agendacalendarview.CalendarSnapshot;
 import com.github.tibolte.agendacalendarview.models.CalendarEvent;
 import com.github.tibolte.agendacalendarview.utils.DateHelper;
 
 import android.content.Context;
 import android.util.AttributeSet;
+import android.view.View;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
 
 import se.emilsjolander.stickylistheaders.StickyListHeadersListView;
+import se.emilsjolander.stickylistheaders.WrapperView;
 
 /**
  * StickyListHeadersListView to scroll chronologically through events.
@@ -37,10 +41,97 @@ public class AgendaListView extends StickyListHeadersListView {
 	
 	public void scrollToCurrentDate(Calendar today)
 	{
-		final int finalToIndex = CalendarManager.getInstance().getIndexForDay(today);
+		AgendaAdapter    adapter      = (AgendaAdapter) getAdapter();
+		CalendarSnapshot snapshot     = adapter != null && adapter.getSnapshot() != null ? adapter.getSnapshot() : CalendarManager.getInstance().getSnapshot();
+		final int        finalToIndex = snapshot.getPosition(DateHelper.toEpochDay(today));
 		post(()->setSelection(finalToIndex));
 	}
 	
+	/**
+	 * Display the latest snapshot of the CalendarManager.
+	 */
+	public void refresh()
+	{
+		AgendaAdapter adapter = (AgendaAdapter) getAdapter();
+		if(adapter != null && CalendarManager.getInstance() != null)
+		{
+			adapter.setSnapshot(CalendarManager.getInstance().getSnapshot());
+			adapter.notifyDataSetChanged();
+		}
+	}
+	
+	/**
+	 * Display the given snapshot, rebinding only the visible rows of the given days unless rows were inserted or removed.
+	 * In that case the first visible row is kept in place.
+	 *
+	 * @param snapshot         The snapshot holding the changes.
+	 * @param epochDays        The sorted local epoch days whose events changed.
+	 * @param structureChanged True if the number of rows changed.
+	 */
+	public void refreshDays(CalendarSnapshot snapshot, int[] epochDays, boolean structureChanged)
+	{
+		AgendaAdapter    adapter  = (AgendaAdapter) getAdapter();
+		CalendarSnapshot previous = adapter != null ? adapter.getSnapshot() : null;
+		// Snapshots displayed right away by AgendaAdapter.setEvents() are notified again
+		if(adapter == null || previous == snapshot || !adapter.setSnapshot(snapshot))
+		{
+			return;
+		}
+		if(previous == null)
+		{
+			adapter.notifyDataSetChanged();
+			return;
+		}
+		int firstPosition = getFirstVisiblePosition();
+		if(structureChanged)
+		{
+			View firstChild = getListChildAt(0);
+			if(firstChild == null || firstPosition >= previous.getEventCount())
+			{
+				adapter.notifyDataSetChanged();
+				return;
+			}
+			
+			// Keep the first visible row in place, rows may have been inserted or removed above it
+			int firstDay = previous.getDayAt(firstPosition);
+			int offset   = firstPosition - previous.getPosition(firstDay);
+			int top      = firstChild.getTop();
+			adapter.notifyDataSetChanged();
+			int position = Math.min(snapshot.getPosition(firstDay) + offset, snapshot.getEventCount() - 1);
+			if(snapshot.getDayAt(position) != firstDay)
+			{
+				position = snapshot.getPosition(firstDay);
+			}
+			if(position != firstPosition)
+			{
+				setSelectionFromTop(position, top);
+			}
+			return;
+		}
+		
+		for(int i = 0; i < getListChildCount(); i++)
+		{
+			int position = firstPosition + i;
+			if(position >= adapter.getCount() || Arrays.binarySearch(epochDays, snapshot.getDayAt(position)) < 0)
+			{
+				continue;
+			}
+			
+			// The row was bound to the previous snapshot, with the renderer of its event there
+			CalendarEvent boundEvent = position < previous.getEventCount() ? previous.getEventAt(position) : null;
+			if(boundEvent == null || adapter.getRenderers().getViewType(boundEvent) != adapter.getItemViewType(position))
+			{
+				// The row needs another layout, let the list recycle it
+				adapter.notifyDataSetChanged();
+				return;
+			}
+			
+			View child    = getListChildAt(i);
+			View itemView = child instanceof WrapperView ? ((WrapperView) child).getItem() : child;
+			adapter.getView(position, itemView, getWrappedList());
+		}
+	}
+	
 	public List<CalendarEvent> getEvents()
 	{
 		try
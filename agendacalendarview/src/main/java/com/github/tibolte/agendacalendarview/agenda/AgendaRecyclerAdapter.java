@@ -0,0 +1,210 @@
+package com.github.tibolte.agendacalendarview.agenda;
+
+import com.github.tibolte.agendacalendarview.CalendarManager;
+import com.github.tibolte.agendacalendarview.CalendarSnapshot;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.render.EventRenderer;
+import com.github.tibolte.agendacalendarview.render.EventRendererRegistry;
+
+import android.graphics.drawable.Drawable;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapter of the AgendaRecyclerView, the RecyclerView counterpart of AgendaAdapter.
+ * Each EventRenderer has its own view type, so rows are only recycled into rows of the same layout.
+ * Days are sections, their headers are drawn by a StickyHeaderDecoration.
+ */
+public class AgendaRecyclerAdapter extends RecyclerView.Adapter<AgendaRecyclerAdapter.EventViewHolder>
+{
+	
+	private final EventRendererRegistry        mRenderers   = new EventRendererRegistry();
+	/**
+	 * Headers created ahead of time, used before inflating new ones
+	 */
+	private final ArrayDeque<AgendaHeaderView> mWarmHeaders = new ArrayDeque<>();
+	private final int                          mCurrentDayColor;
+	private final int                          mCurrentDayTextColor;
+	private final AgendaHeaderView.LayoutStyle mHeaderLayoutStyle;
+	private final Drawable                     mHeaderDecoration;
+	private       CalendarSnapshot             mSnapshot;
+	private       OnEventClickListener         mOnEventClickListener;
+	
+	// region Interfaces
+	
+	public interface OnEventClickListener
+	{
+		void onEventClick(int position);
+	}
+	
+	// endregion
+	
+	// region Constructor
+	
+	public AgendaRecyclerAdapter(int currentDayTextColor, int currentDayColor, AgendaHeaderView.LayoutStyle style, @Nullable Drawable headerDecoration)
+	{
+		mCurrentDayTextColor = currentDayTextColor;
+		mCurrentDayColor = currentDayColor;
+		mHeaderLayoutStyle = style;
+		mHeaderDecoration = headerDecoration;
+	}
+	
+	// endregion
+	
+	// region Public methods
+	
+	/**
+	 * The rows are updated once the CalendarManager computed the changes, see AgendaRecyclerView.refreshDays().
+	 *
+	 * @param events The complete list of events, days without events only take a row if it has a 'no event' event for them
+	 */
+	public void setEvents(List<CalendarEvent> events)
+	{
+		CalendarManager.getInstance().setEvents(events);
+	}
+	
+	/**
+	 * @return A copy of the events displayed by the adapter, with a placeholder instance per day without events.
+	 */
+	public List<CalendarEvent> getEvents()
+	{
+		return mSnapshot == null ? new ArrayList<>() : mSnapshot.getEventList();
+	}
+	
+	/**
+	 * Display another snapshot, the caller must notify the adapter right after.
+	 *
+	 * @return False if the snapshot is older than the displayed one and was ignored.
+	 */
+	public boolean setSnapshot(@NonNull CalendarSnapshot snapshot)
+	{
+		if(mSnapshot != null && snapshot.getVersion() < mSnapshot.getVersion())
+		{
+			return false;
+		}
+		mSnapshot = snapshot;
+		return true;
+	}
+	
+	@Nullable
+	public CalendarSnapshot getSnapshot()
+	{
+		return mSnapshot;
+	}
+	
+	public CalendarEvent getItem(int position)
+	{
+		return mSnapshot.getEventAt(position);
+	}
+	
+	public void addEventRenderer(@NonNull final EventRenderer<?> renderer)
+	{
+		mRenderers.add(renderer);
+	}
+	
+	@NonNull
+	public EventRendererRegistry getRenderers()
+	{
+		return mRenderers;
+	}
+	
+	/**
+	 * Keep headers without parent, used by the StickyHeaderDecoration before inflating new ones.
+	 */
+	public void addWarmHeaders(@NonNull List<AgendaHeaderView> headers)
+	{
+		mWarmHeaders.addAll(headers);
+	}
+	
+	/**
+	 * @return A header to bind, one created ahead of time if any is left.
+	 */
+	@NonNull
+	public AgendaHeaderView createHeader(@NonNull ViewGroup parent)
+	{
+		return mWarmHeaders.isEmpty() ? AgendaHeaderView.inflate(parent) : mWarmHeaders.poll();
+	}
+	
+	public void setOnEventClickListener(@Nullable OnEventClickListener listener)
+	{
+		mOnEventClickListener = listener;
+	}
+	
+	/**
+	 * @return The local epoch day of the row, rows of the same day share a header.
+	 */
+	public long getHeaderId(int position)
+	{
+		return mSnapshot.getDayAt(position);
+	}
+	
+	public void bindHeader(@NonNull AgendaHeaderView header, int position)
+	{
+		// Placeholder rows share one event without a date, the day comes from the index
+		header.setDay(mSnapshot.getDayAt(position), mCurrentDayTextColor, mCurrentDayColor, mHeaderLayoutStyle, mHeaderDecoration);
+	}
+	
+	// endregion
+	
+	// region Class - RecyclerView.Adapter
+	
+	@Override
+	public int getItemCount()
+	{
+		return mSnapshot == null ? 0 : mSnapshot.getEventCount();
+	}
+	
+	@Override
+	public int getItemViewType(int position)
+	{
+		return mRenderers.getViewType(getItem(position));
+	}
+	
+	@NonNull
+	@Override
+	public EventViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType)
+	{
+		View            view   = mRenderers.inflate(viewType, parent);
+		EventViewHolder holder = new EventViewHolder(view, mRenderers.getRenderer(viewType));
+		view.setOnClickListener(v -> {
+			int position = holder.getAdapterPosition();
+			if(position != RecyclerView.NO_POSITION && mOnEventClickListener != null)
+			{
+				mOnEventClickListener.onEventClick(position);
+			}
+		});
+		return holder;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public void onBindViewHolder(@NonNull EventViewHolder holder, int position)
+	{
+		((EventRenderer<CalendarEvent>) holder.mRenderer).render(holder.itemView, getItem(position));
+	}
+	
+	// endregion
+	
+	// region Class - EventViewHolder
+	
+	public static class EventViewHolder extends RecyclerView.ViewHolder
+	{
+		
+		private final EventRenderer<?> mRenderer;
+		
+		EventViewHolder(View itemView, EventRenderer<?> renderer)
+		{
+			super(itemView);
+			mRenderer = renderer;
+		}
+	}
+	
+	// endregion
+}
@@ -0,0 +1,337 @@
+package com.github.tibolte.agendacalendarview.agenda;
+
+import com.github.tibolte.agendacalendarview.CalendarManager;
+import com.github.tibolte.agendacalendarview.CalendarSnapshot;
+import com.github.tibolte.agendacalendarview.R;
+import com.github.tibolte.agendacalendarview.SnapshotDiff;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.utils.DateHelper;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v7.widget.DividerItemDecoration;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * RecyclerView to scroll chronologically through events, the RecyclerView counterpart of AgendaListView.
+ * Rows are prefetched by the GapWorker between frames and changed days are rebound without relayout of the list.
+ * Day headers are drawn by a StickyHeaderDecoration set up with the adapter.
+ */
+public class AgendaRecyclerView extends RecyclerView
+{
+	
+	/**
+	 * Rows kept bound off screen, enough for the rows of a day scrolled back into view
+	 */
+	private static final int ITEM_VIEW_CACHE_SIZE = 8;
+	
+	private final LinearLayoutManager           mLayoutManager;
+	private       StickyHeaderDecoration        mHeaderDecoration;
+	private       OnStickyHeaderChangedListener mOnStickyHeaderChangedListener;
+	private       OnHeaderClickListener         mOnHeaderClickListener;
+	/**
+	 * Header id of the first visible row when the listener was last called
+	 */
+	private       long                          mStickyHeaderId = NO_ID;
+	
+	// region Interfaces
+	
+	public interface OnStickyHeaderChangedListener
+	{
+		/**
+		 * @param position The first visible row, of the day now pinned at the top.
+		 * @param headerId The local epoch day of that row.
+		 */
+		void onStickyHeaderChanged(AgendaRecyclerView view, int position, long headerId);
+	}
+	
+	public interface OnHeaderClickListener
+	{
+		/**
+		 * @param position The first row of the day whose header was clicked.
+		 */
+		void onHeaderClick(AgendaRecyclerView view, int position, long headerId);
+	}
+	
+	// endregion
+	
+	// region Constructors
+	
+	public AgendaRecyclerView(Context context)
+	{
+		this(context, null);
+	}
+	
+	public AgendaRecyclerView(Context context, AttributeSet attrs)
+	{
+		this(context, attrs, 0);
+	}
+	
+	public AgendaRecyclerView(Context context, AttributeSet attrs, int defStyleAttr)
+	{
+		super(context, attrs, defStyleAttr);
+		
+		mLayoutManager = new LinearLayoutManager(context);
+		mLayoutManager.setItemPrefetchEnabled(true);
+		setLayoutManager(mLayoutManager);
+		setItemViewCacheSize(ITEM_VIEW_CACHE_SIZE);
+		
+		DividerItemDecoration divider = new DividerItemDecoration(context, DividerItemDecoration.VERTICAL);
+		divider.setDrawable(getResources().getDrawable(R.drawable.agenda_divider, null));
+		addItemDecoration(divider);
+		
+		addOnScrollListener(new OnScrollListener()
+		{
+			@Override
+			public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy)
+			{
+				notifyStickyHeaderChanged();
+			}
+		});
+		
+		GestureDetector gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener()
+		{
+			@Override
+			public boolean onSingleTapUp(MotionEvent e)
+			{
+				return performHeaderClick(e.getX(), e.getY());
+			}
+		});
+		addOnItemTouchListener(new SimpleOnItemTouchListener()
+		{
+			@Override
+			public boolean onInterceptTouchEvent(@NonNull RecyclerView view, @NonNull MotionEvent e)
+			{
+				// Rows under a clicked header are cancelled
+				return gestureDetector.onTouchEvent(e);
+			}
+		});
+	}
+	
+	// endregion
+	
+	// region Class - RecyclerView
+	
+	@Override
+	public void setAdapter(@Nullable Adapter adapter)
+	{
+		if(mHeaderDecoration != null)
+		{
+			removeItemDecoration(mHeaderDecoration);
+			mHeaderDecoration = null;
+		}
+		super.setAdapter(adapter);
+		if(adapter instanceof AgendaRecyclerAdapter)
+		{
+			mHeaderDecoration = new StickyHeaderDecoration((AgendaRecyclerAdapter) adapter);
+			addItemDecoration(mHeaderDecoration);
+		}
+		mStickyHeaderId = NO_ID;
+	}
+	
+	@Override
+	public AgendaRecyclerAdapter getAdapter()
+	{
+		return (AgendaRecyclerAdapter) super.getAdapter();
+	}
+	
+	// endregion
+	
+	// region Public methods
+	
+	public void setOnStickyHeaderChangedListener(@Nullable OnStickyHeaderChangedListener listener)
+	{
+		mOnStickyHeaderChangedListener = listener;
+	}
+	
+	public void setOnHeaderClickListener(@Nullable OnHeaderClickListener listener)
+	{
+		mOnHeaderClickListener = listener;
+	}
+	
+	public int getFirstVisiblePosition()
+	{
+		return mLayoutManager.findFirstVisibleItemPosition();
+	}
+	
+	public int getLastVisiblePosition()
+	{
+		return mLayoutManager.findLastVisibleItemPosition();
+	}
+	
+	public void scrollToCurrentDate(Calendar today)
+	{
+		AgendaRecyclerAdapter adapter      = getAdapter();
+		CalendarSnapshot      snapshot     = adapter != null && adapter.getSnapshot() != null ? adapter.getSnapshot() : CalendarManager.getInstance().getSnapshot();
+		final int             finalToIndex = snapshot.getPosition(DateHelper.toEpochDay(today));
+		post(() -> mLayoutManager.scrollToPositionWithOffset(finalToIndex, 0));
+	}
+	
+	/**
+	 * Display the latest snapshot of the CalendarManager.
+	 */
+	public void refresh()
+	{
+		AgendaRecyclerAdapter adapter = getAdapter();
+		if(adapter != null && CalendarManager.getInstance() != null)
+		{
+			adapter.setSnapshot(CalendarManager.getInstance().getSnapshot());
+			notifyDataSetChanged();
+		}
+	}
+	
+	/**
+	 * Rebind every row and header, e.g. when the current day changed.
+	 */
+	public void notifyDataSetChanged()
+	{
+		AgendaRecyclerAdapter adapter = getAdapter();
+		if(adapter != null)
+		{
+			if(mHeaderDecoration != null)
+			{
+				mHeaderDecoration.invalidateHeaders();
+			}
+			adapter.notifyDataSetChanged();
+		}
+	}
+	
+	/**
+	 * Apply changes computed by the CalendarManager. Rows inserted, removed or moved are animated when the
+	 * adapter displays the snapshot the changes were computed from, otherwise the changed days are refreshed.
+	 */
+	public void refreshDays(@NonNull SnapshotDiff diff)
+	{
+		AgendaRecyclerAdapter adapter = getAdapter();
+		if(adapter != null && diff.hasRowDiff() && adapter.getSnapshot() == diff.getPrevious())
+		{
+			adapter.setSnapshot(diff.getSnapshot());
+			if(mHeaderDecoration != null)
+			{
+				mHeaderDecoration.invalidateHeaders();
+			}
+			diff.dispatchUpdatesTo(adapter);
+			return;
+		}
+		refreshDays(diff.getSnapshot(), diff.getEpochDays(), diff.isStructureChanged());
+	}
+	
+	/**
+	 * Display the given snapshot, rebinding only the rows of the given days unless rows were inserted or removed.
+	 * In that case the first visible row is kept in place.
+	 *
+	 * @param snapshot         The snapshot holding the changes.
+	 * @param epochDays        The sorted local epoch days whose events changed.
+	 * @param structureChanged True if the number of rows changed.
+	 */
+	public void refreshDays(CalendarSnapshot snapshot, int[] epochDays, boolean structureChanged)
+	{
+		AgendaRecyclerAdapter adapter  = getAdapter();
+		CalendarSnapshot      previous = adapter != null ? adapter.getSnapshot() : null;
+		if(adapter == null || previous == snapshot || !adapter.setSnapshot(snapshot))
+		{
+			return;
+		}
+		if(structureChanged || previous == null)
+		{
+			int  firstPosition = mLayoutManager.findFirstVisibleItemPosition();
+			View firstChild    = firstPosition != NO_POSITION ? mLayoutManager.findViewByPosition(firstPosition) : null;
+			if(previous == null || firstChild == null || firstPosition >= previous.getEventCount())
+			{
+				notifyDataSetChanged();
+				return;
+			}
+			
+			// Keep the first visible row in place, rows may have been inserted or removed above it
+			int firstDay = previous.getDayAt(firstPosition);
+			int offset   = firstPosition - previous.getPosition(firstDay);
+			int top      = mLayoutManager.getDecoratedTop(firstChild) - getPaddingTop();
+			notifyDataSetChanged();
+			int position = Math.min(snapshot.getPosition(firstDay) + offset, snapshot.getEventCount() - 1);
+			if(snapshot.getDayAt(position) != firstDay)
+			{
+				position = snapshot.getPosition(firstDay);
+			}
+			mLayoutManager.scrollToPositionWithOffset(position, top);
+			return;
+		}
+		
+		int count = adapter.getItemCount();
+		for(int epochDay : epochDays)
+		{
+			int first = snapshot.getPosition(epochDay);
+			int last  = first;
+			while(last + 1 < count && snapshot.getDayAt(last + 1) == epochDay)
+			{
+				last++;
+			}
+			if(first >= 0 && first < count)
+			{
+				adapter.notifyItemRangeChanged(first, last - first + 1);
+			}
+		}
+	}
+	
+	public List<CalendarEvent> getEvents()
+	{
+		try
+		{
+			return getAdapter().getEvents();
+		}
+		catch(Throwable tr)
+		{
+			return null;
+		}
+	}
+	
+	// endregion
+	
+	// region Private methods
+	
+	private void notifyStickyHeaderChanged()
+	{
+		AgendaRecyclerAdapter adapter  = getAdapter();
+		int                   position = mLayoutManager.findFirstVisibleItemPosition();
+		if(adapter == null || position == NO_POSITION || position >= adapter.getItemCount())
+		{
+			return;
+		}
+		long headerId = adapter.getHeaderId(position);
+		if(headerId != mStickyHeaderId)
+		{
+			mStickyHeaderId = headerId;
+			if(mOnStickyHeaderChangedListener != null)
+			{
+				mOnStickyHeaderChangedListener.onStickyHeaderChanged(this, position, headerId);
+			}
+		}
+	}
+	
+	private boolean performHeaderClick(float x, float y)
+	{
+		if(mHeaderDecoration == null || mOnHeaderClickListener == null)
+		{
+			return false;
+		}
+		int position = mHeaderDecoration.findHeaderPositionUnder(this, x, y);
+		if(position == NO_POSITION)
+		{
+			return false;
+		}
+		playSoundEffect(SoundEffectConstants.CLICK);
+		mOnHeaderClickListener.onHeaderClick(this, position, getAdapter().getHeaderId(position));
+		return true;
+	}
+	
+	// endregion
+}
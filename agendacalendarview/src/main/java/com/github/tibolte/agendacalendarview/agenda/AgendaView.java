@@ -17,13 +17,16 @@ import com.github.tibolte.agendacalendarview.models.CalendarEvent;
 import com.github.tibolte.agendacalendarview.utils.BusProvider;
 import com.github.tibolte.agendacalendarview.utils.Events;
 
+import java.util.Calendar;
 import java.util.List;
 
 public class AgendaView extends FrameLayout {
 
     private AgendaListView mAgendaListView;
+    private AgendaRecyclerView mAgendaRecyclerView;
     private View mShadowView;
     private boolean enablePlaceholder;
+    private boolean mRecyclerEnabled;
 
     // region Constructors
 
@@ -48,18 +51,19 @@ public class AgendaView extends FrameLayout {
         super.onFinishInflate();
 
         mAgendaListView = findViewById(R.id.agenda_listview);
+        mAgendaRecyclerView = findViewById(R.id.agenda_recyclerview);
         mShadowView = findViewById(R.id.view_shadow);
 
         BusProvider.getInstance().toObserverable()
                 .subscribe(event -> {
                     if (event instanceof Events.DayClickedEvent) {
                         Events.DayClickedEvent clickedEvent = (Events.DayClickedEvent) event;
-                        getAgendaListView().scrollToCurrentDate(clickedEvent.getCalendar());
+                        scrollToCurrentDate(clickedEvent.getCalendar());
                     } else if (event instanceof Events.CalendarScrolledEvent) {
 //                        int offset = (int) (3 * getResources().getDimension(R.dimen.day_cell_height));
                         translateList(1);
                     } else if (event instanceof Events.EventsFetched) {
-                        ((AgendaAdapter) getAgendaListView().getAdapter()).setEvents(CalendarManager.getInstance().getEventList());
+                        refresh();
 
                         getViewTreeObserver().addOnGlobalLayoutListener(
                                 new ViewTreeObserver.OnGlobalLayoutListener() {
@@ -76,7 +80,7 @@ public class AgendaView extends FrameLayout {
                                                 setLayoutParams(layoutParams);
                                             }
 
-                                            getAgendaListView().scrollToCurrentDate(CalendarManager.getInstance().getToday());
+                                            scrollToCurrentDate(CalendarManager.getInstance().getToday());
 
                                             getViewTreeObserver().removeGlobalOnLayoutListener(this);
                                         }
@@ -85,7 +89,14 @@ public class AgendaView extends FrameLayout {
 
                         );
                     } else if (event instanceof Events.ForecastFetched) {
-                        ((AgendaAdapter) getAgendaListView().getAdapter()).setEvents(CalendarManager.getInstance().getEventList());
+                        notifyDataSetChanged();
+                    } else if (event instanceof Events.EventsChanged) {
+                        Events.EventsChanged changedEvent = (Events.EventsChanged) event;
+                        if (mRecyclerEnabled) {
+                            getAgendaRecyclerView().refreshDays(changedEvent.getDiff());
+                        } else {
+                            getAgendaListView().refreshDays(changedEvent.getSnapshot(), changedEvent.getEpochDays(), changedEvent.isStructureChanged());
+                        }
                     }
                 });
     }
@@ -114,6 +125,50 @@ public class AgendaView extends FrameLayout {
         return mAgendaListView;
     }
 
+    public AgendaRecyclerView getAgendaRecyclerView() {
+        return mAgendaRecyclerView;
+    }
+
+    /**
+     * Show the events in the AgendaRecyclerView instead of the AgendaListView. Set before the adapter.
+     */
+    public void setRecyclerEnabled(boolean enabled) {
+        mRecyclerEnabled = enabled;
+        mAgendaListView.setVisibility(enabled ? GONE : VISIBLE);
+        mAgendaRecyclerView.setVisibility(enabled ? VISIBLE : GONE);
+    }
+
+    public boolean isRecyclerEnabled() {
+        return mRecyclerEnabled;
+    }
+
+    public void scrollToCurrentDate(Calendar today) {
+        if (mRecyclerEnabled) {
+            getAgendaRecyclerView().scrollToCurrentDate(today);
+        } else {
+            getAgendaListView().scrollToCurrentDate(today);
+        }
+    }
+
+    /**
+     * Display the latest snapshot of the CalendarManager.
+     */
+    public void refresh() {
+        if (mRecyclerEnabled) {
+            getAgendaRecyclerView().refresh();
+        } else {
+            getAgendaListView().refresh();
+        }
+    }
+
+    public void notifyDataSetChanged() {
+        if (mRecyclerEnabled) {
+            getAgendaRecyclerView().notifyDataSetChanged();
+        } else if (getAgendaListView().getAdapter() != null) {
+            ((AgendaAdapter) getAgendaListView().getAdapter()).notifyDataSetChanged();
+        }
+    }
+
     public void translateList(int targetY) {
         if (targetY != getTranslationY()) {
             ObjectAnimator mover = ObjectAnimator.ofFloat(this, "translationY", targetY);
@@ -152,7 +207,7 @@ public class AgendaView extends FrameLayout {
     
     public List<CalendarEvent> getEvents()
     {
-        return getAgendaListView().getEvents();
+        return mRecyclerEnabled ? getAgendaRecyclerView().getEvents() : getAgendaListView().getEvents();
     }
     // endregion
 }
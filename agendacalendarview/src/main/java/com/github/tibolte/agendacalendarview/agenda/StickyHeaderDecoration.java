@@ -0,0 +1,237 @@
+package com.github.tibolte.agendacalendarview.agenda;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.util.LruCache;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayDeque;
+
+/**
+ * Draws the day headers of an AgendaRecyclerAdapter above the first row of each day, and keeps the
+ * header of the first visible day pinned at the top of the list until the next one pushes it away.
+ * <p>
+ * Headers aren't children of the list. Each one is bound and measured once when its day scrolls
+ * into view, then kept while it's drawn, instead of being measured again on every section change.
+ */
+public class StickyHeaderDecoration extends RecyclerView.ItemDecoration
+{
+	
+	/**
+	 * Number of headers kept bound and measured, more than the days visible at once
+	 */
+	private static final int HEADER_CACHE_SIZE = 16;
+	
+	private final AgendaRecyclerAdapter            mAdapter;
+	private final ArrayDeque<AgendaHeaderView>     mRecycledHeaders = new ArrayDeque<>();
+	private final LruCache<Long, AgendaHeaderView> mHeaders         = new LruCache<Long, AgendaHeaderView>(HEADER_CACHE_SIZE)
+	{
+		@Override
+		protected void entryRemoved(boolean evicted, Long key, AgendaHeaderView oldValue, AgendaHeaderView newValue)
+		{
+			mRecycledHeaders.push(oldValue);
+		}
+	};
+	/**
+	 * Width the cached headers were measured with
+	 */
+	private       int                              mHeaderWidth;
+	
+	// region Constructor
+	
+	public StickyHeaderDecoration(@NonNull AgendaRecyclerAdapter adapter)
+	{
+		mAdapter = adapter;
+	}
+	
+	// endregion
+	
+	// region Public methods
+	
+	/**
+	 * Bind the headers again when they are next drawn, e.g. when the current day or the days changed.
+	 */
+	public void invalidateHeaders()
+	{
+		mHeaders.evictAll();
+	}
+	
+	/**
+	 * @return The position of the first row of the day whose header is drawn at the given point, or
+	 * RecyclerView.NO_POSITION if there is none.
+	 */
+	public int findHeaderPositionUnder(@NonNull RecyclerView parent, float x, float y)
+	{
+		if(x < parent.getPaddingLeft() || x > parent.getWidth() - parent.getPaddingRight())
+		{
+			return RecyclerView.NO_POSITION;
+		}
+		
+		// The sticky header is drawn over the others
+		View firstChild = getFirstChild(parent);
+		if(firstChild != null)
+		{
+			int position = parent.getChildAdapterPosition(firstChild);
+			int top      = getStickyHeaderTop(parent, firstChild, position);
+			if(y >= top && y < top + getHeader(parent, position).getHeight())
+			{
+				return position;
+			}
+		}
+		for(int i = 0; i < parent.getChildCount(); i++)
+		{
+			View child    = parent.getChildAt(i);
+			int  position = parent.getChildAdapterPosition(child);
+			if(position == RecyclerView.NO_POSITION || !isSectionStart(position))
+			{
+				continue;
+			}
+			float bottom = child.getTop() + child.getTranslationY();
+			if(y >= bottom - getHeader(parent, position).getHeight() && y < bottom)
+			{
+				return position;
+			}
+		}
+		return RecyclerView.NO_POSITION;
+	}
+	
+	// endregion
+	
+	// region Class - RecyclerView.ItemDecoration
+	
+	@Override
+	public void getItemOffsets(@NonNull Rect outRect, @NonNull View view, @NonNull RecyclerView parent, @NonNull RecyclerView.State state)
+	{
+		int position = parent.getChildAdapterPosition(view);
+		if(position != RecyclerView.NO_POSITION && isSectionStart(position))
+		{
+			outRect.set(0, getHeader(parent, position).getHeight(), 0, 0);
+		}
+		else
+		{
+			outRect.setEmpty();
+		}
+	}
+	
+	@Override
+	public void onDrawOver(@NonNull Canvas canvas, @NonNull RecyclerView parent, @NonNull RecyclerView.State state)
+	{
+		View firstChild = getFirstChild(parent);
+		if(firstChild == null)
+		{
+			return;
+		}
+		int  stickyPosition = parent.getChildAdapterPosition(firstChild);
+		long stickyId       = mAdapter.getHeaderId(stickyPosition);
+		
+		// Headers of the following days, above their first row
+		for(int i = 0; i < parent.getChildCount(); i++)
+		{
+			View child    = parent.getChildAt(i);
+			int  position = parent.getChildAdapterPosition(child);
+			if(position == RecyclerView.NO_POSITION || !isSectionStart(position) || mAdapter.getHeaderId(position) == stickyId)
+			{
+				continue;
+			}
+			View header = getHeader(parent, position);
+			drawHeader(canvas, parent, header, child.getTop() + child.getTranslationY() - header.getHeight());
+		}
+		
+		drawHeader(canvas, parent, getHeader(parent, stickyPosition), getStickyHeaderTop(parent, firstChild, stickyPosition));
+	}
+	
+	// endregion
+	
+	// region Private methods
+	
+	private boolean isSectionStart(int position)
+	{
+		return position == 0 || mAdapter.getHeaderId(position) != mAdapter.getHeaderId(position - 1);
+	}
+	
+	/**
+	 * @return The first child bound to a position, null if there is none.
+	 */
+	private View getFirstChild(RecyclerView parent)
+	{
+		for(int i = 0; i < parent.getChildCount(); i++)
+		{
+			View child = parent.getChildAt(i);
+			if(parent.getChildAdapterPosition(child) != RecyclerView.NO_POSITION)
+			{
+				return child;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @return The top of the header of the first visible day, pushed up by the header of the next day.
+	 */
+	private int getStickyHeaderTop(RecyclerView parent, View firstChild, int stickyPosition)
+	{
+		View header = getHeader(parent, stickyPosition);
+		int  top    = parent.getPaddingTop();
+		if(isSectionStart(stickyPosition))
+		{
+			top = Math.max(top, (int) (firstChild.getTop() + firstChild.getTranslationY()) - header.getHeight());
+		}
+		
+		long stickyId = mAdapter.getHeaderId(stickyPosition);
+		for(int i = 1; i < parent.getChildCount(); i++)
+		{
+			View child    = parent.getChildAt(i);
+			int  position = parent.getChildAdapterPosition(child);
+			if(position == RecyclerView.NO_POSITION || mAdapter.getHeaderId(position) == stickyId)
+			{
+				continue;
+			}
+			int nextHeaderTop = (int) (child.getTop() + child.getTranslationY()) - getHeader(parent, position).getHeight();
+			return Math.min(top, nextHeaderTop - header.getHeight());
+		}
+		return top;
+	}
+	
+	private void drawHeader(Canvas canvas, RecyclerView parent, View header, float top)
+	{
+		canvas.save();
+		canvas.translate(parent.getPaddingLeft(), top);
+		header.draw(canvas);
+		canvas.restore();
+	}
+	
+	/**
+	 * @return The bound and laid out header of the day of the given row.
+	 */
+	private AgendaHeaderView getHeader(RecyclerView parent, int position)
+	{
+		int width = parent.getWidth() - parent.getPaddingLeft() - parent.getPaddingRight();
+		if(width != mHeaderWidth)
+		{
+			mHeaders.evictAll();
+			mHeaderWidth = width;
+		}
+		
+		long             headerId = mAdapter.getHeaderId(position);
+		AgendaHeaderView header   = mHeaders.get(headerId);
+		if(header == null)
+		{
+			header = mRecycledHeaders.isEmpty() ? mAdapter.createHeader(parent) : mRecycledHeaders.pop();
+			mAdapter.bindHeader(header, position);
+			
+			ViewGroup.LayoutParams params     = header.getLayoutParams();
+			int                    widthSpec  = View.MeasureSpec.makeMeasureSpec(Math.max(width, 0), View.MeasureSpec.EXACTLY);
+			int                    heightSpec = ViewGroup.getChildMeasureSpec(View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED), 0, params != null ? params.height :
+					ViewGroup.LayoutParams.WRAP_CONTENT);
+			header.measure(widthSpec, heightSpec);
+			header.layout(0, 0, header.getMeasuredWidth(), header.getMeasuredHeight());
+			mHeaders.put(headerId, header);
+		}
+		return header;
+	}
+	
+	// endregion
+}
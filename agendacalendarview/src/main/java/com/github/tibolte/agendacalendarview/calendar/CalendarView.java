@@ -8,13 +8,15 @@ import com.github.tibolte.agendacalendarview.calendar.weekslist.WeeksAdapter;
 import com.github.tibolte.agendacalendarview.models.CalendarEvent;
 import com.github.tibolte.agendacalendarview.models.IDayItem;
 import com.github.tibolte.agendacalendarview.models.IWeekItem;
+import com.github.tibolte.agendacalendarview.models.VirtualWeekList;
 import com.github.tibolte.agendacalendarview.utils.BusProvider;
-import com.github.tibolte.agendacalendarview.utils.DateHelper;
+import com.github.tibolte.agendacalendarview.utils.EpochDays;
 import com.github.tibolte.agendacalendarview.utils.Events;
 
 import android.content.Context;
 import android.support.annotation.NonNull;
 import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -143,7 +145,11 @@ public class CalendarView extends LinearLayout
 					else if(event instanceof Events.DayClickedEvent)
 					{
 						Events.DayClickedEvent clickedEvent = (Events.DayClickedEvent) event;
-						updateSelectedDay(clickedEvent.getCalendar(), clickedEvent.getDay());
+						updateSelectedDay(clickedEvent.getDay());
+					}
+					else if(event instanceof Events.EventsChanged)
+					{
+						updateEventIndicators(((Events.EventsChanged) event).getIndicatorDays());
 					}
 				});
 	}
@@ -171,26 +177,19 @@ public class CalendarView extends LinearLayout
 	 */
 	public void scrollToDate(final CalendarEvent calendarEvent)
 	{
-		mListViewWeeks.post(() -> scrollToPosition(updateSelectedDay(calendarEvent.getInstanceDay(), calendarEvent.getDayReference())));
+		mListViewWeeks.post(() -> {
+			Calendar instanceDay = calendarEvent.getInstanceDay();
+			IDayItem dayItem     = instanceDay != null ? CalendarManager.getInstance().getDayItem(EpochDays.toEpochDay(instanceDay)) : null;
+			scrollToPosition(updateSelectedDay(dayItem));
+		});
 	}
 	
 	public void scrollToDate(Calendar today, List<IWeekItem> weeks)
 	{
-		Integer currentWeekIndex = null;
-		
-		for(int c = 0; c < weeks.size(); c++)
+		final int currentWeekIndex = CalendarManager.getInstance().getWeekIndex(EpochDays.toEpochDay(today));
+		if(currentWeekIndex >= 0 && currentWeekIndex < weeks.size())
 		{
-			if(DateHelper.sameWeek(today, weeks.get(c)))
-			{
-				currentWeekIndex = c;
-				break;
-			}
-		}
-		
-		if(currentWeekIndex != null)
-		{
-			final Integer finalCurrentWeekIndex = currentWeekIndex;
-			mListViewWeeks.post(() -> scrollToPosition(finalCurrentWeekIndex));
+			mListViewWeeks.post(() -> scrollToPosition(currentWeekIndex));
 		}
 	}
 	
@@ -214,10 +213,41 @@ public class CalendarView extends LinearLayout
 		layoutManager.scrollToPosition(targetPosition);
 	}
 	
+	/**
+	 * Move the selection circle of the week at the given position, without binding the whole week.
+	 */
 	private void updateItemAtPosition(int position)
 	{
 		WeeksAdapter weeksAdapter = (WeeksAdapter) mListViewWeeks.getAdapter();
-		weeksAdapter.notifyItemChanged(position);
+		if(position >= 0 && position < weeksAdapter.getItemCount())
+		{
+			weeksAdapter.notifyItemChanged(position, WeeksAdapter.Payload.SELECTION);
+		}
+	}
+	
+	/**
+	 * Refresh the event indicators of the weeks holding the given days.
+	 *
+	 * @param epochDays The sorted local epoch days whose events changed.
+	 */
+	private void updateEventIndicators(int[] epochDays)
+	{
+		if(mWeeksAdapter == null)
+		{
+			return;
+		}
+		
+		int lastWeekIndex = -1;
+		for(int epochDay : epochDays)
+		{
+			int weekIndex = CalendarManager.getInstance().getWeekIndex(epochDay);
+			// days are sorted, so a week only has to be compared to the previous one
+			if(weekIndex != lastWeekIndex && weekIndex >= 0 && weekIndex < mWeeksAdapter.getItemCount())
+			{
+				mWeeksAdapter.notifyItemChanged(weekIndex, WeeksAdapter.Payload.INDICATORS);
+			}
+			lastWeekIndex = weekIndex;
+		}
 	}
 	
 	/**
@@ -229,6 +259,18 @@ public class CalendarView extends LinearLayout
 		{
 			Log.d(LOG_TAG, "Setting adapter with today's calendar: " + today.toString());
 			mWeeksAdapter = new WeeksAdapter(getContext(), today, dayTextColor, currentDayTextColor, currentDayCircleColor, pastDayTextColor);
+			mWeeksAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver()
+			{
+				@Override
+				public void onItemRangeInserted(int positionStart, int itemCount)
+				{
+					// Weeks added at the start of a VirtualWeekList shift the current row
+					if(positionStart <= mCurrentListPosition)
+					{
+						mCurrentListPosition += itemCount;
+					}
+				}
+			});
 			mListViewWeeks.setAdapter(mWeeksAdapter);
 		}
 		mWeeksAdapter.updateWeeksItems(weeks);
@@ -297,13 +339,12 @@ public class CalendarView extends LinearLayout
 	/**
 	 * Update a selected cell day item.
 	 *
-	 * @param calendar The Calendar instance of the day selected.
-	 * @param dayItem  The DayItem information held by the cell item.
+	 * @param dayItem The DayItem information held by the cell item, compared by epoch day.
 	 * @return The selected row of the weeks list, to be updated.
 	 */
-	private int updateSelectedDay(Calendar calendar, IDayItem dayItem)
+	private int updateSelectedDay(IDayItem dayItem)
 	{
-		if(calendar == null || dayItem == null)
+		if(dayItem == null)
 		{
 			return mCurrentListPosition;
 		}
@@ -312,6 +353,15 @@ public class CalendarView extends LinearLayout
 		// update highlighted/selected day
 		if(!dayItem.equals(getSelectedDay()))
 		{
+			// The previous selection may be in a week other than the current row
+			if(getSelectedDay() != null)
+			{
+				int previousWeekIndex = CalendarManager.getInstance().getWeekIndex(getSelectedDay().getEpochDay());
+				if(previousWeekIndex != mCurrentListPosition)
+				{
+					updateItemAtPosition(previousWeekIndex);
+				}
+			}
 			dayItem.setSelected(true);
 			if(getSelectedDay() != null)
 			{
@@ -320,13 +370,18 @@ public class CalendarView extends LinearLayout
 			setSelectedDay(dayItem);
 		}
 		
-		for(int c = 0; c < CalendarManager.getInstance().getWeeks().size(); c++)
+		List<IWeekItem> weeks    = CalendarManager.getInstance().getWeeks();
+		int             epochDay = dayItem.getEpochDay();
+		if(weeks instanceof VirtualWeekList)
 		{
-			if(DateHelper.sameWeek(calendar, CalendarManager.getInstance().getWeeks().get(c)))
-			{
-				currentWeekIndex = c;
-				break;
-			}
+			// The list keeps the selection for the weeks it creates later on
+			((VirtualWeekList) weeks).setSelectedDay(epochDay);
+		}
+		
+		int weekIndex = CalendarManager.getInstance().getWeekIndex(epochDay);
+		if(weekIndex >= 0 && weekIndex < weeks.size())
+		{
+			currentWeekIndex = weekIndex;
 		}
 		
 		if(currentWeekIndex != null)
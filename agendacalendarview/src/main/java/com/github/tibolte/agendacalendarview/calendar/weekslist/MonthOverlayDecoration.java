@@ -0,0 +1,154 @@
+package com.github.tibolte.agendacalendarview.calendar.weekslist;
+
+import android.animation.ValueAnimator;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.support.annotation.NonNull;
+import android.support.v7.widget.RecyclerView;
+import android.util.TypedValue;
+import android.view.View;
+
+import com.github.tibolte.agendacalendarview.CalendarManager;
+import com.github.tibolte.agendacalendarview.models.IDayItem;
+import com.github.tibolte.agendacalendarview.models.IWeekItem;
+import com.github.tibolte.agendacalendarview.utils.DateLabels;
+
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Draws the name of the month over the week holding its 15th day, while the user scrolls the weeks.
+ * All titles fade in and out together, driven by a single animator, see setVisible().
+ * Nothing is drawn while they're hidden.
+ */
+public class MonthOverlayDecoration extends RecyclerView.ItemDecoration
+{
+
+	public static final long FADE_DURATION = 250;
+	/**
+	 * Size of the month titles, in sp
+	 */
+	private static final int MONTH_TITLE_TEXT_SIZE = 17;
+	/**
+	 * Day of the month whose week shows the title
+	 */
+	private static final int TITLE_DAY_OF_MONTH    = 15;
+
+	private final RecyclerView  mRecyclerView;
+	private final Paint         mTitlePaint      = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final Paint         mBackgroundPaint = new Paint();
+	private final ValueAnimator mFadeAnimator    = new ValueAnimator();
+	private       float         mAlpha;
+	private       boolean       mVisible;
+
+	// region Constructor
+
+	public MonthOverlayDecoration(@NonNull RecyclerView recyclerView)
+	{
+		mRecyclerView = recyclerView;
+
+		mTitlePaint.setTextAlign(Paint.Align.CENTER);
+		mTitlePaint.setTypeface(Typeface.DEFAULT_BOLD);
+		mTitlePaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, MONTH_TITLE_TEXT_SIZE, recyclerView.getResources().getDisplayMetrics()));
+		mTitlePaint.setColor(0xFF000000);
+		mBackgroundPaint.setColor(0xFFFFFFFF);
+
+		mFadeAnimator.setDuration(FADE_DURATION);
+		mFadeAnimator.addUpdateListener(animation -> {
+			mAlpha = (float) animation.getAnimatedValue();
+			mRecyclerView.invalidate();
+		});
+	}
+
+	// endregion
+
+	// region Public methods
+
+	public boolean isVisible()
+	{
+		return mVisible;
+	}
+
+	/**
+	 * Fade the month titles in or out, from their current alpha.
+	 */
+	public void setVisible(boolean visible)
+	{
+		if(visible == mVisible)
+		{
+			return;
+		}
+		mVisible = visible;
+		mFadeAnimator.cancel();
+		mFadeAnimator.setFloatValues(mAlpha, visible ? 1f : 0f);
+		mFadeAnimator.start();
+	}
+
+	// endregion
+
+	// region Class - RecyclerView.ItemDecoration
+
+	@Override
+	public void onDrawOver(@NonNull Canvas canvas, @NonNull RecyclerView parent, @NonNull RecyclerView.State state)
+	{
+		if(mAlpha <= 0 || !(parent.getAdapter() instanceof WeeksAdapter))
+		{
+			return;
+		}
+
+		WeeksAdapter    adapter = (WeeksAdapter) parent.getAdapter();
+		List<IWeekItem> weeks   = adapter.getWeeksList();
+		Calendar        today   = adapter.getToday();
+		DateLabels      labels  = DateLabels.getInstance(parent.getContext(), CalendarManager.getInstance().getLocale());
+		int             alpha   = (int) (mAlpha * 255);
+		mTitlePaint.setAlpha(alpha);
+		mBackgroundPaint.setAlpha(alpha);
+
+		float textHeight = mTitlePaint.descent() - mTitlePaint.ascent();
+		float centerX    = parent.getWidth() / 2f;
+		for(int i = 0; i < parent.getChildCount(); i++)
+		{
+			View child    = parent.getChildAt(i);
+			int  position = parent.getChildAdapterPosition(child);
+			if(position == RecyclerView.NO_POSITION || position >= weeks.size())
+			{
+				continue;
+			}
+			IWeekItem weekItem = weeks.get(position);
+			IDayItem  titleDay = getTitleDay(weekItem);
+			if(titleDay == null)
+			{
+				continue;
+			}
+
+			String title     = labels.getMonthTitle(titleDay.getEpochDay(), today.get(Calendar.YEAR) != weekItem.getYear());
+			float  halfWidth = mTitlePaint.measureText(title) / 2;
+			float  centerY   = child.getTop() + child.getTranslationY() + child.getHeight() / 2f;
+			canvas.drawRect(centerX - halfWidth, centerY - textHeight / 2, centerX + halfWidth, centerY + textHeight / 2, mBackgroundPaint);
+			canvas.drawText(title, centerX, centerY - (mTitlePaint.ascent() + mTitlePaint.descent()) / 2, mTitlePaint);
+		}
+	}
+
+	// endregion
+
+	// region Private methods
+
+	/**
+	 * @return The day of the week whose month is shown over it, or null if it has none.
+	 */
+	private static IDayItem getTitleDay(IWeekItem weekItem)
+	{
+		List<IDayItem> dayItems = weekItem.getDayItems();
+		for(int i = 0; i < dayItems.size(); i++)
+		{
+			if(dayItems.get(i).getDayOfMonth() == TITLE_DAY_OF_MONTH)
+			{
+				return dayItems.get(i);
+			}
+		}
+		return null;
+	}
+
+	// endregion
+}
@@ -4,26 +4,56 @@ import com.github.tibolte.agendacalendarview.utils.BusProvider;
 import com.github.tibolte.agendacalendarview.utils.Events;
 
 import android.content.Context;
+import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.view.View;
 
+import java.util.ArrayDeque;
+import java.util.List;
+
 public class WeekListView extends RecyclerView {
+    /**
+     * Delay after the scroll stopped before the month titles fade out, for the snap to settle
+     */
+    private static final long MONTH_OVERLAY_HIDE_DELAY = 700;
+
     private boolean mUserScrolling = false;
     private boolean mScrolling = false;
+    private final MonthOverlayDecoration mMonthOverlay = new MonthOverlayDecoration(this);
+    private final Runnable mHideMonthOverlay = () -> mMonthOverlay.setVisible(false);
+    /**
+     * Rows created ahead of time, kept here as the adapter is replaced on every init
+     */
+    private final ArrayDeque<WeekRowView> mWarmRows = new ArrayDeque<>();
+
+    /**
+     * Lets the adapter grow its weeks, posted as the data can't change during a scroll callback
+     */
+    private final Runnable mVisibleRangeChanged = () -> {
+        WeeksAdapter weeksAdapter = (WeeksAdapter) getAdapter();
+        LayoutManager layoutManager = getLayoutManager();
+        if (weeksAdapter != null && layoutManager instanceof LinearLayoutManager) {
+            LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+            weeksAdapter.onVisibleRangeChanged(linearLayoutManager.findFirstVisibleItemPosition(), linearLayoutManager.findLastVisibleItemPosition());
+        }
+    };
 
     // region Constructors
 
     public WeekListView(Context context) {
-        super(context);
+        this(context, null);
     }
 
     public WeekListView(Context context, AttributeSet attrs) {
-        super(context, attrs);
+        this(context, attrs, 0);
     }
 
     public WeekListView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        addItemDecoration(mMonthOverlay);
     }
 
     // endregion
@@ -43,6 +73,25 @@ public class WeekListView extends RecyclerView {
         }
     }
 
+    public MonthOverlayDecoration getMonthOverlay() {
+        return mMonthOverlay;
+    }
+
+    /**
+     * Keep rows without parent, used by the WeeksAdapter before creating new ones.
+     */
+    public void addWarmRows(@NonNull List<WeekRowView> rows) {
+        mWarmRows.addAll(rows);
+    }
+
+    /**
+     * @return A row created ahead of time, null if none is left.
+     */
+    @Nullable
+    public WeekRowView pollWarmRow() {
+        return mWarmRows.poll();
+    }
+
     // endregion
 
     // region Private methods
@@ -51,18 +100,19 @@ public class WeekListView extends RecyclerView {
         @Override
         public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
             super.onScrolled(recyclerView, dx, dy);
+            removeCallbacks(mVisibleRangeChanged);
+            post(mVisibleRangeChanged);
         }
 
         @Override
         public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
             super.onScrollStateChanged(recyclerView, newState);
-            final WeeksAdapter weeksAdapter = (WeeksAdapter) getAdapter();
 
             switch (newState) {
                 case SCROLL_STATE_IDLE:
                     if (mUserScrolling) {
                         scrollToView(getCenterView());
-                        postDelayed(() -> weeksAdapter.setDragging(false), 700); // Wait for recyclerView to settle
+                        postDelayed(mHideMonthOverlay, MONTH_OVERLAY_HIDE_DELAY); // Wait for recyclerView to settle
                     }
 
                     mUserScrolling = false;
@@ -75,12 +125,10 @@ public class WeekListView extends RecyclerView {
                     if (!mScrolling) {
                         mUserScrolling = true;
                     }
-                    weeksAdapter.setDragging(true);
+                    removeCallbacks(mHideMonthOverlay);
+                    mMonthOverlay.setVisible(true);
                     break;
                 case SCROLL_STATE_SETTLING:
-                    // The user's finger is not touching the list anymore, no need
-                    // for any alpha animation then
-                    weeksAdapter.setAlphaSet(true);
                     mScrolling = true;
                     break;
             }
@@ -0,0 +1,449 @@
+package com.github.tibolte.agendacalendarview.calendar.weekslist;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.support.annotation.ColorInt;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.v4.view.ViewCompat;
+import android.support.v4.view.accessibility.AccessibilityNodeInfoCompat;
+import android.support.v4.widget.ExploreByTouchHelper;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+import android.view.ViewConfiguration;
+import android.view.accessibility.AccessibilityEvent;
+
+import com.github.tibolte.agendacalendarview.CalendarManager;
+import com.github.tibolte.agendacalendarview.R;
+import com.github.tibolte.agendacalendarview.models.IDayItem;
+import com.github.tibolte.agendacalendarview.utils.DateLabels;
+
+import java.util.List;
+
+/**
+ * A week of the calendar drawn as a single view: day numbers, month labels of the first days, selection
+ * circles, event indicators and highlight timelines. Month titles are drawn over the weeks by a
+ * MonthOverlayDecoration.
+ * <p>
+ * The WeeksAdapter fills the DayCell of each day then invalidates the view, nothing is allocated
+ * while binding or drawing. Taps are mapped to a day by their x coordinate.
+ * <p>
+ * Accessibility services see the days as seven virtual views, read as their wide date.
+ */
+public class WeekRowView extends View
+{
+
+	public static final int DAYS_IN_WEEK   = 7;
+	/**
+	 * Number of event indicators drawn under a day at most
+	 */
+	public static final int MAX_INDICATORS = 4;
+	/**
+	 * Height of the highlight timelines, relative to the selection circle
+	 */
+	private static final float TIMELINE_HEIGHT_RATIO = .33f;
+	/**
+	 * Distance between the centers of two indicators, relative to their radius
+	 */
+	private static final float INDICATOR_SPACING     = 2.5f;
+
+	private final DayCell[] mCells = new DayCell[DAYS_IN_WEEK];
+
+	/// paints, created once per row
+	private final Paint mTextPaint  = new Paint(Paint.ANTI_ALIAS_FLAG);
+	private final Paint mShapePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+	/// dimensions, in pixels
+	private final int   mCellHeight;
+	private final float mCircleRadius;
+	private final float mIndicatorRadius;
+	private final int   mTouchSlop;
+
+	private final DayTouchHelper mTouchHelper;
+
+	private       OnDayClickListener mOnDayClickListener;
+	/// tap in progress
+	private       float              mDownX;
+	private       float              mDownY;
+	private       boolean            mTapping;
+	/**
+	 * Index of the day tapped last, clicked by performClick()
+	 */
+	private       int                mTappedIndex;
+
+	// region Interfaces
+
+	public interface OnDayClickListener
+	{
+		void onDayClick(WeekRowView view, IDayItem dayItem);
+	}
+
+	// endregion
+
+	// region Constructor
+
+	public WeekRowView(Context context)
+	{
+		super(context);
+
+		mCellHeight = getResources().getDimensionPixelSize(R.dimen.day_cell_height);
+		mCircleRadius = getResources().getDimension(R.dimen.circle_selected_size) / 2;
+		mIndicatorRadius = getResources().getDimension(R.dimen.circle_events_present_size) / 2;
+		mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+
+		mTextPaint.setTextAlign(Paint.Align.CENTER);
+		mTextPaint.setTextSize(getResources().getDimension(R.dimen.text_day_size));
+
+		for(int i = 0; i < DAYS_IN_WEEK; i++)
+		{
+			mCells[i] = new DayCell();
+		}
+
+		mTouchHelper = new DayTouchHelper();
+		ViewCompat.setAccessibilityDelegate(this, mTouchHelper);
+	}
+
+	// endregion
+
+	// region Public methods
+
+	/**
+	 * @return The cell of the given day of the week, from 0 to DAYS_IN_WEEK excluded. Call invalidateCells()
+	 * once the cells are updated.
+	 */
+	@NonNull
+	public DayCell getCell(int index)
+	{
+		return mCells[index];
+	}
+
+	/**
+	 * Redraw the cells and refresh what accessibility services know of them.
+	 */
+	public void invalidateCells()
+	{
+		invalidate();
+		mTouchHelper.invalidateRoot();
+	}
+
+	public void setOnDayClickListener(@Nullable OnDayClickListener listener)
+	{
+		mOnDayClickListener = listener;
+	}
+
+	/**
+	 * @return The index of the day under the given x coordinate, from 0 to DAYS_IN_WEEK excluded.
+	 */
+	public int getDayIndexAt(float x)
+	{
+		int index = (int) (x * DAYS_IN_WEEK / Math.max(getWidth(), 1));
+		return Math.max(0, Math.min(index, DAYS_IN_WEEK - 1));
+	}
+
+	// endregion
+
+	// region Class - View
+
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec)
+	{
+		setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec), resolveSize(mCellHeight, heightMeasureSpec));
+	}
+
+	@Override
+	protected void onDraw(Canvas canvas)
+	{
+		float cellWidth = (float) getWidth() / DAYS_IN_WEEK;
+		float centerY   = getHeight() / 2f;
+
+		for(int i = 0; i < DAYS_IN_WEEK; i++)
+		{
+			DayCell cell    = mCells[i];
+			float   left    = i * cellWidth;
+			float   centerX = left + cellWidth / 2;
+
+			// Timelines of highlighted spans, behind the rest of the cell
+			float lineHalfHeight = mCircleRadius * TIMELINE_HEIGHT_RATIO;
+			if(cell.mMorningLineColor != 0)
+			{
+				mShapePaint.setColor(cell.mMorningLineColor);
+				canvas.drawRect(left, centerY - lineHalfHeight, centerX, centerY + lineHalfHeight, mShapePaint);
+			}
+			if(cell.mEveningLineColor != 0)
+			{
+				mShapePaint.setColor(cell.mEveningLineColor);
+				canvas.drawRect(centerX, centerY - lineHalfHeight, left + cellWidth, centerY + lineHalfHeight, mShapePaint);
+			}
+
+			mTextPaint.setTypeface(cell.mBold ? Typeface.DEFAULT_BOLD : Typeface.DEFAULT);
+			if(cell.mMonthLabel != null)
+			{
+				mTextPaint.setColor(cell.mMonthTextColor);
+				canvas.drawText(cell.mMonthLabel, centerX, -mTextPaint.ascent(), mTextPaint);
+			}
+
+			if(cell.mCircleColor != 0)
+			{
+				mShapePaint.setColor(cell.mCircleColor);
+				canvas.drawCircle(centerX, centerY, mCircleRadius, mShapePaint);
+			}
+
+			if(cell.mDayLabel != null)
+			{
+				mTextPaint.setColor(cell.mDayTextColor);
+				canvas.drawText(cell.mDayLabel, centerX, centerY - (mTextPaint.ascent() + mTextPaint.descent()) / 2, mTextPaint);
+			}
+
+			// The indicators are centered between the circle and the bottom of the cell, side by side
+			float indicatorY = (centerY + mCircleRadius + getHeight()) / 2;
+			float indicatorX = centerX - (cell.mIndicatorCount - 1) * mIndicatorRadius * INDICATOR_SPACING / 2;
+			for(int indicator = 0; indicator < cell.mIndicatorCount; indicator++)
+			{
+				mShapePaint.setColor(cell.mIndicatorColors[indicator]);
+				canvas.drawCircle(indicatorX + indicator * mIndicatorRadius * INDICATOR_SPACING, indicatorY, mIndicatorRadius, mShapePaint);
+			}
+		}
+	}
+
+	@Override
+	public boolean onTouchEvent(MotionEvent event)
+	{
+		switch(event.getActionMasked())
+		{
+			case MotionEvent.ACTION_DOWN:
+				mDownX = event.getX();
+				mDownY = event.getY();
+				mTapping = true;
+				return true;
+			case MotionEvent.ACTION_MOVE:
+				if(Math.abs(event.getX() - mDownX) > mTouchSlop || Math.abs(event.getY() - mDownY) > mTouchSlop)
+				{
+					mTapping = false;
+				}
+				return true;
+			case MotionEvent.ACTION_UP:
+				if(mTapping)
+				{
+					mTapping = false;
+					mTappedIndex = getDayIndexAt(mDownX);
+					performClick();
+				}
+				return true;
+			case MotionEvent.ACTION_CANCEL:
+				mTapping = false;
+				return true;
+			default:
+				return super.onTouchEvent(event);
+		}
+	}
+
+	@Override
+	public boolean performClick()
+	{
+		boolean handled = super.performClick();
+		return performDayClick(mTappedIndex) || handled;
+	}
+
+	@Override
+	public boolean dispatchHoverEvent(MotionEvent event)
+	{
+		return mTouchHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+	}
+
+	@Override
+	public boolean dispatchKeyEvent(KeyEvent event)
+	{
+		return mTouchHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+	}
+
+	@Override
+	protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect)
+	{
+		super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+		mTouchHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private boolean performDayClick(int index)
+	{
+		IDayItem dayItem = mCells[index].mDayItem;
+		if(dayItem == null || mOnDayClickListener == null)
+		{
+			return false;
+		}
+		playSoundEffect(SoundEffectConstants.CLICK);
+		mOnDayClickListener.onDayClick(this, dayItem);
+		mTouchHelper.sendEventForVirtualView(index, AccessibilityEvent.TYPE_VIEW_CLICKED);
+		return true;
+	}
+
+	// endregion
+
+	// region Class - DayTouchHelper
+
+	/**
+	 * Exposes each day as a virtual view, so it can be explored, read and clicked by accessibility services.
+	 * Virtual view ids are the indexes of the days in the week.
+	 */
+	private final class DayTouchHelper extends ExploreByTouchHelper
+	{
+
+		private final Rect mBounds = new Rect();
+
+		private DayTouchHelper()
+		{
+			super(WeekRowView.this);
+		}
+
+		@Override
+		protected int getVirtualViewAt(float x, float y)
+		{
+			int index = getDayIndexAt(x);
+			return mCells[index].mDayItem != null ? index : INVALID_ID;
+		}
+
+		@Override
+		protected void getVisibleVirtualViews(List<Integer> virtualViewIds)
+		{
+			for(int i = 0; i < DAYS_IN_WEEK; i++)
+			{
+				if(mCells[i].mDayItem != null)
+				{
+					virtualViewIds.add(i);
+				}
+			}
+		}
+
+		@Override
+		protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node)
+		{
+			IDayItem dayItem = mCells[virtualViewId].mDayItem;
+			if(dayItem != null)
+			{
+				DateLabels labels = DateLabels.getInstance(getContext(), CalendarManager.getInstance().getLocale());
+				node.setText(labels.getWideDate(dayItem.getEpochDay(), false));
+				node.setSelected(dayItem.isSelected());
+			}
+			else
+			{
+				// Days are only missing until the row is bound, the node must still have a text
+				node.setText("");
+			}
+			node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+
+			int width = getWidth();
+			mBounds.set(virtualViewId * width / DAYS_IN_WEEK, 0, (virtualViewId + 1) * width / DAYS_IN_WEEK, getHeight());
+			node.setBoundsInParent(mBounds);
+		}
+
+		@Override
+		protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments)
+		{
+			return action == AccessibilityNodeInfoCompat.ACTION_CLICK && performDayClick(virtualViewId);
+		}
+	}
+
+	// endregion
+
+	// region Class - DayCell
+
+	/**
+	 * What is drawn for a day. Colors set to 0 aren't drawn.
+	 */
+	public static final class DayCell
+	{
+
+		private IDayItem mDayItem;
+		private String   mDayLabel;
+		private String   mMonthLabel;
+		private int      mDayTextColor;
+		private int      mMonthTextColor;
+		private boolean  mBold;
+		private int      mCircleColor;
+		private int[]    mIndicatorColors = new int[MAX_INDICATORS];
+		private int      mIndicatorCount;
+		private int      mMorningLineColor;
+		private int      mEveningLineColor;
+
+		/**
+		 * Clear the cell and show the given day, in the given text color.
+		 */
+		public void reset(@NonNull IDayItem dayItem, @NonNull String dayLabel, @ColorInt int textColor)
+		{
+			mDayItem = dayItem;
+			mDayLabel = dayLabel;
+			mMorningLineColor = 0;
+			mEveningLineColor = 0;
+			resetState(textColor);
+		}
+
+		/**
+		 * Clear what depends on the selected and current days, keeping the day and its timelines.
+		 */
+		public void resetState(@ColorInt int textColor)
+		{
+			mMonthLabel = null;
+			mDayTextColor = textColor;
+			mMonthTextColor = textColor;
+			mBold = false;
+			mCircleColor = 0;
+			mIndicatorCount = 0;
+		}
+
+		public void setDayTextColor(@ColorInt int dayTextColor)
+		{
+			mDayTextColor = dayTextColor;
+		}
+
+		/**
+		 * @param monthLabel The month drawn at the top of the cell, or null for none.
+		 */
+		public void setMonthLabel(@Nullable String monthLabel)
+		{
+			mMonthLabel = monthLabel;
+		}
+
+		public void setBold(boolean bold)
+		{
+			mBold = bold;
+		}
+
+		public void setCircleColor(@ColorInt int circleColor)
+		{
+			mCircleColor = circleColor;
+		}
+
+		public void clearIndicators()
+		{
+			mIndicatorCount = 0;
+		}
+
+		/**
+		 * Add an event indicator, ignored once MAX_INDICATORS are drawn.
+		 */
+		public void addIndicator(@ColorInt int indicatorColor)
+		{
+			if(mIndicatorCount < MAX_INDICATORS)
+			{
+				mIndicatorColors[mIndicatorCount++] = indicatorColor;
+			}
+		}
+
+		public void setTimelineColors(@ColorInt int morningLineColor, @ColorInt int eveningLineColor)
+		{
+			mMorningLineColor = morningLineColor;
+			mEveningLineColor = eveningLineColor;
+		}
+	}
+
+	// endregion
+}
@@ -1,32 +1,22 @@
 package com.github.tibolte.agendacalendarview.calendar.weekslist;
 
-import android.animation.Animator;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
 import android.content.Context;
-import android.graphics.Typeface;
-import android.graphics.drawable.GradientDrawable;
 import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
-import android.support.constraint.ConstraintLayout;
+import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
-import android.view.LayoutInflater;
-import android.view.View;
 import android.view.ViewGroup;
-import android.widget.FrameLayout;
-import android.widget.LinearLayout;
-import android.widget.TextView;
 
 import com.github.tibolte.agendacalendarview.CalendarManager;
-import com.github.tibolte.agendacalendarview.R;
-import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.CalendarSnapshot;
 import com.github.tibolte.agendacalendarview.models.IDayItem;
 import com.github.tibolte.agendacalendarview.models.IWeekItem;
+import com.github.tibolte.agendacalendarview.models.VirtualWeekList;
 import com.github.tibolte.agendacalendarview.utils.BusProvider;
-import com.github.tibolte.agendacalendarview.utils.DateHelper;
+import com.github.tibolte.agendacalendarview.utils.DateLabels;
+import com.github.tibolte.agendacalendarview.utils.EpochDays;
 import com.github.tibolte.agendacalendarview.utils.Events;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
@@ -34,13 +24,27 @@ import java.util.List;
 public class WeeksAdapter extends RecyclerView.Adapter<WeeksAdapter.WeekViewHolder>
 {
 	
-	public static final long FADE_DURATION = 250;
+	/**
+	 * Number of weeks added when scrolling close to an end of a VirtualWeekList
+	 */
+	private static final int  EXTEND_WEEKS     = 26;
+	/**
+	 * Distance to an end of a VirtualWeekList, in weeks, at which it gets extended
+	 */
+	private static final int  EXTEND_THRESHOLD = 8;
+	/**
+	 * Weeks around the visible ones notified of today changes, those the RecyclerView may
+	 * have prefetched or cached. Other weeks are bound again when they get displayed.
+	 */
+	private static final int  PREFETCH_WEEKS   = 4;
 	
 	private final Context            mContext;
-	private final Calendar           mToday;
-	private final List<IWeekItem>    mWeeksList          = new ArrayList<>();
-	private       boolean            mDragging;
-	private       boolean            mAlphaSet;
+	private       Calendar           mToday;
+	private       RecyclerView       mRecyclerView;
+	private       List<IWeekItem>    mWeeksList          = new ArrayList<>();
+	/// visible days last reported to the CalendarManager
+	private       int                mVisibleFirstDay;
+	private       int                mVisibleLastDay;
 	private @ColorInt
 	final         int                mDayTextColor;
 	private @ColorInt
@@ -66,42 +70,113 @@ public class WeeksAdapter extends RecyclerView.Adapter<WeeksAdapter.WeekViewHold
 	
 	// endregion
 	
-	public void updateWeeksItems(List<IWeekItem> weekItems)
+	// region Enums
+	
+	/**
+	 * Partial changes of the bound weeks, passed as payloads so only the state of the cells is refilled,
+	 * see WeekViewHolder.bindDayStates().
+	 */
+	public enum Payload
 	{
-		this.mWeeksList.clear();
-		this.mWeeksList.addAll(weekItems);
-		notifyDataSetChanged();
+		/**
+		 * The selected day moved, circles and text colors change
+		 */
+		SELECTION,
+		/**
+		 * The current day changed, past days change color
+		 */
+		TODAY,
+		/**
+		 * Events of the week changed, only the indicators change
+		 */
+		INDICATORS
 	}
 	
-	// region Getters/setters
+	// endregion
 	
-	public List<IWeekItem> getWeeksList()
+	/**
+	 * @param weekItems The weeks to display, not copied so a VirtualWeekList keeps creating weeks on demand.
+	 */
+	public void updateWeeksItems(List<IWeekItem> weekItems)
 	{
-		return mWeeksList;
+		this.mWeeksList = weekItems;
+		notifyDataSetChanged();
 	}
 	
-	public boolean isDragging()
+	/**
+	 * Report the visible days to the CalendarManager, and grow a VirtualWeekList when the visible weeks
+	 * get close to one of its ends.
+	 */
+	public void onVisibleRangeChanged(int firstPosition, int lastPosition)
 	{
-		return mDragging;
+		if(firstPosition == RecyclerView.NO_POSITION || lastPosition >= mWeeksList.size())
+		{
+			return;
+		}
+		
+		// Let the CalendarManager load the events around the visible days, ahead of the scroll
+		List<IDayItem> firstDays = mWeeksList.get(firstPosition).getDayItems();
+		List<IDayItem> lastDays  = mWeeksList.get(lastPosition).getDayItems();
+		int            firstDay  = firstDays.get(0).getEpochDay();
+		int            lastDay   = lastDays.get(lastDays.size() - 1).getEpochDay();
+		if(firstDay != mVisibleFirstDay || lastDay != mVisibleLastDay)
+		{
+			CalendarManager.getInstance().onVisibleRangeChanged(firstDay, lastDay, Integer.signum(firstDay - mVisibleFirstDay));
+			mVisibleFirstDay = firstDay;
+			mVisibleLastDay = lastDay;
+		}
+		
+		// Only the weeks currently published by the CalendarManager can be extended
+		if(!(mWeeksList instanceof VirtualWeekList) || mWeeksList != CalendarManager.getInstance().getWeeks())
+		{
+			return;
+		}
+		
+		int size = mWeeksList.size();
+		if(lastPosition >= size - EXTEND_THRESHOLD)
+		{
+			List<IWeekItem> weeks = CalendarManager.getInstance().extendWeeks(0, EXTEND_WEEKS);
+			if(weeks == null)
+			{
+				retryVisibleRangeChanged(firstPosition, lastPosition);
+				return;
+			}
+			mWeeksList = weeks;
+			notifyItemRangeInserted(size, mWeeksList.size() - size);
+			size = mWeeksList.size();
+		}
+		if(firstPosition < EXTEND_THRESHOLD)
+		{
+			List<IWeekItem> weeks = CalendarManager.getInstance().extendWeeks(EXTEND_WEEKS, 0);
+			if(weeks == null)
+			{
+				retryVisibleRangeChanged(firstPosition, lastPosition);
+				return;
+			}
+			mWeeksList = weeks;
+			notifyItemRangeInserted(0, mWeeksList.size() - size);
+		}
 	}
 	
-	public void setDragging(boolean dragging)
+	// region Getters/setters
+	
+	public List<IWeekItem> getWeeksList()
 	{
-		if(dragging != this.mDragging)
-		{
-			this.mDragging = dragging;
-			notifyItemRangeChanged(0, mWeeksList.size());
-		}
+		return mWeeksList;
 	}
 	
-	public boolean isAlphaSet()
+	public Calendar getToday()
 	{
-		return mAlphaSet;
+		return mToday;
 	}
 	
-	public void setAlphaSet(boolean alphaSet)
+	/**
+	 * Update the colors of past days, e.g. after midnight.
+	 */
+	public void setToday(@NonNull Calendar today)
 	{
-		mAlphaSet = alphaSet;
+		mToday = today;
+		notifyVisibleWeeksChanged(Payload.TODAY);
 	}
 	
 	public void setHighlightDecorator(@NonNull HighlightDecorator highlightDecorator)
@@ -117,7 +192,12 @@ public class WeeksAdapter extends RecyclerView.Adapter<WeeksAdapter.WeekViewHold
 	@Override
 	public WeekViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType)
 	{
-		View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.list_item_week, parent, false);
+		WeekRowView view = parent instanceof WeekListView ? ((WeekListView) parent).pollWarmRow() : null;
+		if(view == null)
+		{
+			view = new WeekRowView(parent.getContext());
+		}
+		view.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
 		return new WeekViewHolder(view);
 	}
 	
@@ -128,6 +208,50 @@ public class WeeksAdapter extends RecyclerView.Adapter<WeeksAdapter.WeekViewHold
 		weekViewHolder.bindWeek(weekItem, mToday);
 	}
 	
+	@Override
+	public void onBindViewHolder(@NonNull WeekViewHolder weekViewHolder, int position, @NonNull List<Object> payloads)
+	{
+		if(payloads.isEmpty())
+		{
+			onBindViewHolder(weekViewHolder, position);
+			return;
+		}
+		
+		// Selection and today only change the colors, circles and indicators of the cells, events the indicators
+		for(Object payload : payloads)
+		{
+			if(payload != Payload.INDICATORS)
+			{
+				weekViewHolder.bindDayStates(mWeeksList.get(position), mToday);
+				return;
+			}
+		}
+		weekViewHolder.bindIndicators(mWeeksList.get(position));
+	}
+	
+	@Override
+	public void onViewAttachedToWindow(@NonNull WeekViewHolder weekViewHolder)
+	{
+		// Weeks cached outside of the notified range may have missed a change
+		int position = weekViewHolder.getAdapterPosition();
+		if(position != RecyclerView.NO_POSITION && position < mWeeksList.size() && weekViewHolder.mBoundToday != EpochDays.toEpochDay(mToday))
+		{
+			weekViewHolder.bindDayStates(mWeeksList.get(position), mToday);
+		}
+	}
+	
+	@Override
+	public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView)
+	{
+		mRecyclerView = recyclerView;
+	}
+	
+	@Override
+	public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView)
+	{
+		mRecyclerView = null;
+	}
+	
 	@Override
 	public int getItemCount()
 	{
@@ -136,237 +260,166 @@ public class WeeksAdapter extends RecyclerView.Adapter<WeeksAdapter.WeekViewHold
 	
 	// endregion
 	
+	// region Private methods
+	
+	/**
+	 * Extend the weeks on the next frame, when a batch of event mutations held the CalendarManager.
+	 */
+	private void retryVisibleRangeChanged(int firstPosition, int lastPosition)
+	{
+		if(mRecyclerView != null)
+		{
+			mRecyclerView.post(() -> onVisibleRangeChanged(firstPosition, lastPosition));
+		}
+	}
+	
+	/**
+	 * Notify the visible weeks and those around them of a change, instead of every week of the list.
+	 */
+	private void notifyVisibleWeeksChanged(Payload payload)
+	{
+		RecyclerView.LayoutManager layoutManager = mRecyclerView != null ? mRecyclerView.getLayoutManager() : null;
+		if(!(layoutManager instanceof LinearLayoutManager))
+		{
+			notifyItemRangeChanged(0, mWeeksList.size(), payload);
+			return;
+		}
+		
+		LinearLayoutManager linearLayoutManager = (LinearLayoutManager) layoutManager;
+		int                 firstPosition       = linearLayoutManager.findFirstVisibleItemPosition();
+		int                 lastPosition        = linearLayoutManager.findLastVisibleItemPosition();
+		if(firstPosition == RecyclerView.NO_POSITION)
+		{
+			return;
+		}
+		int first = Math.max(firstPosition - PREFETCH_WEEKS, 0);
+		int last  = Math.min(lastPosition + PREFETCH_WEEKS, mWeeksList.size() - 1);
+		if(last >= first)
+		{
+			notifyItemRangeChanged(first, last - first + 1, payload);
+		}
+	}
+	
+	// endregion
+	
 	// region Class - WeekViewHolder
 	
 	public class WeekViewHolder extends RecyclerView.ViewHolder
 	{
 		
+		private final WeekRowView mWeekRow;
 		/**
-		 * List of layout containers for each day
+		 * Current day the week was last bound with
 		 */
-		private       List<ConstraintLayout> mCells;
-		private final TextView               mTxtMonth;
-		private final FrameLayout            mMonthBackground;
+		private       int         mBoundToday;
 		
-		public WeekViewHolder(View itemView)
+		public WeekViewHolder(WeekRowView itemView)
 		{
 			super(itemView);
-			mTxtMonth = itemView.findViewById(R.id.month_label);
-			mMonthBackground = itemView.findViewById(R.id.month_background);
-			LinearLayout daysContainer = itemView.findViewById(R.id.week_days_container);
-			setUpChildren(daysContainer);
+			mWeekRow = itemView;
+			mWeekRow.setOnDayClickListener((view, dayItem) -> BusProvider.getInstance().send(new Events.DayClickedEvent(dayItem)));
 		}
 		
 		public void bindWeek(IWeekItem weekItem, Calendar today)
 		{
-			setUpMonthOverlay();
-			
 			List<IDayItem> dayItems = weekItem.getDayItems();
+			DateLabels     labels   = DateLabels.getInstance(mContext, CalendarManager.getInstance().getLocale());
 			
 			for(int c = 0; c < dayItems.size(); c++)
 			{
-				final IDayItem   dayItem        = dayItems.get(c);
-				ConstraintLayout cellItem       = mCells.get(c);
-				TextView         txtDay         = cellItem.findViewById(R.id.view_day_day_label);
-				TextView         txtMonth       = cellItem.findViewById(R.id.view_day_month_label);
-				View             circleView     = cellItem.findViewById(R.id.view_day_circle_selected);
-				View             eventIndicator = cellItem.findViewById(R.id.view_day_events_scheduled);
-				cellItem.setOnClickListener(v -> BusProvider.getInstance().send(new Events.DayClickedEvent(dayItem)));
-				View timelineAM = cellItem.findViewById(R.id.line_left);
-				View timelinePM = cellItem.findViewById(R.id.line_right);
+				IDayItem            dayItem     = dayItems.get(c);
+				WeekRowView.DayCell cell        = mWeekRow.getCell(c);
+				boolean             highlighted = mHighlightDecorator.isHighlighted(dayItem);
 				
-				txtMonth.setVisibility(View.GONE);
-				txtDay.setTextColor(mDayTextColor);
-				txtMonth.setTextColor(mDayTextColor);
-				circleView.setVisibility(View.GONE);
-				timelineAM.setVisibility(View.GONE);
-				timelinePM.setVisibility(View.GONE);
+				cell.reset(dayItem, labels.getDayOfMonth(dayItem.getEpochDay()), mDayTextColor);
 				
-				txtDay.setTypeface(null, Typeface.NORMAL);
-				txtMonth.setTypeface(null, Typeface.NORMAL);
-				
-				GradientDrawable eventIndicatorDrawable = (GradientDrawable) eventIndicator.getBackground();
-				eventIndicatorDrawable.setColor(mCurrentDayCircleColor);
+				//Check to see if there should be a highlight timeline on this cell
+				if(highlighted)
+				{
+					int lineColor = mHighlightDecorator.getHighlightLineColor();
+					cell.setTimelineColors(mHighlightDecorator.highlightMorning(dayItem) ? lineColor : 0, mHighlightDecorator.highlightEvening(dayItem) ? lineColor : 0);
+				}
+			}
+			bindDayStates(weekItem, today);
+		}
+		
+		/**
+		 * Refill what depends on the selected and current days: colors, circles and indicators of the cells.
+		 * The days and their timelines are kept, nothing is allocated.
+		 */
+		void bindDayStates(IWeekItem weekItem, Calendar today)
+		{
+			List<IDayItem>   dayItems = weekItem.getDayItems();
+			CalendarSnapshot snapshot = CalendarManager.getInstance().getSnapshot();
+			int              todayDay = EpochDays.toEpochDay(today);
+			
+			for(int c = 0; c < dayItems.size(); c++)
+			{
+				IDayItem            dayItem        = dayItems.get(c);
+				WeekRowView.DayCell cell           = mWeekRow.getCell(c);
+				boolean             highlighted    = mHighlightDecorator.isHighlighted(dayItem);
+				int                 indicatorColor = mCurrentDayCircleColor;
 				
-				// Display the day
-				txtDay.setText(Integer.toString(dayItem.getDayOfMonth()));
+				// Display the day, in the past color if this day is in the past
+				cell.resetState(dayItem.getEpochDay() < todayDay ? mPastDayTextColor : mDayTextColor);
 				
 				// Highlight first day of the month
 				if(dayItem.isFirstDayOfTheMonth() && !dayItem.isSelected())
 				{
-					txtMonth.setVisibility(View.VISIBLE);
-					txtMonth.setText(dayItem.getMonth());
-					txtDay.setTypeface(null, Typeface.BOLD);
-					txtMonth.setTypeface(null, Typeface.BOLD);
-				}
-				
-				// Check if this day is in the past
-				boolean isPast = today.getTime().after(dayItem.getDate()) && !DateHelper.sameDate(today, dayItem.getDate());
-				if(isPast)
-				{
-					txtDay.setTextColor(mPastDayTextColor);
-					txtMonth.setTextColor(mPastDayTextColor);
+					cell.setMonthLabel(dayItem.getMonth());
+					cell.setBold(true);
 				}
 				
 				// Show a circle if the day is selected or highlighted
 				if(dayItem.isSelected())
 				{
-					txtDay.setTextColor(mCurrentDayColor);
-					circleView.setVisibility(View.VISIBLE);
-					GradientDrawable drawable = (GradientDrawable) circleView.getBackground();
-					drawable.setColor(mCurrentDayCircleColor);
-					eventIndicatorDrawable.setColor(mCurrentDayCircleColor);
-				}
-				else if(mHighlightDecorator.isHighlighted(dayItem))
-				{
-					txtDay.setTextColor(mHighlightDecorator.getHighlightTextColor());
-					circleView.setVisibility(View.VISIBLE);
-					GradientDrawable drawable = (GradientDrawable) circleView.getBackground();
-					drawable.setColor(mHighlightDecorator.getHighlightLineColor());
-					eventIndicatorDrawable.setColor(mHighlightDecorator.getHighlightLineColor());
-				}
-				
-				//Check to see if there should be a highlight timeline on this cell
-				if(mHighlightDecorator.isHighlighted(dayItem))
-				{
-					if(mHighlightDecorator.highlightMorning(dayItem))
-					{
-						timelineAM.setVisibility(View.VISIBLE);
-						timelineAM.setBackgroundColor(mHighlightDecorator.getHighlightLineColor());
-					}
-					
-					if(mHighlightDecorator.highlightEvening(dayItem))
-					{
-						timelinePM.setVisibility(View.VISIBLE);
-						timelinePM.setBackgroundColor(mHighlightDecorator.getHighlightLineColor());
-					}
+					cell.setDayTextColor(mCurrentDayColor);
+					cell.setCircleColor(mCurrentDayCircleColor);
 				}
-				
-				//Check to see if the event indicator should be shown
-				eventIndicator.setVisibility(View.INVISIBLE);
-				List<CalendarEvent> events = CalendarManager.getInstance().getEvents(dayItem);
-				for(CalendarEvent event : events)
+				else if(highlighted)
 				{
-					if(!event.isPlaceholder())
-					{
-						eventIndicator.setVisibility(View.VISIBLE);
-						break;
-					}
+					cell.setDayTextColor(mHighlightDecorator.getHighlightTextColor());
+					cell.setCircleColor(mHighlightDecorator.getHighlightLineColor());
+					indicatorColor = mHighlightDecorator.getHighlightLineColor();
 				}
 				
-				
-				// Check if the month label has to be displayed
-				if(dayItem.getDayOfMonth() == 15)
-				{
-					mTxtMonth.setVisibility(View.VISIBLE);
-					SimpleDateFormat monthDateFormat = new SimpleDateFormat(mContext.getResources().getString(R.string.month_name_format), CalendarManager.getInstance().getLocale());
-					String           month           = monthDateFormat.format(weekItem.getDate()).toUpperCase();
-					if(today.get(Calendar.YEAR) != weekItem.getYear())
-					{
-						month = month + String.format(" %d", weekItem.getYear());
-					}
-					mTxtMonth.setText(month);
-				}
+				addIndicators(cell, snapshot, dayItem, indicatorColor);
 			}
+			mWeekRow.invalidateCells();
+			mBoundToday = todayDay;
 		}
 		
-		private void setUpChildren(LinearLayout daysContainer)
+		/**
+		 * Refill the event indicators of the cells only, nothing is allocated.
+		 */
+		void bindIndicators(IWeekItem weekItem)
 		{
-			mCells = new ArrayList<>();
-			for(int i = 0; i < daysContainer.getChildCount(); i++)
+			List<IDayItem>   dayItems = weekItem.getDayItems();
+			CalendarSnapshot snapshot = CalendarManager.getInstance().getSnapshot();
+			
+			for(int c = 0; c < dayItems.size(); c++)
 			{
-				mCells.add((ConstraintLayout) daysContainer.getChildAt(i));
+				IDayItem            dayItem = dayItems.get(c);
+				WeekRowView.DayCell cell    = mWeekRow.getCell(c);
+				
+				// Events without color take the color of the circle of highlighted days, as in bindDayStates()
+				boolean highlighted = !dayItem.isSelected() && mHighlightDecorator.isHighlighted(dayItem);
+				cell.clearIndicators();
+				addIndicators(cell, snapshot, dayItem, highlighted ? mHighlightDecorator.getHighlightLineColor() : mCurrentDayCircleColor);
 			}
+			mWeekRow.invalidateCells();
 		}
 		
-		private void setUpMonthOverlay()
+		/**
+		 * One indicator per event in its color, for the first events of the day.
+		 */
+		private void addIndicators(WeekRowView.DayCell cell, CalendarSnapshot snapshot, IDayItem dayItem, int defaultColor)
 		{
-			mTxtMonth.setVisibility(View.GONE);
-			
-			if(isDragging())
-			{
-				AnimatorSet animatorSetFadeIn = new AnimatorSet();
-				animatorSetFadeIn.setDuration(FADE_DURATION);
-				ObjectAnimator animatorTxtAlphaIn        = ObjectAnimator.ofFloat(mTxtMonth, "alpha", mTxtMonth.getAlpha(), 1f);
-				ObjectAnimator animatorBackgroundAlphaIn = ObjectAnimator.ofFloat(mMonthBackground, "alpha", mMonthBackground.getAlpha(), 1f);
-				animatorSetFadeIn.playTogether(animatorTxtAlphaIn
-						//animatorBackgroundAlphaIn
-				);
-				animatorSetFadeIn.addListener(new Animator.AnimatorListener()
-				{
-					@Override
-					public void onAnimationStart(Animator animation)
-					{
-					
-					}
-					
-					@Override
-					public void onAnimationEnd(Animator animation)
-					{
-						setAlphaSet(true);
-					}
-					
-					@Override
-					public void onAnimationCancel(Animator animation)
-					{
-					
-					}
-					
-					@Override
-					public void onAnimationRepeat(Animator animation)
-					{
-					
-					}
-				});
-				animatorSetFadeIn.start();
-			}
-			else
-			{
-				AnimatorSet animatorSetFadeOut = new AnimatorSet();
-				animatorSetFadeOut.setDuration(FADE_DURATION);
-				ObjectAnimator animatorTxtAlphaOut        = ObjectAnimator.ofFloat(mTxtMonth, "alpha", mTxtMonth.getAlpha(), 0f);
-				ObjectAnimator animatorBackgroundAlphaOut = ObjectAnimator.ofFloat(mMonthBackground, "alpha", mMonthBackground.getAlpha(), 0f);
-				animatorSetFadeOut.playTogether(animatorTxtAlphaOut
-						//animatorBackgroundAlphaOut
-				);
-				animatorSetFadeOut.addListener(new Animator.AnimatorListener()
-				{
-					@Override
-					public void onAnimationStart(Animator animation)
-					{
-					
-					}
-					
-					@Override
-					public void onAnimationEnd(Animator animation)
-					{
-						setAlphaSet(false);
-					}
-					
-					@Override
-					public void onAnimationCancel(Animator animation)
-					{
-					
-					}
-					
-					@Override
-					public void onAnimationRepeat(Animator animation)
-					{
-					
-					}
-				});
-				animatorSetFadeOut.start();
-			}
-			
-			if(isAlphaSet())
-			{
-				//mMonthBackground.setAlpha(1f);
-				mTxtMonth.setAlpha(1f);
-			}
-			else
+			int indicatorCount = Math.min(snapshot.getIndicatorCount(dayItem.getEpochDay()), Math.min(CalendarSnapshot.MAX_INDICATOR_COLORS, WeekRowView.MAX_INDICATORS));
+			for(int i = 0; i < indicatorCount; i++)
 			{
-				//mMonthBackground.setAlpha(0f);
-				mTxtMonth.setAlpha(0f);
+				int eventColor = snapshot.getIndicatorColor(dayItem.getEpochDay(), i);
+				cell.addIndicator(eventColor != 0 ? eventColor : defaultColor);
 			}
 		}
 	}
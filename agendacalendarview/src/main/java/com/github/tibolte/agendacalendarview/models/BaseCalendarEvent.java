@@ -1,5 +1,7 @@
 package com.github.tibolte.agendacalendarview.models;
 
+import android.text.TextUtils;
+
 import java.util.Calendar;
 
 /**
@@ -315,6 +317,21 @@ public class BaseCalendarEvent implements CalendarEvent {
         return new BaseCalendarEvent(this);
     }
 
+    @Override
+    public boolean hasSameContent(CalendarEvent other) {
+        if (!CalendarEvent.super.hasSameContent(other) || !(other instanceof BaseCalendarEvent)) {
+            return false;
+        }
+        BaseCalendarEvent event = (BaseCalendarEvent) other;
+        return mColor == event.mColor
+                && mAllDay == event.mAllDay
+                && mWeather == event.mWeather
+                && Double.compare(mTemperature, event.mTemperature) == 0
+                && TextUtils.equals(mDescription, event.mDescription)
+                && TextUtils.equals(mDuration, event.mDuration)
+                && TextUtils.equals(mWeatherIcon, event.mWeatherIcon);
+    }
+
     // endregion
 
     @Override
@@ -1,5 +1,7 @@
 package com.github.tibolte.agendacalendarview.models;
 
+import android.text.TextUtils;
+
 import java.util.Calendar;
 
 public interface CalendarEvent {
@@ -46,4 +48,35 @@ public interface CalendarEvent {
     void setWeekReference(IWeekItem mWeekReference);
 
     CalendarEvent copy();
+
+    /**
+     * Identity of an event across snapshots, used to find the rows inserted, removed or moved when the
+     * events change. Events are identified by their id, ids must then be unique.
+     *
+     * @return True if the other event is this event, possibly modified.
+     */
+    default boolean isSameEvent(CalendarEvent other) {
+        return getId() == other.getId() && isPlaceholder() == other.isPlaceholder();
+    }
+
+    /**
+     * Called for events which are the same according to isSameEvent(), to skip binding their row again.
+     * Implementations displaying more fields must compare them too.
+     *
+     * @return True if the other event is displayed exactly like this one.
+     */
+    default boolean hasSameContent(CalendarEvent other) {
+        return TextUtils.equals(getTitle(), other.getTitle())
+                && TextUtils.equals(getLocation(), other.getLocation())
+                && showPlaceholders() == other.showPlaceholders()
+                && sameTime(getStartTime(), other.getStartTime())
+                && sameTime(getEndTime(), other.getEndTime());
+    }
+
+    /**
+     * @return True if both Calendars are null or hold the same time.
+     */
+    static boolean sameTime(Calendar calendar, Calendar other) {
+        return calendar == null ? other == null : other != null && calendar.getTimeInMillis() == other.getTimeInMillis();
+    }
 }
@@ -0,0 +1,182 @@
+package com.github.tibolte.agendacalendarview.models;
+
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+
+import com.github.tibolte.agendacalendarview.utils.DateHelper;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * Week layout of a date range for a locale: the day weeks are anchored on, how many weeks there are,
+ * and the number and label of each week. Grids are immutable and shared by every calendar showing the
+ * same range in the same locale, see obtain(), so recreating a calendar doesn't compute them again.
+ */
+public final class CalendarGrid
+{
+
+	/**
+	 * Number of grids kept for the whole process
+	 */
+	private static final int GRID_CACHE_SIZE = 8;
+	/**
+	 * Number of week numbers and labels kept per grid
+	 */
+	private static final int WEEK_CACHE_SIZE = 128;
+
+	private static final LruCache<String, CalendarGrid> sGrids = new LruCache<>(GRID_CACHE_SIZE);
+
+	private final Locale           mLocale;
+	private final int              mAnchorDay;
+	private final int              mFirstDayOffset;
+	private final int              mWeekCount;
+	/**
+	 * Guarded by itself, SimpleDateFormat isn't thread safe
+	 */
+	private final SimpleDateFormat mLabelFormat;
+
+	private final LruCache<Integer, WeekInfo> mWeeks = new LruCache<>(WEEK_CACHE_SIZE);
+
+	// region Constructor
+
+	private CalendarGrid(Locale locale, int anchorDay, int firstDayOffset, int weekCount, String labelPattern)
+	{
+		mLocale = locale;
+		mAnchorDay = anchorDay;
+		mFirstDayOffset = firstDayOffset;
+		mWeekCount = weekCount;
+		mLabelFormat = new SimpleDateFormat(labelPattern, locale);
+	}
+
+	// endregion
+
+	// region Public methods
+
+	/**
+	 * Get the grid of the given range, from the cache if a calendar already used it.
+	 *
+	 * @param minDate      The first day displayed.
+	 * @param maxDate      The end of the range, exclusive. Weeks are listed up to the end of the month holding the day before.
+	 * @param locale       The locale defining the first day of the week and the week numbers.
+	 * @param labelPattern The SimpleDateFormat pattern of the week labels.
+	 */
+	@NonNull
+	public static CalendarGrid obtain(@NonNull Calendar minDate, @NonNull Calendar maxDate, @NonNull Locale locale, @NonNull String labelPattern)
+	{
+		Calendar minCal = Calendar.getInstance(locale);
+		Calendar maxCal = Calendar.getInstance(locale);
+		minCal.setTime(minDate.getTime());
+		maxCal.setTime(maxDate.getTime());
+
+		// maxDate is exclusive, here we bump back to the previous day, as maxDate if December 1st, 2020,
+		// we don't include that month in our list
+		maxCal.add(Calendar.MINUTE, -1);
+
+		// Weeks are listed up to, including the month of maxCal
+		maxCal.set(Calendar.DAY_OF_MONTH, 1);
+		maxCal.add(Calendar.MONTH, 1);
+
+		int    minDay = DateHelper.toEpochDay(minCal);
+		int    endDay = DateHelper.toEpochDay(maxCal);
+		String key    = locale + "/" + minCal.getFirstDayOfWeek() + "/" + minDay + "/" + endDay + "/" + labelPattern;
+
+		CalendarGrid grid = sGrids.get(key);
+		if(grid == null)
+		{
+			int offset = minCal.getFirstDayOfWeek() - minCal.get(Calendar.DAY_OF_WEEK);
+			if(offset > 0)
+			{
+				offset -= 7;
+			}
+			// Two threads may build the same grid, both are equivalent
+			grid = new CalendarGrid(locale, minDay, offset, (endDay - minDay + 6) / 7, labelPattern);
+			sGrids.put(key, grid);
+		}
+		return grid;
+	}
+
+	public Locale getLocale()
+	{
+		return mLocale;
+	}
+
+	/**
+	 * @return The epoch day the first week is anchored on, other weeks are anchored 7 days apart.
+	 */
+	public int getAnchorDay()
+	{
+		return mAnchorDay;
+	}
+
+	/**
+	 * @return The offset between the day a week is anchored on and its first day, zero or negative.
+	 */
+	public int getFirstDayOffset()
+	{
+		return mFirstDayOffset;
+	}
+
+	public int getWeekCount()
+	{
+		return mWeekCount;
+	}
+
+	/**
+	 * @return The week number of the week anchored on the given day, which may be out of the range.
+	 */
+	public int getWeekInYear(int anchorDay)
+	{
+		return getWeekInfo(anchorDay).mWeekInYear;
+	}
+
+	/**
+	 * @return The label of the week anchored on the given day, which may be out of the range.
+	 */
+	public String getLabel(int anchorDay)
+	{
+		return getWeekInfo(anchorDay).mLabel;
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private WeekInfo getWeekInfo(int anchorDay)
+	{
+		WeekInfo weekInfo = mWeeks.get(anchorDay);
+		if(weekInfo == null)
+		{
+			Calendar cal = Calendar.getInstance(mLocale);
+			DateHelper.setEpochDay(cal, anchorDay);
+			String label;
+			synchronized(mLabelFormat)
+			{
+				label = mLabelFormat.format(cal.getTime());
+			}
+			weekInfo = new WeekInfo(cal.get(Calendar.WEEK_OF_YEAR), label);
+			mWeeks.put(anchorDay, weekInfo);
+		}
+		return weekInfo;
+	}
+
+	// endregion
+
+	// region Class - WeekInfo
+
+	private static final class WeekInfo
+	{
+
+		private final int    mWeekInYear;
+		private final String mLabel;
+
+		WeekInfo(int weekInYear, String label)
+		{
+			mWeekInYear = weekInYear;
+			mLabel = label;
+		}
+	}
+
+	// endregion
+}
@@ -2,116 +2,173 @@ package com.github.tibolte.agendacalendarview.models;
 
 import com.github.tibolte.agendacalendarview.CalendarManager;
 import com.github.tibolte.agendacalendarview.utils.DateHelper;
+import com.github.tibolte.agendacalendarview.utils.DateLabels;
 
 import java.util.Calendar;
 import java.util.Date;
 
 /**
- * Day model class.
+ * Day model class. Stores the local epoch day and its packed date, the Date and Calendar getters
+ * build a new instance on every call.
  */
 public class DayItem implements IDayItem
 {
-	private Calendar m_calendar;
-	private boolean  mSelected = false;
-	
+	private int     mEpochDay;
+	/**
+	 * Year, month and day of month, see DateHelper.toPackedDate()
+	 */
+	private int     mPackedDate;
+	private boolean mSelected = false;
+
 	// region Constructor
-	
+
 	public DayItem(Calendar calendar)
 	{
 		setCalendar(calendar);
 	}
-	
+
+	/**
+	 * @param epochDay The number of days elapsed since January 1st 1970.
+	 */
+	public DayItem(int epochDay)
+	{
+		setEpochDay(epochDay);
+	}
+
 	public DayItem(DayItem original)
 	{
-		m_calendar = original.getCalendar();
+		this.mEpochDay = original.mEpochDay;
+		this.mPackedDate = original.mPackedDate;
 		this.mSelected = original.isSelected();
 	}
 	// endregion
-	
+
 	// region Getters/Setters
-	
+
 	@Override
 	public Date getDate()
 	{
-		return m_calendar.getTime();
+		return getCalendar().getTime();
 	}
-	
+
 	@Override
 	public void setDate(Date date)
 	{
-		m_calendar.setTime(date);
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(date);
+		setEpochDay(DateHelper.toEpochDay(calendar));
 	}
-	
+
 	@Override
 	public int getDayOfMonth()
 	{
-		return m_calendar.get(Calendar.DAY_OF_MONTH);
+		return DateHelper.getPackedDayOfMonth(mPackedDate);
+	}
+
+	@Override
+	public int getEpochDay()
+	{
+		return mEpochDay;
+	}
+
+	public void setEpochDay(int epochDay)
+	{
+		mEpochDay = epochDay;
+		mPackedDate = DateHelper.toPackedDate(epochDay);
+	}
+
+	public int getYear()
+	{
+		return DateHelper.getPackedYear(mPackedDate);
+	}
+
+	/**
+	 * @return The month, from 0 to 11 like Calendar.MONTH.
+	 */
+	public int getMonthIndex()
+	{
+		return DateHelper.getPackedMonth(mPackedDate) - 1;
 	}
-	
+
 	@Override
 	public boolean isToday()
 	{
-		return DateHelper.sameDate(m_calendar, CalendarManager.getInstance().getToday());
+		return mEpochDay == CalendarManager.getInstance().getTodayEpochDay();
 	}
-	
+
 	@Override
 	public boolean isSelected()
 	{
 		return mSelected;
 	}
-	
+
 	@Override
 	public void setSelected(boolean selected)
 	{
 		this.mSelected = selected;
 	}
-	
+
 	@Override
 	public boolean isFirstDayOfTheMonth()
 	{
 		return getDayOfMonth() == 1;
 	}
-	
+
 	@Override
 	public String getMonth()
 	{
-		return CalendarManager.getInstance().getMonthHalfNameFormat().format(m_calendar.getTime());
+		CalendarManager calendarManager = CalendarManager.getInstance();
+		return DateLabels.getInstance(calendarManager.getContext(), calendarManager.getLocale()).getMonthHalfName(mEpochDay);
 	}
-	
+
 	@Override
 	public Calendar getCalendar()
 	{
 		Calendar calendar = Calendar.getInstance(CalendarManager.getInstance().getLocale());
-		calendar.setTime(m_calendar.getTime());
+		DateHelper.setEpochDay(calendar, mEpochDay);
 		return calendar;
 	}
-	
+
 	@Override
 	public void setCalendar(Calendar calendar)
 	{
-		m_calendar = Calendar.getInstance(CalendarManager.getInstance().getLocale());
-		m_calendar.setTime(calendar.getTime());
-		m_calendar.set(Calendar.HOUR, 0);
-		m_calendar.set(Calendar.MINUTE, 0);
-		m_calendar.set(Calendar.SECOND, 0);
-		m_calendar.set(Calendar.MILLISECOND, 0);
-		m_calendar.set(Calendar.AM_PM, 0);
+		setEpochDay(DateHelper.toEpochDay(calendar));
 	}
 	// region Public methods
-	
+
 	// endregion
-	
+
+	@Override
+	public boolean equals(Object o)
+	{
+		if(this == o)
+		{
+			return true;
+		}
+		if(!(o instanceof DayItem))
+		{
+			return false;
+		}
+		return mEpochDay == ((DayItem) o).mEpochDay;
+	}
+
+	@Override
+	public int hashCode()
+	{
+		return mEpochDay;
+	}
+
 	@Override
 	public String toString()
 	{
-		return "DayItem{" + "Calendar='" + m_calendar.toString() + ", value=" + getDayOfMonth() + '}';
+		return "DayItem{" + "year=" + getYear() + ", month=" + (getMonthIndex() + 1) + ", value=" + getDayOfMonth() + '}';
 	}
-	
+
 	@Override
 	public IDayItem copy()
 	{
 		return new DayItem(this);
 	}
-	
+
 	// endregion
 }
@@ -13,6 +13,11 @@ public interface IDayItem {
 
     int getDayOfMonth();
 
+    /**
+     * @return The number of days elapsed since January 1st 1970 in the local time zone.
+     */
+    int getEpochDay();
+
     boolean isToday();
 
     boolean isSelected();
@@ -18,6 +18,13 @@ public interface IWeekItem {
 
     void setMonth(int month);
 
+    /**
+     * @return The number of days elapsed since January 1st 1970 in the local time zone, for the day the week is anchored on.
+     */
+    int getEpochDay();
+
+    void setEpochDay(int epochDay);
+
     Date getDate();
 
     void setDate(Date date);
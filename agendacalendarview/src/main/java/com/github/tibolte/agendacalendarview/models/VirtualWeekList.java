@@ -0,0 +1,235 @@
+package com.github.tibolte.agendacalendarview.models;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.LruCache;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * List of weeks computed on demand from a CalendarGrid. Week N is the week holding the anchor
+ * date plus N weeks, its WeekItem and DayItems are only created when the week is bound, and kept
+ * in a small LRU cache. Grids are shared between calendars, weeks and their selection are not.
+ * The range of the list never changes, extend() returns a larger list sharing the cache, so weeks
+ * already created are reused.
+ */
+public class VirtualWeekList extends AbstractList<IWeekItem>
+{
+
+	/**
+	 * Number of weeks kept in memory, a bit more than a screen of the expanded calendar
+	 */
+	private static final int CACHE_SIZE = 64;
+
+	private final CalendarGrid mGrid;
+	private final IWeekItem    mCleanWeek;
+	/**
+	 * Offset between the day each week is anchored on and the first day of the week, zero or negative
+	 */
+	private final int          mFirstDayOffset;
+	/**
+	 * Epoch day week 0 is anchored on
+	 */
+	private final int          mAnchorDay;
+	private final int          mSize;
+	/**
+	 * Selected day, only changed on the main thread
+	 */
+	private volatile int       mSelectedDay = Integer.MIN_VALUE;
+
+	/**
+	 * Weeks keyed by their anchor epoch day, so lists of different ranges can share them
+	 */
+	private final LruCache<Integer, IWeekItem> mCache;
+
+	// region Constructor
+
+	/**
+	 * @param grid      The layout of the weeks, initially sized to its range.
+	 * @param cleanWeek The instance weeks are copied from.
+	 */
+	public VirtualWeekList(@NonNull CalendarGrid grid, @NonNull IWeekItem cleanWeek)
+	{
+		mGrid = grid;
+		mCleanWeek = cleanWeek;
+		mFirstDayOffset = grid.getFirstDayOffset();
+		mAnchorDay = grid.getAnchorDay();
+		mSize = grid.getWeekCount();
+		mCache = new LruCache<>(CACHE_SIZE);
+	}
+
+	private VirtualWeekList(VirtualWeekList source, int anchorDay, int size)
+	{
+		mGrid = source.mGrid;
+		mCleanWeek = source.mCleanWeek;
+		mFirstDayOffset = source.mFirstDayOffset;
+		mAnchorDay = anchorDay;
+		mSize = size;
+		mSelectedDay = source.mSelectedDay;
+		mCache = source.mCache;
+	}
+
+	// endregion
+
+	// region Class - AbstractList
+
+	@Override
+	public IWeekItem get(int index)
+	{
+		if(index < 0 || index >= mSize)
+		{
+			throw new IndexOutOfBoundsException("Week " + index + " out of " + mSize);
+		}
+
+		int       anchorDay = mAnchorDay + 7 * index;
+		IWeekItem weekItem  = mCache.get(anchorDay);
+		if(weekItem == null)
+		{
+			weekItem = createWeek(anchorDay);
+			mCache.put(anchorDay, weekItem);
+		}
+		return weekItem;
+	}
+
+	@Override
+	public int size()
+	{
+		return mSize;
+	}
+
+	// endregion
+
+	// region Public methods
+
+	/**
+	 * @param before Number of weeks added before the first one, existing weeks move to index + before.
+	 * @param after  Number of weeks added after the last one.
+	 * @return A list of the extended range, sharing the weeks and the selection of this one.
+	 */
+	@NonNull
+	public VirtualWeekList extend(int before, int after)
+	{
+		return new VirtualWeekList(this, mAnchorDay - 7 * before, mSize + before + after);
+	}
+
+	/**
+	 * @return The epoch day of the first day of the first week.
+	 */
+	public int getFirstDay()
+	{
+		return mAnchorDay + mFirstDayOffset;
+	}
+
+	/**
+	 * @return The epoch day of the last day of the last week.
+	 */
+	public int getLastDay()
+	{
+		return getFirstDay() + 7 * mSize - 1;
+	}
+
+	/**
+	 * @return The index of the week holding the given day, which may be out of bounds.
+	 */
+	public int getWeekIndex(int epochDay)
+	{
+		int dayIndex = epochDay - getFirstDay();
+		return dayIndex < 0 ? (dayIndex - 6) / 7 : dayIndex / 7;
+	}
+
+	/**
+	 * @return The item of the given day, or null if it's out of the list.
+	 */
+	@Nullable
+	public IDayItem getDayItem(int epochDay)
+	{
+		int weekIndex = getWeekIndex(epochDay);
+		if(weekIndex < 0 || weekIndex >= mSize)
+		{
+			return null;
+		}
+		return get(weekIndex).getDayItems().get(epochDay - getFirstDay() - 7 * weekIndex);
+	}
+
+	/**
+	 * Select a day. The selection is kept by the list, so it survives weeks being evicted from the cache.
+	 */
+	public void setSelectedDay(int epochDay)
+	{
+		IDayItem previous = getCachedDayItem(mSelectedDay);
+		if(previous != null)
+		{
+			previous.setSelected(false);
+		}
+		mSelectedDay = epochDay;
+		IDayItem selected = getCachedDayItem(epochDay);
+		if(selected != null)
+		{
+			selected.setSelected(true);
+		}
+	}
+
+	/**
+	 * @return A view of the days of every week, in chronological order.
+	 */
+	public List<IDayItem> getDays()
+	{
+		return new AbstractList<IDayItem>()
+		{
+			@Override
+			public IDayItem get(int index)
+			{
+				return VirtualWeekList.this.get(index / 7).getDayItems().get(index % 7);
+			}
+
+			@Override
+			public int size()
+			{
+				return 7 * mSize;
+			}
+		};
+	}
+
+	// endregion
+
+	// region Private methods
+
+	@Nullable
+	private IDayItem getCachedDayItem(int epochDay)
+	{
+		if(epochDay == Integer.MIN_VALUE)
+		{
+			return null;
+		}
+		int       weekIndex = getWeekIndex(epochDay);
+		IWeekItem weekItem  = mCache.get(mAnchorDay + 7 * weekIndex);
+		if(weekItem == null)
+		{
+			return null;
+		}
+		return weekItem.getDayItems().get(epochDay - getFirstDay() - 7 * weekIndex);
+	}
+
+	private IWeekItem createWeek(int anchorDay)
+	{
+		IWeekItem weekItem = mCleanWeek.copy();
+		weekItem.setEpochDay(anchorDay);
+		weekItem.setWeekInYear(mGrid.getWeekInYear(anchorDay));
+		weekItem.setLabel(mGrid.getLabel(anchorDay));
+
+		List<IDayItem> dayItems = new ArrayList<>(7);
+		int            firstDay = anchorDay + mFirstDayOffset;
+		for(int c = 0; c < 7; c++)
+		{
+			DayItem dayItem = new DayItem(firstDay + c);
+			dayItem.setSelected(firstDay + c == mSelectedDay);
+			dayItems.add(dayItem);
+		}
+		weekItem.setDayItems(dayItems);
+		return weekItem;
+	}
+
+	// endregion
+}
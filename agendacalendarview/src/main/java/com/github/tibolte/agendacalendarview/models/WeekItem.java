@@ -1,25 +1,29 @@
 package com.github.tibolte.agendacalendarview.models;
 
+import com.github.tibolte.agendacalendarview.utils.DateHelper;
+
+import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 
 /**
- * Week model class.
+ * Week model class. The week is stored as the local epoch day it's anchored on, its Date is only
+ * built when asked for.
  */
 public class WeekItem implements IWeekItem {
     private int mWeekInYear;
     private int mYear;
     private int mMonth;
-    private Date mDate;
+    private int mEpochDay;
     private String mLabel;
     private List<IDayItem> mDayItems;
 
     // region Constructor
 
     public WeekItem(int weekInYear, int year, Date date, String label, int month) {
+        setDate(date);
         this.mWeekInYear = weekInYear;
         this.mYear = year;
-        this.mDate = date;
         this.mLabel = label;
         this.mMonth = month;
     }
@@ -27,7 +31,7 @@ public class WeekItem implements IWeekItem {
         this.mWeekInYear = original.getWeekInYear();
         this.mYear = original.getYear();
         this.mMonth = original.getMonth();
-        this.mDate = original.getDate();
+        this.mEpochDay = original.getEpochDay();
         this.mLabel = original.getLabel();
         this.mDayItems = original.getDayItems();
     }
@@ -64,12 +68,35 @@ public class WeekItem implements IWeekItem {
         this.mMonth = month;
     }
 
+    @Override
+    public int getEpochDay() {
+        return mEpochDay;
+    }
+
+    /**
+     * Also sets the year and month of the week, from the given day.
+     */
+    @Override
+    public void setEpochDay(int epochDay) {
+        int date = DateHelper.toPackedDate(epochDay);
+        this.mEpochDay = epochDay;
+        this.mYear = DateHelper.getPackedYear(date);
+        this.mMonth = DateHelper.getPackedMonth(date) - 1;
+    }
+
     public Date getDate() {
-        return mDate;
+        Calendar calendar = Calendar.getInstance();
+        DateHelper.setEpochDay(calendar, mEpochDay);
+        return calendar.getTime();
     }
 
+    /**
+     * Also sets the year and month of the week, see setEpochDay().
+     */
     public void setDate(Date date) {
-        this.mDate = date;
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        setEpochDay(DateHelper.toEpochDay(calendar));
     }
 
     public String getLabel() {
@@ -95,6 +122,22 @@ public class WeekItem implements IWeekItem {
 
     // endregion
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WeekItem)) {
+            return false;
+        }
+        return mEpochDay == ((WeekItem) o).mEpochDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return mEpochDay;
+    }
+
     @Override
     public String toString() {
         return "WeekItem{"
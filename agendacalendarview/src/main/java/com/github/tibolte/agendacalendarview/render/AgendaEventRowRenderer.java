@@ -0,0 +1,108 @@
+package com.github.tibolte.agendacalendarview.render;
+
+import android.support.annotation.NonNull;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.LruCache;
+import android.view.View;
+
+import com.github.tibolte.agendacalendarview.R;
+import com.github.tibolte.agendacalendarview.agenda.AgendaEventRowView;
+import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
+
+/**
+ * Renders events as an AgendaEventRowView, a single custom-drawn view, for dense agendas.
+ * Added after the DefaultEventRenderer, it replaces it for BaseCalendarEvents, renderers of
+ * their subclasses are still used for those.
+ * <p>
+ * Titles are laid out by prepare() on a worker thread, to the paint and width of the first rows bound.
+ * Until a row is measured, nothing is prepared.
+ */
+public class AgendaEventRowRenderer extends EventRenderer<BaseCalendarEvent> {
+
+    /**
+     * Number of titles kept laid out
+     */
+    private static final int PREPARED_TITLES = 100;
+
+    private final LruCache<Long, StaticLayout> mTitleLayouts = new LruCache<>(PREPARED_TITLES);
+    /// metrics the titles are laid out with, read from the rows bound
+    private volatile TextPaint mTitlePaint;
+    private volatile int mTitleWidth;
+
+    public AgendaEventRowRenderer() {
+        super(BaseCalendarEvent.class);
+    }
+
+    // region class - EventRenderer
+
+    @Override
+    public void render(@NonNull View view, @NonNull BaseCalendarEvent event) {
+        if (event.isPlaceholder() && !event.showPlaceholders()) {
+            view.setVisibility(View.GONE);
+            return;
+        }
+        view.setVisibility(View.VISIBLE);
+        AgendaEventRowView row = (AgendaEventRowView) view;
+        StaticLayout titleLayout = null;
+        if (!event.isPlaceholder()) {
+            updateMetrics(row);
+            titleLayout = getTitleLayout(event.getId(), event.getTitle());
+        }
+        row.setEvent(event.getTitle(), event.getLocation(), event.getColor(), event.isPlaceholder(), titleLayout);
+    }
+
+    @Override
+    public void prepare(@NonNull BaseCalendarEvent event) {
+        TextPaint paint = mTitlePaint;
+        int width = mTitleWidth;
+        if (event.isPlaceholder() || paint == null || width == 0 || event.getTitle() == null) {
+            return;
+        }
+        StaticLayout layout = mTitleLayouts.get(event.getId());
+        if (layout != null && layout.getPaint() == paint && layout.getWidth() == width && TextUtils.equals(layout.getText(), event.getTitle())) {
+            return;
+        }
+        mTitleLayouts.put(event.getId(), AgendaEventRowView.createTitleLayout(event.getTitle(), paint, width));
+    }
+
+    @Override
+    public int getEventLayout() {
+        return R.layout.view_agenda_event_row;
+    }
+
+    // endregion
+
+    // region Private methods
+
+    /**
+     * Read the paint and width of the titles from the row, forgetting the titles laid out if they changed,
+     * e.g. with the font scale or the orientation.
+     */
+    private void updateMetrics(AgendaEventRowView row) {
+        TextPaint paint = mTitlePaint;
+        if (paint == null || paint.getTextSize() != row.getTitleTextSize()) {
+            mTitlePaint = row.newTitlePaint();
+            mTitleLayouts.evictAll();
+        }
+        int width = row.getTitleWidth();
+        if (width != 0 && width != mTitleWidth) {
+            mTitleWidth = width;
+            mTitleLayouts.evictAll();
+        }
+    }
+
+    /**
+     * @return The title laid out by prepare() with the current metrics, null if it isn't.
+     */
+    private StaticLayout getTitleLayout(long eventId, CharSequence title) {
+        StaticLayout layout = mTitleLayouts.get(eventId);
+        if (layout != null && layout.getPaint() == mTitlePaint && layout.getWidth() == mTitleWidth && TextUtils.equals(layout.getText(), title)) {
+            return layout;
+        }
+        return null;
+    }
+
+    // endregion
+}
@@ -13,6 +13,18 @@ import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
  */
 public class DefaultEventRenderer extends EventRenderer<BaseCalendarEvent> {
 
+    /**
+     * Number of titles and locations kept measured
+     */
+    private static final int PRECOMPUTED_TEXTS = 100;
+
+    private final PrecomputedTextCache mTitles = new PrecomputedTextCache(PRECOMPUTED_TEXTS);
+    private final PrecomputedTextCache mLocations = new PrecomputedTextCache(PRECOMPUTED_TEXTS);
+
+    public DefaultEventRenderer() {
+        super(BaseCalendarEvent.class);
+    }
+
     // region class - EventRenderer
 
     @Override
@@ -32,12 +44,12 @@ public class DefaultEventRenderer extends EventRenderer<BaseCalendarEvent> {
         descriptionContainer.setVisibility(View.VISIBLE);
         txtTitle.setTextColor(view.getResources().getColor(android.R.color.black));
 
-        txtTitle.setText(event.getTitle());
-        txtLocation.setText(event.getLocation());
+        mTitles.setText(txtTitle, event.getId(), event.getTitle());
         if (event.getLocation().length() > 0) {
             locationContainer.setVisibility(View.VISIBLE);
-            txtLocation.setText(event.getLocation());
+            mLocations.setText(txtLocation, event.getId(), event.getLocation());
         } else {
+            txtLocation.setText(event.getLocation());
             locationContainer.setVisibility(View.GONE);
         }
 
@@ -50,6 +62,15 @@ public class DefaultEventRenderer extends EventRenderer<BaseCalendarEvent> {
         txtLocation.setTextColor(view.getResources().getColor(R.color.theme_text_icons));
     }
 
+    @Override
+    public void prepare(@NonNull BaseCalendarEvent event) {
+        if (event.isPlaceholder()) {
+            return;
+        }
+        mTitles.precompute(event.getId(), event.getTitle());
+        mLocations.precompute(event.getId(), event.getLocation());
+    }
+
     @Override
     public int getEventLayout() {
         return R.layout.view_agenda_event;
@@ -0,0 +1,104 @@
+package com.github.tibolte.agendacalendarview.render;
+
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+
+import com.github.tibolte.agendacalendarview.CalendarSnapshot;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+import com.github.tibolte.agendacalendarview.utils.BackgroundExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lets the renderers prepare the rows around the visible ones on a worker thread, see EventRenderer.prepare(),
+ * so they're ready when the scroll reaches them. The rows are prepared again once the visible ones get
+ * close to an end of the prepared window, the preparation of the previous window is then abandoned.
+ */
+public final class EventPreparer {
+
+    /**
+     * Default number of rows prepared on each side of the visible ones
+     */
+    public static final int DEFAULT_WINDOW = 20;
+
+    private static final BackgroundExecutor sExecutor = new BackgroundExecutor("AgendaEventPreparer");
+
+    private final int mWindow;
+    /**
+     * Incremented for every window, so the preparation of a previous one stops
+     */
+    private final AtomicInteger mGeneration = new AtomicInteger();
+    /// window last prepared
+    private CalendarSnapshot mSnapshot;
+    private int mFirstPosition;
+    private int mLastPosition;
+
+    // region Constructors
+
+    public EventPreparer() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param window Number of rows prepared on each side of the visible ones.
+     */
+    public EventPreparer(int window) {
+        mWindow = Math.max(window, 1);
+    }
+
+    // endregion
+
+    // region Public methods
+
+    /**
+     * Prepare the rows around the visible ones, unless they already are.
+     */
+    @MainThread
+    public void onVisibleRangeChanged(@NonNull CalendarSnapshot snapshot, @NonNull EventRendererRegistry renderers, int firstVisible, int lastVisible) {
+        int margin = mWindow / 2;
+        if (snapshot == mSnapshot && firstVisible - margin >= mFirstPosition && lastVisible + margin <= mLastPosition) {
+            return;
+        }
+        mSnapshot = snapshot;
+        mFirstPosition = Math.max(firstVisible - mWindow, 0);
+        mLastPosition = Math.min(lastVisible + mWindow, snapshot.getEventCount() - 1);
+
+        // Renderers are resolved here, the registry is only used on the main thread
+        final List<EventRenderer<?>> rowRenderers = new ArrayList<>();
+        final List<CalendarEvent> events = new ArrayList<>();
+        for (int position = mFirstPosition; position <= mLastPosition; position++) {
+            CalendarEvent event = snapshot.getEventAt(position);
+            if (event != null && !event.isPlaceholder()) {
+                rowRenderers.add(renderers.getRenderer(renderers.getViewType(event)));
+                events.add(event);
+            }
+        }
+
+        final int generation = mGeneration.incrementAndGet();
+        sExecutor.execute(() -> prepare(generation, rowRenderers, events));
+    }
+
+    /**
+     * Stop preparing rows, e.g. when the agenda is replaced.
+     */
+    @MainThread
+    public void cancel() {
+        mGeneration.incrementAndGet();
+        mSnapshot = null;
+    }
+
+    // endregion
+
+    // region Private methods
+
+    @SuppressWarnings("unchecked")
+    private void prepare(int generation, List<EventRenderer<?>> rowRenderers, List<CalendarEvent> events) {
+        for (int i = 0; i < events.size() && generation == mGeneration.get(); i++) {
+            ((EventRenderer<CalendarEvent>) rowRenderers.get(i)).prepare(events.get(i));
+        }
+    }
+
+    // endregion
+}
@@ -1,6 +1,8 @@
 package com.github.tibolte.agendacalendarview.render;
 
 import android.support.annotation.LayoutRes;
+import android.support.annotation.NonNull;
+import android.support.annotation.WorkerThread;
 import android.view.View;
 
 import com.github.tibolte.agendacalendarview.models.CalendarEvent;
@@ -11,13 +13,45 @@ import java.lang.reflect.ParameterizedType;
  * Base class for helping layout rendering
  */
 public abstract class EventRenderer<T extends CalendarEvent> {
+
+    /**
+     * Class of the events rendered, read from the type argument of the subclass unless given
+     */
+    private Class<T> mRenderType;
+
+    // region Constructors
+
+    protected EventRenderer() {
+    }
+
+    /**
+     * @param renderType The class of the events rendered, so it isn't read by reflection.
+     */
+    protected EventRenderer(@NonNull Class<T> renderType) {
+        mRenderType = renderType;
+    }
+
+    // endregion
+
     public abstract void render(final View view, final T event);
 
+    /**
+     * Called on a worker thread for events about to be rendered, to prepare what render() needs, e.g. the
+     * layouts of their texts. Does nothing by default.
+     */
+    @WorkerThread
+    public void prepare(@NonNull T event) {
+    }
+
     @LayoutRes
     public abstract int getEventLayout();
 
+    @SuppressWarnings("unchecked")
     public Class<T> getRenderType() {
-        ParameterizedType type = (ParameterizedType) getClass().getGenericSuperclass();
-        return (Class<T>) type.getActualTypeArguments()[0];
+        if (mRenderType == null) {
+            ParameterizedType type = (ParameterizedType) getClass().getGenericSuperclass();
+            mRenderType = (Class<T>) type.getActualTypeArguments()[0];
+        }
+        return mRenderType;
     }
 }
@@ -0,0 +1,149 @@
+package com.github.tibolte.agendacalendarview.render;
+
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Renderers of the agenda adapters, each with its own view type so rows are only recycled into rows of
+ * the same layout. The renderer of an event class is resolved once and cached: the renderer of the class
+ * itself, else of its closest superclass, else the first one rendering an interface it implements.
+ * Events without a renderer are rendered by a DefaultEventRenderer. View types don't change when renderers
+ * are added, so rows already recycled keep their type.
+ * <p>
+ * Rows created ahead of time, e.g. by a ViewWarmUp, are used before inflating new ones.
+ */
+public final class EventRendererRegistry {
+
+    /**
+     * View type of the events without a renderer, renderers take the following ones
+     */
+    private static final int VIEW_TYPE_FALLBACK = 0;
+
+    private final List<EventRenderer<?>> mRenderers = new ArrayList<>();
+    private final List<Class<?>> mRenderTypes = new ArrayList<>();
+    private final EventRenderer<?> mFallbackRenderer = new DefaultEventRenderer();
+    /**
+     * View type of each event class rendered so far
+     */
+    private final HashMap<Class<?>, Integer> mViewTypes = new HashMap<>();
+    /**
+     * Rows created ahead of time, by view type
+     */
+    private final SparseArray<ArrayDeque<View>> mWarmRows = new SparseArray<>();
+
+    // region Public methods
+
+    /**
+     * Add a renderer for the events of its getRenderType(). A ListView reads the number of view types only
+     * when its adapter is set, see AgendaAdapter.VIEW_TYPE_CAPACITY.
+     */
+    public void add(@NonNull EventRenderer<?> renderer) {
+        mRenderers.add(renderer);
+        mRenderTypes.add(renderer.getRenderType());
+        mViewTypes.clear();
+    }
+
+    /**
+     * @return The number of view types, one per renderer plus the fallback renderer.
+     */
+    public int getViewTypeCount() {
+        return mRenderers.size() + 1;
+    }
+
+    /**
+     * @return The view type of the event, from 0 to getViewTypeCount() excluded.
+     */
+    public int getViewType(@NonNull CalendarEvent event) {
+        Class<?> eventClass = event.getClass();
+        Integer viewType = mViewTypes.get(eventClass);
+        if (viewType == null) {
+            viewType = resolve(eventClass);
+            mViewTypes.put(eventClass, viewType);
+        }
+        return viewType;
+    }
+
+    /**
+     * @return The view types the render types of the renderers resolve to, in increasing order. Renderers
+     * replaced by a later one for the same class are left out, as is the fallback renderer.
+     */
+    @NonNull
+    public int[] getResolvedViewTypes() {
+        SparseBooleanArray resolved = new SparseBooleanArray(mRenderTypes.size());
+        for (Class<?> renderType : mRenderTypes) {
+            resolved.put(resolve(renderType), true);
+        }
+        int[] viewTypes = new int[resolved.size()];
+        for (int i = 0; i < viewTypes.length; i++) {
+            viewTypes[i] = resolved.keyAt(i);
+        }
+        return viewTypes;
+    }
+
+    @NonNull
+    public EventRenderer<?> getRenderer(int viewType) {
+        return viewType == VIEW_TYPE_FALLBACK ? mFallbackRenderer : mRenderers.get(viewType - 1);
+    }
+
+    /**
+     * Keep rows of the given view type, without parent, to be returned by inflate().
+     */
+    public void addWarmRows(int viewType, @NonNull List<View> rows) {
+        ArrayDeque<View> warmRows = mWarmRows.get(viewType);
+        if (warmRows == null) {
+            warmRows = new ArrayDeque<>(rows.size());
+            mWarmRows.put(viewType, warmRows);
+        }
+        warmRows.addAll(rows);
+    }
+
+    /**
+     * @return A new row of the given view type, one created ahead of time if any is left.
+     */
+    @NonNull
+    public View inflate(int viewType, @NonNull ViewGroup parent) {
+        ArrayDeque<View> warmRows = mWarmRows.get(viewType);
+        if (warmRows != null && !warmRows.isEmpty()) {
+            return warmRows.poll();
+        }
+        return LayoutInflater.from(parent.getContext()).inflate(getRenderer(viewType).getEventLayout(), parent, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void render(int viewType, @NonNull View view, @NonNull CalendarEvent event) {
+        ((EventRenderer<CalendarEvent>) getRenderer(viewType)).render(view, event);
+    }
+
+    // endregion
+
+    // region Private methods
+
+    private int resolve(Class<?> eventClass) {
+        // The most specific renderer, the last one added if several render the same class
+        for (Class<?> type = eventClass; type != null; type = type.getSuperclass()) {
+            int index = mRenderTypes.lastIndexOf(type);
+            if (index >= 0) {
+                return index + 1;
+            }
+        }
+        for (int i = 0; i < mRenderTypes.size(); i++) {
+            if (mRenderTypes.get(i).isAssignableFrom(eventClass)) {
+                return i + 1;
+            }
+        }
+        return VIEW_TYPE_FALLBACK;
+    }
+
+    // endregion
+}
@@ -0,0 +1,114 @@
+package com.github.tibolte.agendacalendarview.render;
+
+import android.graphics.Typeface;
+import android.support.annotation.MainThread;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.support.v4.text.PrecomputedTextCompat;
+import android.support.v4.widget.TextViewCompat;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.LruCache;
+import android.widget.TextView;
+
+/**
+ * Texts of the events measured ahead of time on a worker thread, so setting them on a TextView doesn't
+ * measure and shape them on the main thread. Texts are keyed by event id and only used while they
+ * match the text set.
+ * <p>
+ * A cache serves TextViews of the same style, e.g. the titles of a renderer. The metrics of the first
+ * TextView bound are used, the cache is cleared when the text size or typeface of the bound TextViews
+ * changes, e.g. with the font scale. Until then, nothing is precomputed.
+ */
+public final class PrecomputedTextCache {
+
+    private final LruCache<Long, Entry> mEntries;
+    /**
+     * Metrics the texts are measured with, null until a TextView is bound
+     */
+    private volatile PrecomputedTextCompat.Params mParams;
+    /// style of the TextViews the metrics were read from
+    private float mTextSize;
+    private Typeface mTypeface;
+
+    // region Constructor
+
+    /**
+     * @param maxSize Number of texts kept, more than the rows prepared ahead of the scroll.
+     */
+    public PrecomputedTextCache(int maxSize) {
+        mEntries = new LruCache<>(maxSize);
+    }
+
+    // endregion
+
+    // region Public methods
+
+    /**
+     * Set the text of the event on the TextView, the precomputed one if it's ready.
+     */
+    @MainThread
+    public void setText(@NonNull TextView textView, long eventId, @Nullable CharSequence text) {
+        updateParams(textView);
+        Entry entry = mEntries.get(eventId);
+        if (entry != null && entry.mPrecomputed.getParams() == mParams && TextUtils.equals(entry.mText, text)) {
+            try {
+                TextViewCompat.setPrecomputedText(textView, entry.mPrecomputed);
+                return;
+            } catch (IllegalArgumentException e) {
+                // The metrics changed without the style, e.g. the text direction once attached, read them again
+                mParams = null;
+            }
+        }
+        textView.setText(text);
+    }
+
+    /**
+     * Measure the text of the event, if it isn't already.
+     */
+    @WorkerThread
+    public void precompute(long eventId, @Nullable CharSequence text) {
+        PrecomputedTextCompat.Params params = mParams;
+        if (params == null || TextUtils.isEmpty(text)) {
+            return;
+        }
+        Entry entry = mEntries.get(eventId);
+        if (entry != null && entry.mPrecomputed.getParams() == params && TextUtils.equals(entry.mText, text)) {
+            return;
+        }
+        mEntries.put(eventId, new Entry(text, PrecomputedTextCompat.create(text, params)));
+    }
+
+    // endregion
+
+    // region Private methods
+
+    private void updateParams(TextView textView) {
+        TextPaint paint = textView.getPaint();
+        if (mParams != null && paint.getTextSize() == mTextSize && paint.getTypeface() == mTypeface) {
+            return;
+        }
+        mTextSize = paint.getTextSize();
+        mTypeface = paint.getTypeface();
+        mParams = TextViewCompat.getTextMetricsParams(textView);
+        mEntries.evictAll();
+    }
+
+    // endregion
+
+    // region Class - Entry
+
+    private static final class Entry {
+
+        private final CharSequence mText;
+        private final PrecomputedTextCompat mPrecomputed;
+
+        Entry(CharSequence text, PrecomputedTextCompat precomputed) {
+            mText = text;
+            mPrecomputed = precomputed;
+        }
+    }
+
+    // endregion
+}
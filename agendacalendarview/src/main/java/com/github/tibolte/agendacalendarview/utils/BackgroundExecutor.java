@@ -0,0 +1,61 @@
+package com.github.tibolte.agendacalendarview.utils;
+
+import android.os.Process;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executor running tasks one at a time on its own daemon thread, at background priority. The thread is
+ * only started for the first task, so features which are never used cost nothing.
+ */
+public final class BackgroundExecutor implements Executor
+{
+
+	private final String          mThreadName;
+	private       ExecutorService mExecutor;
+
+	// region Constructor
+
+	/**
+	 * @param threadName Name of the thread, as shown when debugging or profiling.
+	 */
+	public BackgroundExecutor(@NonNull String threadName)
+	{
+		mThreadName = threadName;
+	}
+
+	// endregion
+
+	// region Interface - Executor
+
+	@Override
+	public void execute(@NonNull Runnable command)
+	{
+		getExecutor().execute(command);
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private synchronized ExecutorService getExecutor()
+	{
+		if(mExecutor == null)
+		{
+			mExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(() -> {
+					Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+					runnable.run();
+				}, mThreadName);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return mExecutor;
+	}
+
+	// endregion
+}
@@ -7,15 +7,14 @@ import com.github.tibolte.agendacalendarview.CalendarManager;
 import com.github.tibolte.agendacalendarview.R;
 import com.github.tibolte.agendacalendarview.models.IWeekItem;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Class containing helper functions for dates
+ * Class containing helper functions for dates. Comparisons go through EpochDays and don't allocate.
  */
 public class DateHelper
 {
@@ -36,13 +35,12 @@ public class DateHelper
 	 */
 	public static boolean sameDate(@NonNull Calendar cal, @NonNull Calendar selectedDate)
 	{
-		return cal.get(Calendar.MONTH) == selectedDate.get(Calendar.MONTH) && cal.get(Calendar.YEAR) == selectedDate.get(Calendar.YEAR) && cal.get(Calendar.DAY_OF_MONTH) == selectedDate.get(
-				Calendar.DAY_OF_MONTH);
+		return EpochDays.toEpochDay(cal) == EpochDays.toEpochDay(selectedDate);
 	}
 	
 	/**
 	 * Check if a Date instance and a Calendar instance have the same time (by month, year and day
-	 * of month)
+	 * of month), the Date being read in the Calendar's time zone
 	 *
 	 * @param cal          The Calendar instance.
 	 * @param selectedDate The Date instance.
@@ -50,10 +48,7 @@ public class DateHelper
 	 */
 	public static boolean sameDate(Calendar cal, Date selectedDate)
 	{
-		Calendar selectedCal = Calendar.getInstance();
-		selectedCal.setTime(selectedDate);
-		return cal.get(Calendar.MONTH) == selectedCal.get(Calendar.MONTH) && cal.get(Calendar.YEAR) == selectedCal.get(Calendar.YEAR) && cal.get(Calendar.DAY_OF_MONTH) == selectedCal.get(
-				Calendar.DAY_OF_MONTH);
+		return EpochDays.toEpochDay(cal) == EpochDays.toEpochDay(selectedDate.getTime(), cal.getTimeZone());
 	}
 	
 	/**
@@ -71,22 +66,99 @@ public class DateHelper
 			return false;
 		}
 		
-		Calendar selectedCal = Calendar.getInstance();
-		selectedCal.setTime(selectedDate);
 		// Check if we deal with the same day regarding startCal and endCal
-		return sameDate(selectedCal, startCal) || selectedCal.after(startCal) && selectedCal.before(endCal);
+		long selectedMillis = selectedDate.getTime();
+		return sameDate(startCal, selectedDate) || selectedMillis > startCal.getTimeInMillis() && selectedMillis < endCal.getTimeInMillis();
 	}
 	
 	/**
-	 * Check if Calendar instance's date is in the same week, as the WeekItem instance.
+	 * Check if Calendar instance's date is in the same week, as the WeekItem instance. Weeks are compared
+	 * by their first day, so weeks spanning two years match whichever year each side belongs to.
 	 *
-	 * @param cal  The Calendar instance to verify.
+	 * @param cal  The Calendar instance to verify, its first day of the week is used.
 	 * @param week The WeekItem instance to compare to.
 	 * @return True if both instances are in the same week.
 	 */
 	public static boolean sameWeek(Calendar cal, IWeekItem week)
 	{
-		return (cal.get(Calendar.WEEK_OF_YEAR) == week.getWeekInYear() && cal.get(Calendar.YEAR) == week.getYear());
+		int firstDayOfWeek = cal.getFirstDayOfWeek();
+		return EpochDays.toEpochWeek(EpochDays.toEpochDay(cal), firstDayOfWeek) == EpochDays.toEpochWeek(week.getEpochDay(), firstDayOfWeek);
+	}
+	
+	/**
+	 * Convert a Calendar instance to the number of days elapsed since January 1st 1970, as seen
+	 * from the Calendar's own time zone. Allocation free, so it can be used as a lookup key.
+	 *
+	 * @param cal The Calendar instance to convert.
+	 * @return The local epoch day of the Calendar instance.
+	 */
+	public static int toEpochDay(@NonNull Calendar cal)
+	{
+		return EpochDays.toEpochDay(cal);
+	}
+	
+	/**
+	 * Convert a timestamp to the number of days elapsed since January 1st 1970 in the given time zone.
+	 *
+	 * @param millis   The timestamp to convert.
+	 * @param timeZone The time zone the day boundaries are computed in.
+	 * @return The local epoch day of the timestamp.
+	 */
+	public static int toEpochDay(long millis, @NonNull TimeZone timeZone)
+	{
+		return EpochDays.toEpochDay(millis, timeZone);
+	}
+	
+	/**
+	 * Set a Calendar instance to midnight of the given local epoch day, keeping its time zone.
+	 *
+	 * @param cal      The Calendar instance to set.
+	 * @param epochDay The number of days elapsed since January 1st 1970.
+	 */
+	public static void setEpochDay(@NonNull Calendar cal, int epochDay)
+	{
+		int date = toPackedDate(epochDay);
+		cal.clear();
+		cal.set(getPackedYear(date), getPackedMonth(date) - 1, getPackedDayOfMonth(date));
+	}
+	
+	/**
+	 * Convert a local epoch day to its date in the proleptic Gregorian calendar, packed in an int.
+	 *
+	 * @param epochDay The number of days elapsed since January 1st 1970.
+	 * @return The date, read it with getPackedYear(), getPackedMonth() and getPackedDayOfMonth().
+	 */
+	public static int toPackedDate(int epochDay)
+	{
+		// Days to civil date, from Howard Hinnant's date algorithms
+		long z     = epochDay + 719468L;
+		long era   = (z >= 0 ? z : z - 146096) / 146097;
+		long doe   = z - era * 146097;
+		long yoe   = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		long doy   = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		long mp    = (5 * doy + 2) / 153;
+		int  day   = (int) (doy - (153 * mp + 2) / 5 + 1);
+		int  month = (int) (mp < 10 ? mp + 3 : mp - 9);
+		int  year  = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+		return (year << 9) | (month << 5) | day;
+	}
+	
+	public static int getPackedYear(int packedDate)
+	{
+		return packedDate >> 9;
+	}
+	
+	/**
+	 * @return The month of a packed date, from 1 to 12, unlike Calendar.MONTH.
+	 */
+	public static int getPackedMonth(int packedDate)
+	{
+		return (packedDate >> 5) & 0xF;
+	}
+	
+	public static int getPackedDayOfMonth(int packedDate)
+	{
+		return packedDate & 0x1F;
 	}
 	
 	/**
@@ -141,17 +213,7 @@ public class DateHelper
 	 */
 	public static String getYearLessLocalizedDate(Calendar calendar, Locale locale)
 	{
-		SimpleDateFormat sdf     = (SimpleDateFormat) SimpleDateFormat.getDateInstance(DateFormat.FULL, CalendarManager.getInstance().getLocale());
-		String           pattern = sdf.toPattern();
-		
-		String           yearLessPattern = pattern.replaceAll("\\W?[Yy]+\\W?", "");
-		SimpleDateFormat yearLessSDF     = new SimpleDateFormat(yearLessPattern, locale);
-		String           yearLessDate    = yearLessSDF.format(calendar.getTime()).toUpperCase();
-		if(yearLessDate.endsWith(","))
-		{
-			yearLessDate = yearLessDate.substring(0, yearLessDate.length() - 1);
-		}
-		return yearLessDate;
+		return DateLabels.getInstance(CalendarManager.getInstance().getContext(), locale).getYearLessDate(EpochDays.toEpochDay(calendar));
 	}
 	
 	// endregion
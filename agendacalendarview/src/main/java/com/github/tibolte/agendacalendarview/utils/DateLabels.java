@@ -0,0 +1,223 @@
+package com.github.tibolte.agendacalendarview.utils;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import android.util.LruCache;
+
+import com.github.tibolte.agendacalendarview.R;
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * Date strings rendered by the views, formatted once per locale and cached, so binding a week or an
+ * agenda header is a lookup. Labels are keyed by their style and the day or month they show.
+ * <p>
+ * Instances are shared per locale and thread safe, labels can be prepared on a worker thread, see prepare().
+ */
+public final class DateLabels
+{
+
+	/**
+	 * Number of locales kept, usually one
+	 */
+	private static final int LOCALE_CACHE_SIZE = 4;
+	/**
+	 * Number of labels kept per locale, all styles together
+	 */
+	private static final int LABEL_CACHE_SIZE  = 1024;
+
+	/// label styles, the high bits of the cache keys
+	private static final int STYLE_WEEKDAY          = 1;
+	private static final int STYLE_MONTH_HALF_NAME  = 2;
+	private static final int STYLE_MONTH_TITLE      = 3;
+	private static final int STYLE_MONTH_TITLE_YEAR = 4;
+	private static final int STYLE_WIDE_DATE        = 5;
+	private static final int STYLE_WIDE_TODAY_DATE  = 6;
+	private static final int STYLE_YEAR_LESS_DATE   = 7;
+
+	private static final String[] DAYS_OF_MONTH = new String[32];
+
+	private static final LruCache<Locale, DateLabels> sInstances = new LruCache<>(LOCALE_CACHE_SIZE);
+
+	private final LruCache<Long, String> mLabels = new LruCache<>(LABEL_CACHE_SIZE);
+
+	/// formatters and the calendar they format, guarded by this
+	private final Calendar         mCalendar;
+	private final SimpleDateFormat mWeekdayFormat;
+	private final SimpleDateFormat mMonthHalfNameFormat;
+	private final SimpleDateFormat mMonthNameFormat;
+	private final SimpleDateFormat mWideDateFormat;
+	private final SimpleDateFormat mWideTodayDateFormat;
+	private final SimpleDateFormat mYearLessDateFormat;
+
+	static
+	{
+		for(int day = 1; day < DAYS_OF_MONTH.length; day++)
+		{
+			DAYS_OF_MONTH[day] = Integer.toString(day);
+		}
+	}
+
+	// region Constructor
+
+	private DateLabels(Context context, Locale locale)
+	{
+		mCalendar = Calendar.getInstance(locale);
+		mWeekdayFormat = new SimpleDateFormat(context.getString(R.string.day_name_format), locale);
+		mMonthHalfNameFormat = new SimpleDateFormat(context.getString(R.string.month_half_name_format), locale);
+		mMonthNameFormat = new SimpleDateFormat(context.getString(R.string.month_name_format), locale);
+		mWideDateFormat = new SimpleDateFormat(context.getString(R.string.wide_date_name_format), locale);
+		mWideTodayDateFormat = new SimpleDateFormat(context.getString(R.string.wide_today_date_name_format), locale);
+
+		// The full date pattern of the locale, without its year
+		String pattern = ((SimpleDateFormat) SimpleDateFormat.getDateInstance(DateFormat.FULL, locale)).toPattern();
+		mYearLessDateFormat = new SimpleDateFormat(pattern.replaceAll("\\W?[Yy]+\\W?", ""), locale);
+	}
+
+	// endregion
+
+	// region Public methods
+
+	@NonNull
+	public static DateLabels getInstance(@NonNull Context context, @NonNull Locale locale)
+	{
+		DateLabels dateLabels = sInstances.get(locale);
+		if(dateLabels == null)
+		{
+			// Two threads may create the labels of the same locale, both are equivalent
+			dateLabels = new DateLabels(context.getApplicationContext(), locale);
+			sInstances.put(locale, dateLabels);
+		}
+		return dateLabels;
+	}
+
+	/**
+	 * Format the labels of the given days ahead of time, from any thread.
+	 *
+	 * @param firstDay The first local epoch day.
+	 * @param lastDay  The last local epoch day, inclusive.
+	 */
+	public void prepare(int firstDay, int lastDay)
+	{
+		for(int epochDay = firstDay; epochDay <= lastDay; epochDay++)
+		{
+			getWeekdayName(epochDay);
+			getMonthHalfName(epochDay);
+			getWideDate(epochDay, false);
+		}
+	}
+
+	/**
+	 * @return The day of the month, without any formatting.
+	 */
+	@NonNull
+	public String getDayOfMonth(int epochDay)
+	{
+		return DAYS_OF_MONTH[DateHelper.getPackedDayOfMonth(DateHelper.toPackedDate(epochDay))];
+	}
+
+	/**
+	 * @return The short name of the day of the week, see R.string.day_name_format.
+	 */
+	@NonNull
+	public String getWeekdayName(int epochDay)
+	{
+		return getLabel(STYLE_WEEKDAY, EpochDays.getDayOfWeek(epochDay), epochDay);
+	}
+
+	/**
+	 * @return The short name of the month, see R.string.month_half_name_format.
+	 */
+	@NonNull
+	public String getMonthHalfName(int epochDay)
+	{
+		return getLabel(STYLE_MONTH_HALF_NAME, getMonthKey(epochDay), epochDay);
+	}
+
+	/**
+	 * @param withYear True to follow the month by its year.
+	 * @return The upper case name of the month, shown over the weeks of the calendar.
+	 */
+	@NonNull
+	public String getMonthTitle(int epochDay, boolean withYear)
+	{
+		return getLabel(withYear ? STYLE_MONTH_TITLE_YEAR : STYLE_MONTH_TITLE, getMonthKey(epochDay), epochDay);
+	}
+
+	/**
+	 * @param today True to use the pattern of the current day.
+	 * @return The date of the wide agenda headers, see R.string.wide_date_name_format.
+	 */
+	@NonNull
+	public String getWideDate(int epochDay, boolean today)
+	{
+		return getLabel(today ? STYLE_WIDE_TODAY_DATE : STYLE_WIDE_DATE, epochDay, epochDay);
+	}
+
+	/**
+	 * @return The full date of the locale without its year, in upper case.
+	 */
+	@NonNull
+	public String getYearLessDate(int epochDay)
+	{
+		return getLabel(STYLE_YEAR_LESS_DATE, epochDay, epochDay);
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private static int getMonthKey(int epochDay)
+	{
+		int date = DateHelper.toPackedDate(epochDay);
+		return DateHelper.getPackedYear(date) * 12 + DateHelper.getPackedMonth(date);
+	}
+
+	/**
+	 * @param value    The day, month or day of week the label depends on, with the style.
+	 * @param epochDay A day the label can be formatted from.
+	 */
+	private String getLabel(int style, int value, int epochDay)
+	{
+		long   key   = ((long) style << 32) | (value & 0xFFFFFFFFL);
+		String label = mLabels.get(key);
+		if(label == null)
+		{
+			label = format(style, epochDay);
+			mLabels.put(key, label);
+		}
+		return label;
+	}
+
+	private synchronized String format(int style, int epochDay)
+	{
+		DateHelper.setEpochDay(mCalendar, epochDay);
+		switch(style)
+		{
+			case STYLE_WEEKDAY:
+				return mWeekdayFormat.format(mCalendar.getTime());
+			case STYLE_MONTH_HALF_NAME:
+				return mMonthHalfNameFormat.format(mCalendar.getTime());
+			case STYLE_MONTH_TITLE:
+				return mMonthNameFormat.format(mCalendar.getTime()).toUpperCase();
+			case STYLE_MONTH_TITLE_YEAR:
+				return mMonthNameFormat.format(mCalendar.getTime()).toUpperCase() + " " + mCalendar.get(Calendar.YEAR);
+			case STYLE_WIDE_DATE:
+				return mWideDateFormat.format(mCalendar.getTime());
+			case STYLE_WIDE_TODAY_DATE:
+				return mWideTodayDateFormat.format(mCalendar.getTime());
+			case STYLE_YEAR_LESS_DATE:
+			{
+				String date = mYearLessDateFormat.format(mCalendar.getTime()).toUpperCase();
+				return date.endsWith(",") ? date.substring(0, date.length() - 1) : date;
+			}
+			default:
+				throw new IllegalArgumentException("Unknown label style " + style);
+		}
+	}
+
+	// endregion
+}
@@ -0,0 +1,167 @@
+package com.github.tibolte.agendacalendarview.utils;
+
+import android.support.annotation.NonNull;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Date arithmetic on local epoch days and weeks, primitive numbers which compare and subtract directly.
+ * Nothing is allocated, so it's safe to call while binding views or scrolling.
+ * <p>
+ * Time zone offsets are cached per UTC day. A day whose offset is the same at both ends is assumed to
+ * have no transition, as zones never change their offset twice within a day. Days holding a
+ * transition ask the time zone every time. The cache serves one time zone at a time, usually the
+ * default one.
+ */
+public final class EpochDays
+{
+
+	private static final long MILLIS_IN_DAY = 86400000L;
+	/**
+	 * Calendar.DAY_OF_WEEK of epoch day 0, January 1st 1970
+	 */
+	private static final int  EPOCH_DAY_OF_WEEK = Calendar.THURSDAY;
+	/**
+	 * Number of UTC days whose offset is cached, direct-mapped
+	 */
+	private static final int  CACHE_SIZE = 256;
+	/**
+	 * Cached offset of a UTC day holding a transition, never returned as an offset
+	 */
+	private static final int  TRANSITION = Integer.MIN_VALUE;
+
+	private static volatile ZoneCache sZoneCache;
+
+	private EpochDays()
+	{
+	}
+
+	// region Public methods
+
+	/**
+	 * @return The number of days elapsed since January 1st 1970 in the given time zone.
+	 */
+	public static int toEpochDay(long millis, @NonNull TimeZone timeZone)
+	{
+		return (int) floorDiv(millis + getOffset(millis, timeZone), MILLIS_IN_DAY);
+	}
+
+	/**
+	 * @return The number of days elapsed since January 1st 1970 in the Calendar's own time zone.
+	 */
+	public static int toEpochDay(@NonNull Calendar cal)
+	{
+		return toEpochDay(cal.getTimeInMillis(), cal.getTimeZone());
+	}
+
+	/**
+	 * @return The day of the week of a local epoch day, from Calendar.SUNDAY to Calendar.SATURDAY.
+	 */
+	public static int getDayOfWeek(int epochDay)
+	{
+		return floorMod(epochDay + EPOCH_DAY_OF_WEEK - Calendar.SUNDAY, 7) + Calendar.SUNDAY;
+	}
+
+	/**
+	 * @param firstDayOfWeek The first day of the week, like Calendar.getFirstDayOfWeek().
+	 * @return The local epoch day of the first day of the week holding the given day.
+	 */
+	public static int getWeekStart(int epochDay, int firstDayOfWeek)
+	{
+		return epochDay - floorMod(getDayOfWeek(epochDay) - firstDayOfWeek, 7);
+	}
+
+	/**
+	 * @param firstDayOfWeek The first day of the week, like Calendar.getFirstDayOfWeek().
+	 * @return The number of weeks elapsed since the week holding January 1st 1970. Two days are in the
+	 * same week if and only if their epoch weeks are equal, whatever the year.
+	 */
+	public static int toEpochWeek(int epochDay, int firstDayOfWeek)
+	{
+		return (int) floorDiv(getWeekStart(epochDay, firstDayOfWeek) - getWeekStart(0, firstDayOfWeek), 7);
+	}
+
+	// endregion
+
+	// region Private methods
+
+	private static int getOffset(long millis, TimeZone timeZone)
+	{
+		ZoneCache zoneCache = sZoneCache;
+		if(zoneCache == null || !zoneCache.serves(timeZone))
+		{
+			zoneCache = new ZoneCache(timeZone);
+			sZoneCache = zoneCache;
+		}
+
+		int  utcDay = (int) floorDiv(millis, MILLIS_IN_DAY);
+		int  index  = utcDay & (CACHE_SIZE - 1);
+		long entry  = zoneCache.mEntries.get(index);
+		int  offset;
+		if(entry != 0 && (int) (entry >> 32) == utcDay)
+		{
+			offset = (int) entry;
+		}
+		else
+		{
+			long dayStart = utcDay * MILLIS_IN_DAY;
+			offset = timeZone.getOffset(dayStart);
+			if(timeZone.getOffset(dayStart + MILLIS_IN_DAY - 1) != offset)
+			{
+				offset = TRANSITION;
+			}
+			zoneCache.mEntries.set(index, ((long) utcDay << 32) | (offset & 0xFFFFFFFFL));
+		}
+		return offset != TRANSITION ? offset : timeZone.getOffset(millis);
+	}
+
+	private static long floorDiv(long x, long y)
+	{
+		long q = x / y;
+		if((x % y != 0) && ((x ^ y) < 0))
+		{
+			q--;
+		}
+		return q;
+	}
+
+	private static int floorMod(int x, int y)
+	{
+		return ((x % y) + y) % y;
+	}
+
+	// endregion
+
+	// region Class - ZoneCache
+
+	/**
+	 * Offsets of one time zone, each entry packs a UTC day in its high bits and its offset in its low bits.
+	 * Entries are written atomically, a reader sees either a whole entry or none.
+	 */
+	private static final class ZoneCache
+	{
+
+		private final TimeZone        mTimeZone;
+		private final String          mId;
+		private final int             mRawOffset;
+		private final AtomicLongArray mEntries = new AtomicLongArray(CACHE_SIZE);
+
+		ZoneCache(TimeZone timeZone)
+		{
+			// Zones are mutable, keep our own
+			mTimeZone = (TimeZone) timeZone.clone();
+			mId = timeZone.getID();
+			mRawOffset = timeZone.getRawOffset();
+		}
+
+		boolean serves(TimeZone timeZone)
+		{
+			// TimeZone.getDefault() returns a new instance every time, compare them by rules
+			return timeZone == mTimeZone || (mRawOffset == timeZone.getRawOffset() && mId.equals(timeZone.getID()));
+		}
+	}
+
+	// endregion
+}
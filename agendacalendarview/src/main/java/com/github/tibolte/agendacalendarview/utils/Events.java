@@ -1,5 +1,7 @@
 package com.github.tibolte.agendacalendarview.utils;
 
+import com.github.tibolte.agendacalendarview.CalendarSnapshot;
+import com.github.tibolte.agendacalendarview.SnapshotDiff;
 import com.github.tibolte.agendacalendarview.models.IDayItem;
 
 import java.util.Calendar;
@@ -16,7 +18,7 @@ public class Events {
 
         public DayClickedEvent(IDayItem dayItem) {
             this.mCalendar = Calendar.getInstance();
-            this.mCalendar.setTime(dayItem.getDate());
+            DateHelper.setEpochDay(this.mCalendar, dayItem.getEpochDay());
             this.mDayItem = dayItem;
         }
 
@@ -40,4 +42,80 @@ public class Events {
 
     public static class ForecastFetched {
     }
+
+    /**
+     * Sent by the CalendarManager when events were added, updated or removed.
+     */
+    public static class EventsChanged {
+
+        private final SnapshotDiff mDiff;
+
+        public EventsChanged(SnapshotDiff diff) {
+            this.mDiff = diff;
+        }
+
+        /**
+         * @return The changes, computed off the main thread, with the row operations of the agenda when available.
+         */
+        public SnapshotDiff getDiff() {
+            return mDiff;
+        }
+
+        /**
+         * @return The snapshot holding the changes. Events are delivered in the order snapshots were published.
+         */
+        public CalendarSnapshot getSnapshot() {
+            return mDiff.getSnapshot();
+        }
+
+        /**
+         * @return The sorted local epoch days whose events changed.
+         */
+        public int[] getEpochDays() {
+            return mDiff.getEpochDays();
+        }
+
+        /**
+         * @return The sorted local epoch days whose event indicators changed.
+         */
+        public int[] getIndicatorDays() {
+            return mDiff.getIndicatorDays();
+        }
+
+        /**
+         * @return True if rows were inserted or removed in the agenda, false if existing rows only need to be rebound.
+         */
+        public boolean isStructureChanged() {
+            return mDiff.isStructureChanged();
+        }
+    }
+
+    /**
+     * Sent by the CalendarManager once the visible days stopped changing for a moment, to load or
+     * release data around them.
+     */
+    public static class VisibleRangeChanged {
+
+        private final int mFirstDay;
+        private final int mLastDay;
+
+        public VisibleRangeChanged(int firstDay, int lastDay) {
+            this.mFirstDay = firstDay;
+            this.mLastDay = lastDay;
+        }
+
+        /**
+         * @return The local epoch day of the first visible day.
+         */
+        public int getFirstDay() {
+            return mFirstDay;
+        }
+
+        /**
+         * @return The local epoch day of the last visible day, inclusive.
+         */
+        public int getLastDay() {
+            return mLastDay;
+        }
+    }
 }
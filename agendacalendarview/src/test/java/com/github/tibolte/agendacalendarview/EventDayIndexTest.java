@@ -0,0 +1,211 @@
+package com.github.tibolte.agendacalendarview;
+
+import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventDayIndexTest
+{
+
+	private static final int FIRST_DAY = 18000;
+
+	@Test
+	public void positions_arePrefixSums()
+	{
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 4);
+		index.add(FIRST_DAY, event(1, 0));
+		index.add(FIRST_DAY, event(2, 0));
+		index.add(FIRST_DAY + 2, event(3, 0));
+		index.add(FIRST_DAY + 4, event(4, 0));
+
+		assertEquals(4, index.getEventCount());
+		assertEquals(0, index.getPosition(FIRST_DAY));
+		assertEquals(2, index.getPosition(FIRST_DAY + 1));
+		assertEquals(2, index.getPosition(FIRST_DAY + 2));
+		assertEquals(3, index.getPosition(FIRST_DAY + 4));
+		// Out of the range
+		assertEquals(0, index.getPosition(FIRST_DAY - 10));
+		assertEquals(3, index.getPosition(FIRST_DAY + 10));
+
+		assertEquals(0, index.getSlotAt(1));
+		assertEquals(2, index.getSlotAt(2));
+		assertEquals(4, index.getSlotAt(3));
+		assertEquals(-1, index.getSlotAt(4));
+		assertEquals(3, index.getEventAt(2).getId());
+	}
+
+	@Test
+	public void positions_withPlaceholderRows()
+	{
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 2);
+		index.setPlaceholderRows(true);
+		index.add(FIRST_DAY + 1, event(1, 0));
+		index.add(FIRST_DAY + 1, event(2, 0));
+
+		assertEquals(4, index.getEventCount());
+		assertEquals(1, index.getPosition(FIRST_DAY + 1));
+		assertEquals(3, index.getPosition(FIRST_DAY + 2));
+		assertTrue(index.isPlaceholderAt(0));
+		assertFalse(index.isPlaceholderAt(1));
+		assertTrue(index.isPlaceholderAt(3));
+		assertNull(index.getEventAt(3));
+	}
+
+	@Test
+	public void positions_followChanges()
+	{
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 2);
+		index.add(FIRST_DAY + 2, event(1, 0));
+		assertEquals(0, index.getPosition(FIRST_DAY + 2));
+
+		index.add(FIRST_DAY, event(2, 0));
+		assertEquals(1, index.getPosition(FIRST_DAY + 2));
+
+		index.getOrCreate(FIRST_DAY).clear();
+		index.invalidatePositions();
+		assertEquals(0, index.getPosition(FIRST_DAY + 2));
+		assertEquals(1, index.getEventCount());
+	}
+
+	@Test
+	public void add_growsTheRange()
+	{
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 2);
+		index.add(FIRST_DAY + 1, event(1, 0));
+
+		index.add(FIRST_DAY - 5, event(2, 0));
+		assertTrue(index.getFirstDay() <= FIRST_DAY - 5);
+		assertTrue(index.contains(FIRST_DAY + 2));
+		index.add(FIRST_DAY + 40, event(3, 0));
+		assertTrue(index.getLastDay() >= FIRST_DAY + 40);
+
+		// Events keep their day and their order
+		assertEquals(2, index.get(FIRST_DAY - 5).get(0).getId());
+		assertEquals(1, index.get(FIRST_DAY + 1).get(0).getId());
+		assertEquals(3, index.get(FIRST_DAY + 40).get(0).getId());
+		assertEquals(0, index.getPosition(FIRST_DAY - 5));
+		assertEquals(1, index.getPosition(FIRST_DAY + 1));
+		assertEquals(2, index.getPosition(FIRST_DAY + 40));
+		assertEquals(3, index.getEventCount());
+	}
+
+	@Test
+	public void extend_growsExactly()
+	{
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 6);
+		index.add(FIRST_DAY + 3, event(1, 0));
+
+		index.extend(FIRST_DAY - 7, FIRST_DAY + 13);
+		assertEquals(FIRST_DAY - 7, index.getFirstDay());
+		assertEquals(FIRST_DAY + 13, index.getLastDay());
+		assertEquals(1, index.get(FIRST_DAY + 3).get(0).getId());
+		assertEquals(0, index.getPosition(FIRST_DAY + 3));
+
+		// Never shrinks
+		index.extend(FIRST_DAY, FIRST_DAY);
+		assertEquals(FIRST_DAY - 7, index.getFirstDay());
+		assertEquals(FIRST_DAY + 13, index.getLastDay());
+	}
+
+	@Test
+	public void copy_doesNotShareDetachedBuckets()
+	{
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 2);
+		index.add(FIRST_DAY, event(1, 0));
+		index.freeze();
+
+		EventDayIndex copy = index.copy();
+		copy.detach(FIRST_DAY);
+		copy.get(FIRST_DAY).add(event(2, 0));
+		copy.invalidatePositions();
+
+		assertEquals(1, index.getEventCount());
+		assertEquals(2, copy.getEventCount());
+	}
+
+	@Test
+	public void freeze_summarizesTheDays()
+	{
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 1);
+		BaseCalendarEvent placeholder = event(0, 0xFF000000);
+		placeholder.setPlaceholder(true);
+		index.add(FIRST_DAY, placeholder);
+		for(int i = 1; i <= EventDayIndex.SUMMARY_COLORS + 1; i++)
+		{
+			index.add(FIRST_DAY, event(i, 0xFF000000 | i));
+		}
+		index.freeze();
+
+		assertEquals(EventDayIndex.SUMMARY_COLORS + 1, index.getSummaryCount(FIRST_DAY));
+		for(int i = 0; i < EventDayIndex.SUMMARY_COLORS; i++)
+		{
+			assertEquals(0xFF000000 | (i + 1), index.getSummaryColor(FIRST_DAY, i));
+		}
+		assertEquals(0, index.getSummaryCount(FIRST_DAY + 1));
+		assertEquals(0, index.getSummaryCount(FIRST_DAY + 10));
+	}
+
+	@Test
+	public void source_isReadUntilBucketsAreSet()
+	{
+		final ArrayList<CalendarEvent> sourceEvents = new ArrayList<>();
+		sourceEvents.add(event(1, 0xFF0000FF));
+		sourceEvents.add(event(2, 0xFF00FF00));
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 2);
+		index.setSource(new EventDayIndex.Source()
+		{
+			@Override
+			public int getEventCount(int epochDay)
+			{
+				return epochDay == FIRST_DAY + 1 ? sourceEvents.size() : 0;
+			}
+
+			@Override
+			public ArrayList<CalendarEvent> getEvents(int epochDay)
+			{
+				return epochDay == FIRST_DAY + 1 ? sourceEvents : null;
+			}
+
+			@Override
+			public int getEventColor(int epochDay, int index)
+			{
+				return ((BaseCalendarEvent) sourceEvents.get(index)).getColor();
+			}
+		});
+
+		assertEquals(2, index.getEventCount());
+		assertSame(sourceEvents, index.get(FIRST_DAY + 1));
+		assertEquals(2, index.getSummaryCount(FIRST_DAY + 1));
+		assertEquals(0xFF00FF00, index.getSummaryColor(FIRST_DAY + 1, 1));
+
+		// The source's list is copied, never modified
+		index.add(FIRST_DAY + 1, event(3, 0));
+		assertEquals(2, sourceEvents.size());
+		assertEquals(3, index.getEventCount());
+	}
+
+	private static BaseCalendarEvent event(long id, int color)
+	{
+		BaseCalendarEvent event = new BaseCalendarEvent();
+		event.setId(id);
+		event.setColor(color);
+		return event;
+	}
+}
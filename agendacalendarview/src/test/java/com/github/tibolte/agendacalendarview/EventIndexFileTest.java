@@ -0,0 +1,169 @@
+package com.github.tibolte.agendacalendarview;
+
+import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
+import com.github.tibolte.agendacalendarview.models.CalendarEvent;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EventIndexFileTest
+{
+
+	private static final int  FIRST_DAY    = 18000;
+	private static final long DATA_VERSION = 42;
+
+	@Rule
+	public final TemporaryFolder mFolder = new TemporaryFolder();
+
+	@Test
+	public void writeThenOpen_readsTheEventsBack() throws IOException
+	{
+		File file = write();
+
+		EventIndexFile eventFile = EventIndexFile.open(file, DATA_VERSION);
+		assertNotNull(eventFile);
+		assertEquals(DATA_VERSION, eventFile.getDataVersion());
+		assertEquals(FIRST_DAY, eventFile.getFirstDay());
+		assertEquals(FIRST_DAY + 4, eventFile.getLastDay());
+		assertEquals(3, eventFile.getEventCount());
+		assertEquals(2, eventFile.getEventCount(FIRST_DAY));
+		assertEquals(0, eventFile.getEventCount(FIRST_DAY + 1));
+		assertEquals(1, eventFile.getEventCount(FIRST_DAY + 3));
+		assertNull(eventFile.getEvents(FIRST_DAY + 1));
+
+		ArrayList<CalendarEvent> events = eventFile.getEvents(FIRST_DAY);
+		assertEquals(2, events.size());
+		BaseCalendarEvent first = (BaseCalendarEvent) events.get(0);
+		assertEquals(10, first.getId());
+		assertEquals("Meeting", first.getTitle());
+		assertEquals("Room 1", first.getLocation());
+		assertEquals(0xFF2196F3, first.getColor());
+		assertFalse(first.isAllDay());
+		assertEquals(startOf(FIRST_DAY) + 9 * 3600000L, first.getStartTime().getTimeInMillis());
+		assertEquals(startOf(FIRST_DAY) + 10 * 3600000L, first.getEndTime().getTimeInMillis());
+		assertFalse(first.isPlaceholder());
+
+		BaseCalendarEvent second = (BaseCalendarEvent) events.get(1);
+		assertEquals(7, second.getId());
+		assertEquals("Meeting", second.getTitle());
+		assertNull(second.getLocation());
+		assertTrue(second.isAllDay());
+
+		assertEquals(0xFF2196F3, eventFile.getEventColor(FIRST_DAY, 0));
+		assertEquals(0xFFF44336, eventFile.getEventColor(FIRST_DAY, 1));
+		assertEquals(0xFF4CAF50, eventFile.getEventColor(FIRST_DAY + 3, 0));
+	}
+
+	@Test
+	public void open_rejectsOtherDataVersions() throws IOException
+	{
+		assertNull(EventIndexFile.open(write(), DATA_VERSION + 1));
+	}
+
+	@Test
+	public void open_rejectsMissingFiles()
+	{
+		assertNull(EventIndexFile.open(new File(mFolder.getRoot(), "missing"), DATA_VERSION));
+	}
+
+	@Test
+	public void open_rejectsCorruptedHeaders() throws IOException
+	{
+		File file = write();
+		// The first day, covered by the checksum of the header only
+		corrupt(file, 16);
+		assertNull(EventIndexFile.open(file, DATA_VERSION));
+	}
+
+	@Test
+	public void open_rejectsCorruptedTables() throws IOException
+	{
+		File file = write();
+		// The first count, right after the header
+		corrupt(file, 48);
+		assertNull(EventIndexFile.open(file, DATA_VERSION));
+	}
+
+	@Test
+	public void getEvents_hidesCorruptedDays() throws IOException
+	{
+		File file = write();
+		// The records of the last day holding events end the file
+		corrupt(file, (int) file.length() - 1);
+
+		EventIndexFile eventFile = EventIndexFile.open(file, DATA_VERSION);
+		assertNotNull(eventFile);
+		assertEquals(2, eventFile.getEvents(FIRST_DAY).size());
+		assertFalse(eventFile.getEvents(FIRST_DAY).get(0).isPlaceholder());
+
+		// The day keeps its number of rows, as hidden placeholders
+		ArrayList<CalendarEvent> corrupted = eventFile.getEvents(FIRST_DAY + 3);
+		assertEquals(1, corrupted.size());
+		assertTrue(corrupted.get(0).isPlaceholder());
+		assertFalse(((BaseCalendarEvent) corrupted.get(0)).showPlaceholders());
+		assertEquals(0, eventFile.getEventColor(FIRST_DAY + 3, 0));
+	}
+
+	/**
+	 * @return A file holding two events on the first day and one on the fourth, out of five days.
+	 */
+	private File write() throws IOException
+	{
+		EventDayIndex index = new EventDayIndex();
+		index.reset(FIRST_DAY, FIRST_DAY + 4);
+		index.add(FIRST_DAY, event(10, "Meeting", "Room 1", 0xFF2196F3, FIRST_DAY, 9, 10, false));
+		index.add(FIRST_DAY, event(7, "Meeting", null, 0xFFF44336, FIRST_DAY, 0, 24, true));
+		index.add(FIRST_DAY + 3, event(11, "Lunch", "Cafeteria", 0xFF4CAF50, FIRST_DAY + 3, 12, 13, false));
+
+		File file = new File(mFolder.getRoot(), "events");
+		EventIndexFile.write(file, new CalendarSnapshot(Collections.emptyList(), Collections.emptyList(), index, null, null), DATA_VERSION);
+		return file;
+	}
+
+	private static BaseCalendarEvent event(long id, String title, String location, int color, int epochDay, int startHour, int endHour, boolean allDay)
+	{
+		BaseCalendarEvent event = new BaseCalendarEvent();
+		event.setId(id);
+		event.setTitle(title);
+		event.setLocation(location);
+		event.setColor(color);
+		event.setAllDay(allDay);
+		Calendar startTime = Calendar.getInstance();
+		startTime.setTimeInMillis(startOf(epochDay) + startHour * 3600000L);
+		event.setStartTime(startTime);
+		Calendar endTime = Calendar.getInstance();
+		endTime.setTimeInMillis(startOf(epochDay) + endHour * 3600000L);
+		event.setEndTime(endTime);
+		return event;
+	}
+
+	private static long startOf(int epochDay)
+	{
+		return epochDay * 86400000L;
+	}
+
+	private static void corrupt(File file, int offset) throws IOException
+	{
+		try(RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+		{
+			randomAccessFile.seek(offset);
+			int value = randomAccessFile.read();
+			randomAccessFile.seek(offset);
+			randomAccessFile.write(value ^ 0xFF);
+		}
+	}
+}
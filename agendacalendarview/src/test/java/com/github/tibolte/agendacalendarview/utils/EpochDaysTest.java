@@ -0,0 +1,108 @@
+package com.github.tibolte.agendacalendarview.utils;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpochDaysTest
+{
+
+	private static final TimeZone UTC       = TimeZone.getTimeZone("UTC");
+	private static final TimeZone PARIS     = TimeZone.getTimeZone("Europe/Paris");
+	private static final TimeZone NEW_YORK  = TimeZone.getTimeZone("America/New_York");
+	/**
+	 * Switched to summer time at midnight, November 4th 2018 started at 1:00
+	 */
+	private static final TimeZone SAO_PAULO = TimeZone.getTimeZone("America/Sao_Paulo");
+
+	@Test
+	public void toEpochDay_aroundEpoch()
+	{
+		assertEquals(0, EpochDays.toEpochDay(0, UTC));
+		assertEquals(-1, EpochDays.toEpochDay(-1, UTC));
+		assertEquals(1, EpochDays.toEpochDay(DateHelper.MILIS_IN_DAY, UTC));
+	}
+
+	@Test
+	public void toEpochDay_acrossYearBoundary()
+	{
+		assertEquals(18261, EpochDays.toEpochDay(calendar(PARIS, 2019, Calendar.DECEMBER, 31, 23, 59)));
+		assertEquals(18262, EpochDays.toEpochDay(calendar(PARIS, 2020, Calendar.JANUARY, 1, 0, 0)));
+		// Still December 31st in New York while it's already January 1st in UTC
+		Calendar newYear = calendar(NEW_YORK, 2019, Calendar.DECEMBER, 31, 22, 0);
+		assertEquals(18261, EpochDays.toEpochDay(newYear));
+		assertEquals(18262, EpochDays.toEpochDay(newYear.getTimeInMillis(), UTC));
+	}
+
+	@Test
+	public void toEpochDay_acrossDaylightSavingTime()
+	{
+		// 23 hours long in New York
+		for(int hour = 0; hour < 24; hour++)
+		{
+			assertEquals(17965, EpochDays.toEpochDay(calendar(NEW_YORK, 2019, Calendar.MARCH, 10, hour, 30)));
+		}
+		assertEquals(17966, EpochDays.toEpochDay(calendar(NEW_YORK, 2019, Calendar.MARCH, 11, 0, 0)));
+
+		// 25 hours long in New York
+		Calendar fallBack = calendar(NEW_YORK, 2019, Calendar.NOVEMBER, 3, 0, 0);
+		for(int hour = 0; hour < 25; hour++)
+		{
+			assertEquals(18203, EpochDays.toEpochDay(fallBack.getTimeInMillis() + hour * 3600000L, NEW_YORK));
+		}
+		assertEquals(18204, EpochDays.toEpochDay(fallBack.getTimeInMillis() + 25 * 3600000L, NEW_YORK));
+	}
+
+	@Test
+	public void toEpochDay_transitionAtMidnight()
+	{
+		Calendar firstHour = calendar(SAO_PAULO, 2018, Calendar.NOVEMBER, 4, 1, 0);
+		assertEquals(17839, EpochDays.toEpochDay(firstHour));
+		assertEquals(17838, EpochDays.toEpochDay(firstHour.getTimeInMillis() - 1, SAO_PAULO));
+	}
+
+	@Test
+	public void toEpochDay_switchingTimeZones()
+	{
+		long millis = calendar(UTC, 2020, Calendar.JANUARY, 1, 2, 0).getTimeInMillis();
+		assertEquals(18262, EpochDays.toEpochDay(millis, UTC));
+		assertEquals(18261, EpochDays.toEpochDay(millis, NEW_YORK));
+		assertEquals(18262, EpochDays.toEpochDay(millis, UTC));
+	}
+
+	@Test
+	public void toEpochDay_matchesSetEpochDay()
+	{
+		Calendar cal = Calendar.getInstance(NEW_YORK);
+		for(int epochDay = 17800; epochDay < 18300; epochDay++)
+		{
+			DateHelper.setEpochDay(cal, epochDay);
+			assertEquals(epochDay, EpochDays.toEpochDay(cal));
+		}
+	}
+
+	@Test
+	public void weeks_acrossYearBoundary()
+	{
+		assertEquals(Calendar.THURSDAY, EpochDays.getDayOfWeek(0));
+		assertEquals(Calendar.WEDNESDAY, EpochDays.getDayOfWeek(18262));
+		assertEquals(Calendar.SUNDAY, EpochDays.getDayOfWeek(-4));
+
+		assertEquals(18260, EpochDays.getWeekStart(18266, Calendar.MONDAY));
+		assertEquals(18266, EpochDays.getWeekStart(18266, Calendar.SUNDAY));
+		assertEquals(EpochDays.toEpochWeek(18260, Calendar.MONDAY), EpochDays.toEpochWeek(18266, Calendar.MONDAY));
+		assertEquals(EpochDays.toEpochWeek(18260, Calendar.MONDAY) - 1, EpochDays.toEpochWeek(18259, Calendar.MONDAY));
+		assertEquals(-1, EpochDays.toEpochWeek(-4, Calendar.MONDAY));
+	}
+
+	private static Calendar calendar(TimeZone timeZone, int year, int month, int day, int hour, int minute)
+	{
+		Calendar cal = Calendar.getInstance(timeZone);
+		cal.clear();
+		cal.set(year, month, day, hour, minute);
+		return cal;
+	}
+}
@@ -1,14 +1,11 @@
 package com.github.tibolte.sample;
 
 import com.github.tibolte.agendacalendarview.AgendaCalendarView;
-import com.github.tibolte.agendacalendarview.CalendarManager;
 import com.github.tibolte.agendacalendarview.CalendarPickerController;
 import com.github.tibolte.agendacalendarview.models.BaseCalendarEvent;
 import com.github.tibolte.agendacalendarview.models.CalendarEvent;
-import com.github.tibolte.agendacalendarview.models.DayItem;
 import com.github.tibolte.agendacalendarview.models.IDayItem;
-import com.github.tibolte.agendacalendarview.models.IWeekItem;
-import com.github.tibolte.agendacalendarview.models.WeekItem;
+import com.github.tibolte.agendacalendarview.render.AgendaEventRowRenderer;
 
 import android.support.v4.content.ContextCompat;
 import android.support.v7.app.AppCompatActivity;
@@ -59,20 +56,13 @@ public class MainActivity extends AppCompatActivity implements CalendarPickerCon
         mAgendaCalendarView.init(eventList, minDate, maxDate, Locale.getDefault(), this);
         mAgendaCalendarView.addEventRenderer(new DrawableEventRenderer());
         */
-        //Async way
-
-
-        //////// This can be done once in another thread
-        CalendarManager calendarManager = CalendarManager.getInstance(getApplicationContext());
-        calendarManager.buildCal(minDate, maxDate, Locale.getDefault(), new DayItem(), new WeekItem());
-        calendarManager.loadEvents(eventList, new BaseCalendarEvent());
-        ////////
-
-        List<CalendarEvent> readyEvents = calendarManager.getEvents();
-        List<IDayItem> readyDays = calendarManager.getDays();
-        List<IWeekItem> readyWeeks = calendarManager.getWeeks();
-        mAgendaCalendarView.init(Locale.getDefault(), readyWeeks,readyDays,readyEvents,this);
+        //Async way, weeks, days and events are built on a worker thread, rows are created meanwhile
+        mAgendaCalendarView.setViewWarmUp(8, 10, 6);
+        mAgendaCalendarView.setEventPreparationEnabled(true);
+        mAgendaCalendarView.initAsync(eventList, minDate, maxDate, Locale.getDefault(), this);
         mAgendaCalendarView.addEventRenderer(new DrawableEventRenderer());
+        // Single view rows for the other events
+        mAgendaCalendarView.addEventRenderer(new AgendaEventRowRenderer());
 
     }
 